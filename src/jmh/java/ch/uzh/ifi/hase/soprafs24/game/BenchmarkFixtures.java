@@ -0,0 +1,79 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
+
+/**
+ * Deterministic game fixtures shared by the benchmarks. Players are inserted
+ * directly into the manager so large fixtures do not pay for the leaderboard
+ * recomputation that {@link GameManager#registerPlayer(Long)} runs per player.
+ */
+public final class BenchmarkFixtures {
+    public static final long LONG_ROUND_DELAY_MILLIS = 3_600_000L;
+    public static final List<String> SYMBOLS = List.of(
+            "TSLA", "GOOG", "MSFT", "NVDA", "AMZN", "META", "NFLX", "INTC", "AMD", "AAPL",
+            "JPM", "GS", "PFE", "JNJ", "XOM", "CVX", "PG", "WDAY", "KO", "BTI",
+            "MCD", "SHEL", "WMT", "COST", "BABA", "LLY", "ABBV", "V", "MA");
+
+    private BenchmarkFixtures() {
+    }
+
+    public static LinkedHashMap<LocalDate, Map<String, Double>> timeline(int days) {
+        Random random = new Random(42);
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        LocalDate date = LocalDate.of(2024, 1, 2);
+        for (int day = 0; day < days; day++) {
+            Map<String, Double> prices = new HashMap<>();
+            for (String symbol : SYMBOLS) {
+                prices.put(symbol, 50.0 + random.nextDouble() * 450.0);
+            }
+            timeline.put(date.plusDays(day), prices);
+        }
+        return timeline;
+    }
+
+    public static GameManager game(Long gameId, int players) {
+        GameManager game = new GameManager(gameId, timeline(10), LONG_ROUND_DELAY_MILLIS);
+        addPlayers(game, players);
+        return game;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void addPlayers(GameManager game, int players) {
+        Random random = new Random(7);
+        try {
+            Field field = GameManager.class.getDeclaredField("playerStates");
+            field.setAccessible(true);
+            Map<Long, PlayerState> playerStates = (Map<Long, PlayerState>) field.get(game);
+            for (long userId = 1; userId <= players; userId++) {
+                PlayerState state = new PlayerState(userId);
+                state.setRoundPrices(game::getRoundPrices);
+                for (int i = 0; i < 5; i++) {
+                    state.setStock(SYMBOLS.get(random.nextInt(SYMBOLS.size())), 1 + random.nextInt(50));
+                }
+                playerStates.put(userId, state);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot populate benchmark game", e);
+        }
+    }
+
+    public static List<TransactionRequestDTO> orders(int count) {
+        List<TransactionRequestDTO> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TransactionRequestDTO order = new TransactionRequestDTO();
+            order.setStockId(SYMBOLS.get(i % SYMBOLS.size()));
+            order.setQuantity(1 + i % 3);
+            order.setType(i % 2 == 0 ? "BUY" : "SELL");
+            orders.add(order);
+        }
+        return orders;
+    }
+}
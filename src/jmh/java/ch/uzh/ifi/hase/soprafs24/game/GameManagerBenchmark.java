@@ -0,0 +1,139 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
+
+@Fork(1)
+public class GameManagerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ReadState {
+        GameManager game;
+
+        @Setup
+        public void setUp() {
+            game = BenchmarkFixtures.game(1L, 10);
+        }
+
+        @TearDown
+        public void tearDown() {
+            game.endGame();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LeaderboardState {
+        @Param({ "10", "1000", "100000" })
+        int players;
+
+        GameManager game;
+
+        @Setup
+        public void setUp() {
+            game = BenchmarkFixtures.game(2L, players);
+        }
+
+        @TearDown
+        public void tearDown() {
+            game.endGame();
+        }
+    }
+
+    /**
+     * A fresh game per iteration with one distinct player per submission, so
+     * every measured call takes the accepted path rather than the duplicate
+     * round rejection. In {@code ROUND_CLOSE} mode the measured call only
+     * queues; the settlement sweep runs in the tear-down.
+     */
+    @State(Scope.Benchmark)
+    public static class SubmissionState {
+        static final int THREADS = 4;
+        static final int SUBMISSIONS_PER_THREAD = 512;
+
+        @Param({ "IMMEDIATE", "ROUND_CLOSE" })
+        public SettlementMode settlementMode;
+
+        final AtomicInteger threadSlots = new AtomicInteger();
+        GameManager game;
+        List<TransactionRequestDTO> orders;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            threadSlots.set(0);
+            orders = BenchmarkFixtures.orders(10);
+            game = BenchmarkFixtures.game(3L, THREADS * SUBMISSIONS_PER_THREAD);
+            game.setSettlementMode(settlementMode);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            game.endGame();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SubmitterState {
+        long nextUserId;
+
+        @Setup(Level.Iteration)
+        public void setUp(SubmissionState submissions) {
+            nextUserId = 1L + (long) submissions.threadSlots.getAndIncrement() * SubmissionState.SUBMISSIONS_PER_THREAD;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, batchSize = SubmissionState.SUBMISSIONS_PER_THREAD)
+    @Measurement(iterations = 10, batchSize = SubmissionState.SUBMISSIONS_PER_THREAD)
+    @Threads(SubmissionState.THREADS)
+    public void submitTransactionsContended(SubmissionState submissions, SubmitterState submitter) {
+        submissions.game.submitTransactions(submitter.nextUserId++, submissions.orders);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public List<LeaderBoardEntry> recalculateLeaderboard(LeaderboardState state) {
+        state.game.recalculateLeaderboard();
+        return state.game.getLeaderBoard();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public Map<String, Double> getCurrentStockPrices(ReadState state) {
+        return state.game.getCurrentStockPrices();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public LocalDate getDateForRound(ReadState state) {
+        return state.game.getDateForRound(7);
+    }
+}
@@ -0,0 +1,56 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerStateBenchmark {
+    private RoundPrices prices;
+    private List<TransactionRequestDTO> roundOrders;
+    private PlayerState holder;
+
+    @Setup
+    public void setUp() {
+        Map.Entry<LocalDate, Map<String, Double>> firstDay = BenchmarkFixtures.timeline(1).entrySet().iterator()
+                .next();
+        prices = RoundPrices.of(firstDay.getValue());
+        roundOrders = BenchmarkFixtures.orders(10);
+        holder = new PlayerState(1L);
+        for (String symbol : BenchmarkFixtures.SYMBOLS.subList(0, 5)) {
+            holder.setStock(symbol, 25);
+        }
+    }
+
+    /** One player's round of ten orders against a fresh state, so the ledger does not grow across invocations. */
+    @Benchmark
+    public PlayerState applyTransaction() {
+        PlayerState state = new PlayerState(1L);
+        for (TransactionRequestDTO order : roundOrders) {
+            state.applyTransaction(order, prices, 1);
+        }
+        return state;
+    }
+
+    @Benchmark
+    public long calculateTotalAssets() {
+        return holder.calculateTotalAssetsMicros(prices);
+    }
+}
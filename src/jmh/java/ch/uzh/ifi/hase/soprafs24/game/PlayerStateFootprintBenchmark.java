@@ -0,0 +1,70 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Retained size of one player after a long game. Every player holds the full
+ * symbol list and changes a few positions per round, so the footprint is
+ * dominated by the per-round holdings history. Read the {@code retainedBytes}
+ * and {@code bytesPerRound} secondary results; the timing is incidental.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerStateFootprintBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int rounds;
+
+    @Param({ "0", "3" })
+    public int changesPerRound;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+        public long bytesPerRound;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+            bytesPerRound = 0;
+        }
+    }
+
+    @Benchmark
+    public PlayerState playLongGame(Footprint footprint) {
+        List<String> symbols = BenchmarkFixtures.SYMBOLS;
+        PlayerState state = new PlayerState(1L);
+        for (String symbol : symbols) {
+            state.setStock(symbol, 10);
+        }
+        for (int round = 1; round <= rounds; round++) {
+            for (int change = 0; change < changesPerRound; change++) {
+                state.setStock(symbols.get((round * changesPerRound + change) % symbols.size()), round);
+            }
+            state.snapshotHoldingsAtRound(round);
+        }
+        footprint.retainedBytes = GraphLayout.parseInstance(state).totalSize();
+        footprint.bytesPerRound = footprint.retainedBytes / rounds;
+        return state;
+    }
+}
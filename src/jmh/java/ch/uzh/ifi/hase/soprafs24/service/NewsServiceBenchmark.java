@@ -0,0 +1,68 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ch.uzh.ifi.hase.soprafs24.entity.News;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.NewsDTO;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NewsServiceBenchmark {
+    private static final String TICKER_SENTIMENT_JSON = "["
+            + "{\"ticker\":\"AAPL\",\"relevance_score\":\"0.61\",\"ticker_sentiment_score\":\"0.25\",\"ticker_sentiment_label\":\"Somewhat-Bullish\"},"
+            + "{\"ticker\":\"MSFT\",\"relevance_score\":\"0.33\",\"ticker_sentiment_score\":\"0.05\",\"ticker_sentiment_label\":\"Neutral\"},"
+            + "{\"ticker\":\"NVDA\",\"relevance_score\":\"0.12\",\"ticker_sentiment_score\":\"-0.18\",\"ticker_sentiment_label\":\"Somewhat-Bearish\"}"
+            + "]";
+
+    private NewsService newsService;
+    private News news;
+    private Set<String> gameTickers;
+
+    @Setup
+    public void setUp() {
+        newsService = new NewsService(null, "benchmark");
+        news = new News();
+        news.setId(1L);
+        news.setTitle("Chipmakers rally as demand outlook improves");
+        news.setUrl("https://example.com/news/1");
+        news.setSummary("Semiconductor stocks rose after several suppliers raised guidance.");
+        news.setSource("Example Wire");
+        news.setSourceDomain("example.com");
+        news.setPublishedTime(LocalDateTime.of(2024, 1, 5, 14, 30));
+        news.setOverallSentimentScore(0.21);
+        news.setOverallSentimentLabel("Somewhat-Bullish");
+        news.setApiTickerSentimentJson(TICKER_SENTIMENT_JSON);
+        gameTickers = Set.of("TSLA", "GOOG", "NVDA", "KO", "PG");
+    }
+
+    @TearDown
+    public void tearDown() {
+        newsService.shutdownExecutor();
+    }
+
+    @Benchmark
+    public NewsDTO convertToDTO() {
+        return newsService.convertToDTO(news);
+    }
+
+    @Benchmark
+    public boolean isNewsRelevantToGameTickers() {
+        return newsService.isNewsRelevantToGameTickers(news, gameTickers);
+    }
+}
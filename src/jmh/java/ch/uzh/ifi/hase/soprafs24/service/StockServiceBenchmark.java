@@ -0,0 +1,55 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ch.uzh.ifi.hase.soprafs24.game.BenchmarkFixtures;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.StockHoldingDTO;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StockServiceBenchmark {
+    private static final Long GAME_ID = 900L;
+
+    private StockService stockService;
+    private GameManager game;
+
+    /** Plays a ten-round game to its last round so every round has a holdings snapshot. */
+    @Setup
+    public void setUp() {
+        stockService = new StockService(null, null, null, "benchmark");
+        game = BenchmarkFixtures.game(GAME_ID, 10);
+        for (int round = 1; round < 10; round++) {
+            game.nextRound();
+        }
+        InMemoryGameRegistry.registerGame(GAME_ID, game);
+    }
+
+    @TearDown
+    public void tearDown() {
+        game.endGame();
+        InMemoryGameRegistry.remove(GAME_ID);
+    }
+
+    @Benchmark
+    public Map<Integer, List<StockHoldingDTO>> getPlayerHoldingsAllRounds() {
+        return stockService.getPlayerHoldingsAllRounds(1L, GAME_ID);
+    }
+}
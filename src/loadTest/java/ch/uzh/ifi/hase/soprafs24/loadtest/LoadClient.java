@@ -0,0 +1,81 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** Thin asynchronous JSON client that records every call against an endpoint label. */
+class LoadClient {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final ObjectMapper json = new ObjectMapper();
+
+    LoadClient(String baseUrl, ExecutorService executor) {
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    CompletableFuture<JsonNode> get(String endpoint, String path, ScenarioMetrics metrics) {
+        return send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET(), metrics);
+    }
+
+    CompletableFuture<JsonNode> post(String endpoint, String path, Object body, ScenarioMetrics metrics) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(body)));
+        return send(endpoint, request, metrics);
+    }
+
+    /** Blocking variant for the setup phase, where a failed call aborts the scenario. */
+    JsonNode postAndWait(String endpoint, String path, Object body, ScenarioMetrics metrics) {
+        JsonNode response = post(endpoint, path, body, metrics).join();
+        if (response == null) {
+            throw new IllegalStateException("Setup call failed: POST " + path);
+        }
+        return response;
+    }
+
+    private CompletableFuture<JsonNode> send(String endpoint, HttpRequest.Builder request, ScenarioMetrics metrics) {
+        long startNanos = System.nanoTime();
+        return http.sendAsync(request.timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    long micros = (System.nanoTime() - startNanos) / 1_000;
+                    boolean ok = failure == null && response.statusCode() < 400;
+                    metrics.record(endpoint, micros, !ok);
+                    return ok ? parse(response.body()) : null;
+                });
+    }
+
+    private JsonNode parse(byte[] body) {
+        if (body.length == 0) {
+            return json.nullNode();
+        }
+        try {
+            return json.readTree(body);
+        } catch (IOException e) {
+            return json.getNodeFactory().textNode(new String(body));
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return json.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+    }
+}
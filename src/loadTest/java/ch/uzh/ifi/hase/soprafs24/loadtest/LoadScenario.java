@@ -0,0 +1,56 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One load level, written on the command line as
+ * {@code name:<games>x<playersPerGame>:<durationSeconds>}, e.g. {@code classroom:50x20:120}.
+ */
+final class LoadScenario {
+    static final List<String> DEFAULT_SCENARIOS = List.of("smoke:5x4:30", "classroom:50x20:120", "event:200x25:180");
+
+    final String name;
+    final int games;
+    final int playersPerGame;
+    final int durationSeconds;
+
+    LoadScenario(String name, int games, int playersPerGame, int durationSeconds) {
+        if (games <= 0 || playersPerGame <= 0 || durationSeconds <= 0) {
+            throw new IllegalArgumentException("Scenario " + name + " needs positive games, players and duration");
+        }
+        this.name = name;
+        this.games = games;
+        this.playersPerGame = playersPerGame;
+        this.durationSeconds = durationSeconds;
+    }
+
+    int players() {
+        return games * playersPerGame;
+    }
+
+    static List<LoadScenario> parseAll(String[] args) {
+        List<String> specs = args.length == 0 ? DEFAULT_SCENARIOS : List.of(args);
+        List<LoadScenario> scenarios = new ArrayList<>();
+        for (String spec : specs) {
+            scenarios.add(parse(spec));
+        }
+        return scenarios;
+    }
+
+    static LoadScenario parse(String spec) {
+        String[] parts = spec.split(":");
+        String[] size = parts.length == 3 ? parts[1].split("x") : new String[0];
+        if (size.length != 2) {
+            throw new IllegalArgumentException(
+                    "Invalid scenario '" + spec + "', expected name:<games>x<players>:<seconds>");
+        }
+        return new LoadScenario(parts[0], Integer.parseInt(size[0]), Integer.parseInt(size[1]),
+                Integer.parseInt(parts[2]));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d games x %d players, %ds)", name, games, playersPerGame, durationSeconds);
+    }
+}
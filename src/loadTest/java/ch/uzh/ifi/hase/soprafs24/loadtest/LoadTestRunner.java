@@ -0,0 +1,166 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ch.uzh.ifi.hase.soprafs24.Application;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+
+/**
+ * Boots the application on a random port against an in-memory H2 database and
+ * stubbed market data, then runs each scenario in turn. A scenario signs up
+ * every player, fills and readies one lobby per game, starts all games and
+ * lets the simulated players poll and trade for the scenario's duration.
+ *
+ * Run with {@code ./gradlew loadTest -PloadTestArgs="classroom:50x20:120"}.
+ * Results are printed and written to build/reports/loadtest/results.json.
+ */
+public final class LoadTestRunner {
+    private static final int SETUP_PARALLELISM = 16;
+    private static final long TICK_MILLIS = 1_000L;
+    private static final long DRAIN_MILLIS = 10_000L;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<LoadScenario> scenarios = LoadScenario.parseAll(args);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class,
+                StubMarketDataConfiguration.class)
+                .profiles("loadtest")
+                .run();
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        ExecutorService httpExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        List<Map<String, Object>> reports = new ArrayList<>();
+        try {
+            LoadClient client = new LoadClient("http://localhost:" + port, httpExecutor);
+            for (LoadScenario scenario : scenarios) {
+                System.out.println("Running scenario " + scenario);
+                Map<String, Object> report = runScenario(scenario, client);
+                printReport(report);
+                reports.add(report);
+            }
+            writeReports(reports);
+        } finally {
+            httpExecutor.shutdownNow();
+            context.close();
+        }
+    }
+
+    private static Map<String, Object> runScenario(LoadScenario scenario, LoadClient client)
+            throws InterruptedException {
+        ScenarioMetrics metrics = new ScenarioMetrics();
+        List<SimulatedPlayer> players = new ArrayList<>();
+        Set<Long> gameIds = new LinkedHashSet<>();
+        ExecutorService setup = Executors.newFixedThreadPool(SETUP_PARALLELISM);
+        try {
+            List<CompletableFuture<List<SimulatedPlayer>>> games = new ArrayList<>();
+            for (int game = 0; game < scenario.games; game++) {
+                int gameIndex = game;
+                games.add(CompletableFuture.supplyAsync(
+                        () -> startGame(scenario, gameIndex, client, metrics), setup));
+            }
+            for (CompletableFuture<List<SimulatedPlayer>> game : games) {
+                for (SimulatedPlayer player : game.join()) {
+                    players.add(player);
+                    gameIds.add(player.gameId());
+                }
+            }
+        } finally {
+            setup.shutdown();
+        }
+
+        int tickThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        ScheduledExecutorService ticker = Executors.newScheduledThreadPool(tickThreads);
+        List<ScheduledFuture<?>> ticks = new ArrayList<>();
+        metrics.start();
+        for (SimulatedPlayer player : players) {
+            long initialDelay = ThreadLocalRandom.current().nextLong(TICK_MILLIS);
+            ticks.add(ticker.scheduleAtFixedRate(player::tick, initialDelay, TICK_MILLIS, TimeUnit.MILLISECONDS));
+        }
+        ticks.add(ticker.scheduleAtFixedRate(metrics::sampleJvm, 0L, TICK_MILLIS, TimeUnit.MILLISECONDS));
+
+        TimeUnit.SECONDS.sleep(scenario.durationSeconds);
+
+        ticks.forEach(tick -> tick.cancel(false));
+        ticker.shutdown();
+        ticker.awaitTermination(DRAIN_MILLIS, TimeUnit.MILLISECONDS);
+        metrics.finish();
+        long finished = players.stream().filter(SimulatedPlayer::isFinished).count();
+        for (Long gameId : gameIds) {
+            GameManager game = InMemoryGameRegistry.getGame(gameId);
+            if (game != null) {
+                game.endGame();
+            }
+        }
+
+        Map<String, Object> report = metrics.toReport(scenario);
+        report.put("playersWithFinishedGames", finished);
+        return report;
+    }
+
+    private static List<SimulatedPlayer> startGame(LoadScenario scenario, int gameIndex, LoadClient client,
+            ScenarioMetrics metrics) {
+        List<Long> userIds = new ArrayList<>();
+        for (int player = 0; player < scenario.playersPerGame; player++) {
+            String username = scenario.name + "-" + gameIndex + "-" + player + "-" + System.nanoTime();
+            userIds.add(client.postAndWait("setup POST /users", "/users",
+                    Map.of("name", username, "username", username, "password", "load-test"), metrics)
+                    .get("userID").asLong());
+        }
+        long lobbyId = client.postAndWait("setup POST /{user}/createLobby", "/" + userIds.get(0) + "/createLobby",
+                Map.of(), metrics).get("id").asLong();
+        for (Long userId : userIds.subList(1, userIds.size())) {
+            client.postAndWait("setup POST /lobby/{id}/joinLobby", "/lobby/" + lobbyId + "/joinLobby",
+                    Map.of("userId", userId), metrics);
+        }
+        for (Long userId : userIds) {
+            client.postAndWait("setup POST /lobby/{id}/ready", "/lobby/" + lobbyId + "/ready",
+                    Map.of("userId", userId), metrics);
+        }
+        client.postAndWait("setup POST /game/{id}/start", "/game/" + lobbyId + "/start", Map.of(), metrics);
+
+        List<SimulatedPlayer> players = new ArrayList<>();
+        for (Long userId : userIds) {
+            players.add(new SimulatedPlayer(lobbyId, userId, client, metrics));
+        }
+        return players;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printReport(Map<String, Object> report) {
+        System.out.printf("  %d requests, %d errors, %.1f req/s, %d skipped ticks, peak heap %d MB, peak threads %d%n",
+                report.get("requests"), report.get("errors"), report.get("throughputPerSecond"),
+                report.get("skippedTicks"), report.get("peakHeapMb"), report.get("peakThreads"));
+        System.out.printf("  %-52s %9s %7s %9s %9s %9s%n", "endpoint", "count", "errors", "p50 ms", "p99 ms",
+                "p999 ms");
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) report.get("endpoints");
+        endpoints.forEach((endpoint, stats) -> System.out.printf("  %-52s %9d %7d %9.2f %9.2f %9.2f%n",
+                endpoint, stats.get("count"), stats.get("errors"),
+                (Long) stats.get("p50") / 1000.0, (Long) stats.get("p99") / 1000.0,
+                (Long) stats.get("p999") / 1000.0));
+    }
+
+    private static void writeReports(List<Map<String, Object>> reports) throws IOException {
+        File output = new File("build/reports/loadtest/results.json");
+        output.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, reports);
+        System.out.println("Wrote " + output.getAbsolutePath());
+    }
+}
@@ -0,0 +1,84 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies per endpoint plus JVM samples for one scenario. The server runs in
+ * the same JVM as the load generator, so heap and thread figures cover both.
+ */
+class ScenarioMetrics {
+    private final Map<String, LatencyHistogram> endpoints = new ConcurrentHashMap<>();
+    private final LatencyHistogram overall = new LatencyHistogram();
+    private final LongAdder skippedTicks = new LongAdder();
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+    private final AtomicLong peakThreads = new AtomicLong();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private long startedAtNanos;
+    private long finishedAtNanos;
+
+    void start() {
+        startedAtNanos = System.nanoTime();
+    }
+
+    void finish() {
+        finishedAtNanos = System.nanoTime();
+    }
+
+    void record(String endpoint, long micros, boolean error) {
+        endpoints.computeIfAbsent(endpoint, key -> new LatencyHistogram()).record(micros, error);
+        if (!endpoint.startsWith("setup ")) {
+            overall.record(micros, error);
+        }
+    }
+
+    void tickSkipped() {
+        skippedTicks.increment();
+    }
+
+    void sampleJvm() {
+        peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+    }
+
+    Map<String, Object> toReport(LoadScenario scenario) {
+        double seconds = Math.max(1e-9, (finishedAtNanos - startedAtNanos) / 1e9);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", scenario.name);
+        report.put("games", scenario.games);
+        report.put("playersPerGame", scenario.playersPerGame);
+        report.put("durationSeconds", seconds);
+        report.put("requests", overall.count());
+        report.put("errors", overall.errors());
+        report.put("throughputPerSecond", overall.count() / seconds);
+        report.put("skippedTicks", skippedTicks.sum());
+        report.put("peakHeapMb", peakHeapBytes.get() / (1024 * 1024));
+        report.put("peakThreads", peakThreads.get());
+        report.put("latencyMicros", latencies(overall));
+        Map<String, Object> perEndpoint = new LinkedHashMap<>();
+        new TreeMap<>(endpoints).forEach((endpoint, histogram) -> {
+            Map<String, Object> entry = latencies(histogram);
+            entry.put("count", histogram.count());
+            entry.put("errors", histogram.errors());
+            perEndpoint.put(endpoint, entry);
+        });
+        report.put("endpoints", perEndpoint);
+        return report;
+    }
+
+    private static Map<String, Object> latencies(LatencyHistogram histogram) {
+        Map<String, Object> latencies = new LinkedHashMap<>();
+        latencies.put("p50", histogram.percentileMicros(50.0));
+        latencies.put("p99", histogram.percentileMicros(99.0));
+        latencies.put("p999", histogram.percentileMicros(99.9));
+        return latencies;
+    }
+}
@@ -0,0 +1,114 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One browser tab in a running game. It ticks once a second and polls the way
+ * the frontend does: round every tick, status every other tick, leaderboard,
+ * prices and holdings every third tick, news and history every tenth. After a
+ * seconds of think time in each new round it submits a handful of orders.
+ * A tick is skipped while the previous one is still waiting for responses, and
+ * the player goes quiet once its game has finished.
+ */
+class SimulatedPlayer {
+    private static final int LAST_ROUND = 10;
+    private static final List<String> SYMBOLS = List.of(
+            "AAPL", "MSFT", "NVDA", "TSLA", "GOOG", "AMZN", "META", "KO", "PG", "JPM");
+
+    private final long gameId;
+    private final long userId;
+    private final LoadClient client;
+    private final ScenarioMetrics metrics;
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private volatile boolean finished;
+    private long tick;
+    private volatile int knownRound = 1;
+    private int submittedRound;
+    private int thinkTicks = nextThinkTicks();
+
+    SimulatedPlayer(long gameId, long userId, LoadClient client, ScenarioMetrics metrics) {
+        this.gameId = gameId;
+        this.userId = userId;
+        this.client = client;
+        this.metrics = metrics;
+    }
+
+    void tick() {
+        if (finished) {
+            return;
+        }
+        if (!busy.compareAndSet(false, true)) {
+            metrics.tickSkipped();
+            return;
+        }
+        tick++;
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+        calls.add(client.get("GET /game/{id}/round", "/game/" + gameId + "/round", metrics)
+                .thenAccept(this::onRound));
+        if (tick % 2 == 0) {
+            calls.add(client.get("GET /game/{id}/status",
+                    "/game/" + gameId + "/status?lastRound=" + knownRound, metrics));
+        }
+        if (tick % 3 == 0) {
+            calls.add(client.get("GET /game/{id}/leader", "/game/" + gameId + "/leader", metrics));
+            calls.add(client.get("GET /api/stocks/{id}/stocks", "/api/stocks/" + gameId + "/stocks", metrics));
+            calls.add(client.get("GET /api/stocks/player-holdings/{user}",
+                    "/api/stocks/player-holdings/" + userId + "?gameId=" + gameId, metrics));
+            calls.add(client.get("GET /game/{id}/players/{user}/state",
+                    "/game/" + gameId + "/players/" + userId + "/state", metrics));
+        }
+        if (tick % 10 == 0) {
+            calls.add(client.get("GET /api/news/{id}", "/api/news/" + gameId, metrics));
+            calls.add(client.get("GET /api/stocks/player-holdings/{user}/all-rounds",
+                    "/api/stocks/player-holdings/" + userId + "/all-rounds?gameId=" + gameId, metrics));
+        }
+        if (knownRound > submittedRound && thinkTicks-- <= 0) {
+            submittedRound = knownRound;
+            thinkTicks = nextThinkTicks();
+            calls.add(client.post("POST /api/transaction/{id}/submit",
+                    "/api/transaction/" + gameId + "/submit?userId=" + userId, orders(), metrics));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0]))
+                .whenComplete((ignored, failure) -> busy.set(false));
+    }
+
+    long gameId() {
+        return gameId;
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    private void onRound(JsonNode round) {
+        if (round != null && round.has("currentRound")) {
+            knownRound = round.get("currentRound").asInt(knownRound);
+            finished = !round.path("active").asBoolean(true);
+        } else if (knownRound >= LAST_ROUND) {
+            finished = true;
+        }
+    }
+
+    private static List<Map<String, Object>> orders() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map<String, Object>> orders = new ArrayList<>();
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            orders.add(Map.of(
+                    "stockId", SYMBOLS.get(random.nextInt(SYMBOLS.size())),
+                    "quantity", 1 + random.nextInt(10),
+                    "type", random.nextInt(3) == 0 ? "SELL" : "BUY"));
+        }
+        return orders;
+    }
+
+    private static int nextThinkTicks() {
+        return 5 + ThreadLocalRandom.current().nextInt(26);
+    }
+}
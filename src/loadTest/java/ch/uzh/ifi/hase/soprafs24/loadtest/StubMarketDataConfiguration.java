@@ -0,0 +1,77 @@
+package ch.uzh.ifi.hase.soprafs24.loadtest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ch.uzh.ifi.hase.soprafs24.repository.StockRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.TradingCalendarRepository;
+import ch.uzh.ifi.hase.soprafs24.service.NewsService;
+import ch.uzh.ifi.hase.soprafs24.service.StockService;
+
+/**
+ * Replaces the market-data side of {@link StockService} so load tests never
+ * touch AlphaVantage or need a populated stock_adjusted table. Every game gets
+ * a synthetic ten-day random walk over ten symbols.
+ */
+@Configuration
+public class StubMarketDataConfiguration {
+
+    @Bean
+    public StockService stockService(StockRepository stockRepository,
+            TradingCalendarRepository tradingCalendarRepository, NewsService newsService) {
+        return new StubMarketDataStockService(stockRepository, tradingCalendarRepository, newsService);
+    }
+
+    static class StubMarketDataStockService extends StockService {
+        private static final List<String> SYMBOLS = List.of(
+                "AAPL", "MSFT", "NVDA", "TSLA", "GOOG", "AMZN", "META", "KO", "PG", "JPM");
+
+        StubMarketDataStockService(StockRepository stockRepository,
+                TradingCalendarRepository tradingCalendarRepository, NewsService newsService) {
+            super(stockRepository, tradingCalendarRepository, newsService, "loadtest");
+        }
+
+        @Override
+        public LinkedHashMap<LocalDate, Map<String, Double>> getStockTimelineFromDatabase() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+            Map<String, Double> lastPrices = new HashMap<>();
+            for (String symbol : SYMBOLS) {
+                lastPrices.put(symbol, 20.0 + random.nextDouble() * 480.0);
+            }
+            LocalDate date = LocalDate.of(2024, 1, 2).plusDays(random.nextInt(300));
+            while (timeline.size() < 10) {
+                if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                    Map<String, Double> prices = new HashMap<>();
+                    for (String symbol : SYMBOLS) {
+                        double next = lastPrices.get(symbol) * (1.0 + random.nextGaussian() * 0.02);
+                        lastPrices.put(symbol, next);
+                        prices.put(symbol, Math.round(next * 100.0) / 100.0);
+                    }
+                    timeline.put(date, prices);
+                }
+                date = date.plusDays(1);
+            }
+            return timeline;
+        }
+
+        @Override
+        public LinkedHashMap<LocalDate, Map<String, Double>> preloadStockTimeline() {
+            return getStockTimelineFromDatabase();
+        }
+
+        @Override
+        public void fetchKnownPopularStocks() {
+        }
+
+        @Override
+        public void fetchAndProcessStockData(String symbol) {
+        }
+    }
+}
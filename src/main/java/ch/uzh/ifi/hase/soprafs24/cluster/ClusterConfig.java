@@ -0,0 +1,32 @@
+package ch.uzh.ifi.hase.soprafs24.cluster;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ch.uzh.ifi.hase.soprafs24.service.GameService;
+
+/**
+ * Installs {@link GameOwnershipInterceptor} when the lease manager is present,
+ * which it is not in MVC slice tests.
+ */
+@Configuration
+public class ClusterConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<GameLeaseManager> gameLeaseManager;
+    private final ObjectProvider<GameService> gameService;
+
+    public ClusterConfig(ObjectProvider<GameLeaseManager> gameLeaseManager, ObjectProvider<GameService> gameService) {
+        this.gameLeaseManager = gameLeaseManager;
+        this.gameService = gameService;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        GameLeaseManager leases = gameLeaseManager.getIfAvailable();
+        GameService games = gameService.getIfAvailable();
+        if (leases != null && games != null) {
+            registry.addInterceptor(new GameOwnershipInterceptor(leases, games));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ch.uzh.ifi.hase.soprafs24.cluster;
+
+import java.time.LocalDateTime;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCheckpoint;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.GameRoundListener;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCheckpointRepository;
+
+/**
+ * Writes every local game to {@code GAME_CHECKPOINT} every
+ * {@code cluster.checkpoint-millis}, so a node that takes over an expired
+ * lease resumes the game where its owner last saved it. Checkpoints of games
+ * that ended or were hibernated are removed on the next run rather than on
+ * the game's event loop.
+ */
+@Component
+public class GameCheckpointer implements GameRoundListener {
+
+    private static final Logger log = LoggerFactory.getLogger(GameCheckpointer.class);
+    private final GameCheckpointRepository gameCheckpointRepository;
+    private final Queue<Long> discarded = new ConcurrentLinkedQueue<>();
+
+    public GameCheckpointer(GameCheckpointRepository gameCheckpointRepository) {
+        this.gameCheckpointRepository = gameCheckpointRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.checkpoint-millis:10000}")
+    public void checkpointGames() {
+        Long gameId;
+        while ((gameId = discarded.poll()) != null) {
+            try {
+                gameCheckpointRepository.deleteById(gameId);
+            } catch (RuntimeException e) {
+                log.debug("Game {}: no checkpoint to remove: {}", gameId, e.getMessage());
+            }
+        }
+        for (Long id : InMemoryGameRegistry.gameIds()) {
+            GameManager game = InMemoryGameRegistry.getGame(id);
+            if (game != null) {
+                checkpoint(game);
+            }
+        }
+    }
+
+    /** Saves the game's current state; false when it has ended or could not be written. */
+    public boolean checkpoint(GameManager game) {
+        try {
+            byte[] snapshot = game.checkpoint();
+            if (snapshot == null) {
+                return false;
+            }
+            GameCheckpoint checkpoint = new GameCheckpoint();
+            checkpoint.setGameId(game.getGameId());
+            checkpoint.setCheckpointedAt(LocalDateTime.now());
+            checkpoint.setSnapshot(snapshot);
+            gameCheckpointRepository.save(checkpoint);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Game {}: checkpoint failed: {}", game.getGameId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /** The game as last checkpointed, not yet registered or resumed, or null when there is no checkpoint. */
+    public GameManager restore(Long gameId) {
+        GameCheckpoint checkpoint = gameCheckpointRepository.findById(gameId).orElse(null);
+        if (checkpoint == null) {
+            return null;
+        }
+        log.info("Game {}: restoring the checkpoint taken at {}.", gameId, checkpoint.getCheckpointedAt());
+        return GameManager.fromSnapshot(checkpoint.getSnapshot());
+    }
+
+    /** Drops the checkpoint of a game that will not be resumed from it. */
+    public void discard(Long gameId) {
+        discarded.add(gameId);
+    }
+
+    @Override
+    public void onRoundStarted(GameManager game, int round) {
+        // Checkpoints are taken on a timer, not per round.
+    }
+
+    @Override
+    public void onGameEnded(GameManager game) {
+        discard(game.getGameId());
+    }
+
+    @Override
+    public void onGameHibernated(GameManager game) {
+        discard(game.getGameId());
+    }
+}
@@ -0,0 +1,178 @@
+package ch.uzh.ifi.hase.soprafs24.cluster;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ch.uzh.ifi.hase.soprafs24.entity.GameLease;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.GameRoundListener;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.repository.GameLeaseRepository;
+
+/**
+ * Keeps the {@code GAME_LEASE} rows for the games this node runs. A node holds
+ * a game only while it keeps renewing the lease; once a lease expires any
+ * other node may claim it, and the old owner drops the game on its next
+ * renewal. With {@code cluster.multi-node=true} other nodes forward requests
+ * to {@code cluster.node-url}, so it must be set.
+ * <p>
+ * Round listener callbacks run on the game's event loop, so the leases of
+ * ended and hibernated games are released on a separate thread.
+ */
+@Component
+public class GameLeaseManager implements GameRoundListener {
+
+    private static final Logger log = LoggerFactory.getLogger(GameLeaseManager.class);
+    private final GameLeaseRepository gameLeaseRepository;
+    private final String nodeId;
+    private final long leaseTtlMillis;
+    private volatile String nodeUrl;
+    private final ExecutorService releaseExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "GameLeaseRelease");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GameLeaseManager(GameLeaseRepository gameLeaseRepository,
+            @Value("${cluster.node-id:}") String nodeId,
+            @Value("${cluster.node-url:}") String nodeUrl,
+            @Value("${cluster.multi-node:false}") boolean multiNode,
+            @Value("${cluster.lease-ttl-millis:15000}") long leaseTtlMillis) {
+        this.gameLeaseRepository = gameLeaseRepository;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.nodeUrl = nodeUrl == null || nodeUrl.isBlank() ? null : nodeUrl;
+        if (multiNode && this.nodeUrl == null) {
+            throw new IllegalStateException(
+                    "cluster.node-url must be set to a URL other nodes can reach when cluster.multi-node=true");
+        }
+        this.leaseTtlMillis = leaseTtlMillis;
+    }
+
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        if (nodeUrl == null) {
+            // Single node: nobody else forwards here, so the local address is only informational.
+            nodeUrl = "http://localhost:" + event.getWebServer().getPort();
+        }
+        log.info("Cluster node {} serving games at {}. Lease TTL: {}ms.", nodeId, nodeUrl, leaseTtlMillis);
+    }
+
+    /** Claims or renews the lease for a game. False when another node holds a live lease on it. */
+    public boolean acquire(Long gameId) {
+        long now = System.currentTimeMillis();
+        if (gameLeaseRepository.tryClaim(gameId, nodeId, nodeUrl, now + leaseTtlMillis, now) == 1) {
+            log.debug("Node {} claimed lease on game {}.", nodeId, gameId);
+            return true;
+        }
+        if (gameLeaseRepository.existsById(gameId)) {
+            return false;
+        }
+        GameLease lease = new GameLease();
+        lease.setGameId(gameId);
+        lease.setOwnerNodeId(nodeId);
+        lease.setOwnerUrl(nodeUrl);
+        lease.setExpiresAt(now + leaseTtlMillis);
+        try {
+            gameLeaseRepository.saveAndFlush(lease);
+            log.debug("Node {} created lease on game {}.", nodeId, gameId);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Node {} lost the race for a new lease on game {}.", nodeId, gameId);
+            return false;
+        }
+    }
+
+    /** Gives up this node's lease on a game, if it holds one. */
+    public void release(Long gameId) {
+        if (gameLeaseRepository.release(gameId, nodeId) == 1) {
+            log.debug("Node {} released lease on game {}.", nodeId, gameId);
+        }
+    }
+
+    public Optional<GameLease> findLease(Long gameId) {
+        return gameLeaseRepository.findById(gameId);
+    }
+
+    public boolean isLocal(GameLease lease) {
+        return nodeId.equals(lease.getOwnerNodeId());
+    }
+
+    public boolean isExpired(GameLease lease) {
+        return lease.getExpiresAt() <= System.currentTimeMillis();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getLeaseTtlMillis() {
+        return leaseTtlMillis;
+    }
+
+    /**
+     * Extends the lease on every game in the local registry. A game whose
+     * lease was taken over while this node was unreachable is evicted here,
+     * without ending it, so two nodes never keep running the same game and
+     * the new owner's game is not archived as finished. A lease that is simply
+     * gone (a release that raced with the game coming back) is claimed again.
+     */
+    @Scheduled(fixedDelayString = "${cluster.lease-renew-millis:5000}")
+    public void renewLeases() {
+        long expiresAt = System.currentTimeMillis() + leaseTtlMillis;
+        for (Long gameId : InMemoryGameRegistry.gameIds()) {
+            if (gameLeaseRepository.renew(gameId, nodeId, expiresAt) == 1 || acquire(gameId)) {
+                continue;
+            }
+            GameManager game = InMemoryGameRegistry.getGame(gameId);
+            if (game != null) {
+                log.warn("Node {} lost the lease on game {}; dropping the local copy.", nodeId, gameId);
+                game.evict();
+            }
+        }
+    }
+
+    @Override
+    public void onRoundStarted(GameManager game, int round) {
+        // Leases are renewed on a timer, not per round.
+    }
+
+    @Override
+    public void onGameHibernated(GameManager game) {
+        onGameEnded(game);
+    }
+
+    @Override
+    public void onGameEnded(GameManager game) {
+        Long gameId = game.getGameId();
+        releaseExecutor.execute(() -> {
+            if (InMemoryGameRegistry.getGame(gameId) != null) {
+                return;
+            }
+            try {
+                release(gameId);
+            } catch (RuntimeException e) {
+                log.warn("Node {} failed to release the lease on game {}; it expires in {}ms: {}", nodeId, gameId,
+                        leaseTtlMillis, e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        releaseExecutor.shutdown();
+        if (!releaseExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Lease releases still pending at shutdown; those leases will expire instead.");
+        }
+    }
+}
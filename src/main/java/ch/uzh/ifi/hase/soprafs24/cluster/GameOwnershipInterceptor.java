@@ -0,0 +1,147 @@
+package ch.uzh.ifi.hase.soprafs24.cluster;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ch.uzh.ifi.hase.soprafs24.entity.GameLease;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.service.GameService;
+
+/**
+ * Sends requests for a game to the node that owns it. Games held locally and
+ * games without a lease are handled here; a live lease on another node is
+ * forwarded to that node, and an expired one is taken over and the game
+ * resumed from its last checkpoint before the request runs. A game that
+ * cannot be resumed answers 410 Gone and its lease is released.
+ */
+public class GameOwnershipInterceptor implements HandlerInterceptor {
+
+    public static final String FORWARDED_HEADER = "X-Game-Forwarded";
+
+    private static final Logger log = LoggerFactory.getLogger(GameOwnershipInterceptor.class);
+    private static final Set<String> SKIPPED_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+            "te", "trailer", "upgrade", "host", "content-length", "expect", "proxy-connection");
+    private final GameLeaseManager gameLeaseManager;
+    private final GameService gameService;
+    private final HttpClient httpClient;
+
+    public GameOwnershipInterceptor(GameLeaseManager gameLeaseManager, GameService gameService) {
+        this.gameLeaseManager = gameLeaseManager;
+        this.gameService = gameService;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        Long gameId = resolveId(request, "gameId");
+        if (gameId == null || InMemoryGameRegistry.isGameActive(gameId)) {
+            return true;
+        }
+        GameLease lease = gameLeaseManager.findLease(gameId).orElse(null);
+        if (lease == null) {
+            return true;
+        }
+        if (gameLeaseManager.isExpired(lease) || gameLeaseManager.isLocal(lease)) {
+            if (gameLeaseManager.acquire(gameId)) {
+                if (gameService.recoverGame(gameId) != null) {
+                    return true;
+                }
+                gameLeaseManager.release(gameId);
+                response.sendError(HttpStatus.GONE.value(),
+                        "Game " + gameId + " was lost with its node and cannot be resumed.");
+                return false;
+            }
+            lease = gameLeaseManager.findLease(gameId).orElse(null);
+            if (lease == null) {
+                return true;
+            }
+        }
+        if (request.getHeader(FORWARDED_HEADER) != null) {
+            log.warn("Game {}: forwarded request {} landed on non-owner node {}; handling locally.", gameId,
+                    request.getRequestURI(), gameLeaseManager.getNodeId());
+            return true;
+        }
+        forward(request, response, lease);
+        return false;
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response, GameLease lease)
+            throws IOException, InterruptedException {
+        String query = request.getQueryString();
+        URI target = URI.create(lease.getOwnerUrl() + request.getRequestURI() + (query == null ? "" : "?" + query));
+        byte[] body = request.getInputStream().readAllBytes();
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(target)
+                .timeout(Duration.ofSeconds(10))
+                .method(request.getMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                continue;
+            }
+            for (String value : Collections.list(request.getHeaders(name))) {
+                forwarded.header(name, value);
+            }
+        }
+        forwarded.header(FORWARDED_HEADER, gameLeaseManager.getNodeId());
+
+        HttpResponse<byte[]> owner;
+        try {
+            owner = httpClient.send(forwarded.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            log.warn("Game {}: owner node {} at {} unreachable: {}", lease.getGameId(), lease.getOwnerNodeId(),
+                    lease.getOwnerUrl(), e.getMessage());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After",
+                    String.valueOf(Math.max(1, (lease.getExpiresAt() - System.currentTimeMillis()) / 1000)));
+            return;
+        }
+        log.debug("Game {}: forwarded {} {} to node {} ({}).", lease.getGameId(), request.getMethod(),
+                request.getRequestURI(), lease.getOwnerNodeId(), owner.statusCode());
+        response.setStatus(owner.statusCode());
+        for (Map.Entry<String, List<String>> header : owner.headers().map().entrySet()) {
+            if (SKIPPED_HEADERS.contains(header.getKey().toLowerCase()) || header.getKey().startsWith(":")) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                response.addHeader(header.getKey(), value);
+            }
+        }
+        response.setContentLength(owner.body().length);
+        response.getOutputStream().write(owner.body());
+    }
+
+    /** Numeric id taken from the matched path variable or, failing that, the request parameter of that name. */
+    @SuppressWarnings("unchecked")
+    public static Long resolveId(HttpServletRequest request, String name) {
+        Map<String, String> pathVariables = (Map<String, String>) request
+                .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String raw = pathVariables != null ? pathVariables.get(name) : null;
+        if (raw == null) {
+            raw = request.getParameter(name);
+        }
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(raw);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -3,9 +3,17 @@ package ch.uzh.ifi.hase.soprafs24.controller;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
 import ch.uzh.ifi.hase.soprafs24.game.GameManager;
 import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.game.Money;
 import ch.uzh.ifi.hase.soprafs24.game.PlayerState;
+import ch.uzh.ifi.hase.soprafs24.game.TransactionLedger;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.*;
 import ch.uzh.ifi.hase.soprafs24.service.GameService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +24,8 @@ import org.springframework.web.server.ResponseStatusException;
 @RequestMapping("/game")
 public class GameController {
 
+    private static final Logger log = LoggerFactory.getLogger(GameController.class);
+    private static final int MAX_TRANSACTION_PAGE_SIZE = 500;
     private final GameService gameService;
 
     @Autowired
@@ -29,10 +39,14 @@ public class GameController {
         return new ResponseEntity<>(game, HttpStatus.CREATED);
     }
 
+    /** Completes once the game's event loop has built the view; no request thread waits for it. */
     @GetMapping("/{gameId}")
-    public ResponseEntity<GameManager> getGame(@PathVariable Long gameId) {
+    public CompletableFuture<ResponseEntity<GameViewDTO>> getGame(
+            @PathVariable Long gameId,
+            @RequestParam(name = "fields", required = false) String fields) {
+        Set<String> requestedFields = parseFields(fields);
         GameManager gameManager = gameService.getGame(gameId);
-        return new ResponseEntity<>(gameManager, HttpStatus.OK);
+        return gameManager.toViewAsync(requestedFields).thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/{gameId}/active")
@@ -77,6 +91,41 @@ public class GameController {
         return ResponseEntity.ok(dto);
     }
 
+    /**
+     * A page of the player's executed trades, oldest first, read straight
+     * from the ledger columns. Pass the returned {@code nextCursor} as
+     * {@code cursor} to continue.
+     */
+    @GetMapping("/{gameId}/players/{userId}/transactions")
+    public TransactionPageDTO getTransactions(
+            @PathVariable Long gameId,
+            @PathVariable Long userId,
+            @RequestParam(name = "cursor", defaultValue = "0") int cursor,
+            @RequestParam(name = "limit", defaultValue = "50") int limit) {
+        if (cursor < 0 || limit < 1 || limit > MAX_TRANSACTION_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "cursor must be >= 0 and limit between 1 and " + MAX_TRANSACTION_PAGE_SIZE);
+        }
+        GameManager game = gameService.getGame(gameId);
+        if (game == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found");
+        }
+        PlayerState player = game.getPlayerState(userId);
+        if (player == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Player not found");
+        }
+
+        TransactionLedger ledger = player.getLedger();
+        List<TransactionGetDTO> transactions = ledger.page(cursor, limit,
+                (stockId, quantity, priceMicros, type, round) -> new TransactionGetDTO(stockId, quantity,
+                        Money.toDecimal(priceMicros), type, round));
+        TransactionPageDTO page = new TransactionPageDTO();
+        page.setTransactions(transactions);
+        int next = cursor + transactions.size();
+        page.setNextCursor(next < ledger.size() ? next : null);
+        return page;
+    }
+
     @GetMapping("/{gameId}/status")
     public RoundStatusDTO getRoundStatus(
             @PathVariable Long gameId,
@@ -87,9 +136,6 @@ public class GameController {
         }
 
         int current = gm.getCurrentRound();
-        System.out.printf(
-                "DEBUG: game %d status: currentRound=%d, lastRoundParam=%s%n",
-                gameId, current, lastRound);
 
         boolean allSubmitted = gm.haveAllPlayersSubmittedForCurrentRound();
 
@@ -99,8 +145,26 @@ public class GameController {
         } else {
             roundEnded = allSubmitted;
         }
-        System.out.println("status for game " + gameId + " current=" + current + " lastRound=" + lastRound);
+        log.trace("Game {} status: currentRound={}, lastRound={}, roundEnded={}", gameId, current, lastRound,
+                roundEnded);
         return new RoundStatusDTO(allSubmitted, roundEnded, gm.getNextRoundStartTimeMillis());
     }
 
+    private static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return GameViewDTO.ALL_FIELDS;
+        }
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!GameViewDTO.ALL_FIELDS.contains(name)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown game field: " + name);
+            }
+            requested.add(name);
+        }
+        return requested;
+    }
 }
@@ -0,0 +1,42 @@
+package ch.uzh.ifi.hase.soprafs24.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameDashboardDTO;
+import ch.uzh.ifi.hase.soprafs24.service.GameDashboardService;
+
+@RestController
+@RequestMapping("/game")
+public class GameDashboardController {
+
+    private final GameDashboardService gameDashboardService;
+
+    @Autowired
+    public GameDashboardController(GameDashboardService gameDashboardService) {
+        this.gameDashboardService = gameDashboardService;
+    }
+
+    /**
+     * Round, status, leaderboard, prices, holdings, news and player state in
+     * one poll. Pass the last {@code version} received, unchanged, as
+     * {@code since} to get only the sections that changed, or 304 when
+     * nothing did.
+     */
+    @GetMapping("/{gameId}/dashboard")
+    public ResponseEntity<GameDashboardDTO> getDashboard(
+            @PathVariable Long gameId,
+            @RequestParam Long userId,
+            @RequestParam(name = "since", required = false) String since) {
+        GameDashboardDTO dashboard = gameDashboardService.getDashboard(gameId, userId, since);
+        if (dashboard == null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(dashboard);
+    }
+}
@@ -1,10 +1,15 @@
 package ch.uzh.ifi.hase.soprafs24.controller;
+import ch.uzh.ifi.hase.soprafs24.service.GameResultService;
 import ch.uzh.ifi.hase.soprafs24.service.GameService;
 import ch.uzh.ifi.hase.soprafs24.game.GameManager;
 import ch.uzh.ifi.hase.soprafs24.game.LeaderBoardEntry;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameResultsDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderBoardEntryGetDTO;
 import java.util.List;
 import java.util.ArrayList;
@@ -15,15 +20,27 @@ import java.util.ArrayList;
 public class LeaderBoardController {
 
     private final GameService gameService;
+    private final GameResultService gameResultService;
 
     @Autowired
-    public LeaderBoardController(GameService gameService) {
+    public LeaderBoardController(GameService gameService, GameResultService gameResultService) {
         this.gameService = gameService;
+        this.gameResultService = gameResultService;
     }
 
+    /** Live leaderboard while the game runs, the final one once it has ended. */
     @GetMapping("/{gameId}/leader")
-    public List<LeaderBoardEntryGetDTO> getLeaderBoard(@PathVariable Long gameId) {
+    public List<LeaderBoardEntryGetDTO> getLeaderBoard(@PathVariable Long gameId, WebRequest request) {
+        if (!gameService.isGameActive(gameId)) {
+            GameResultsDTO results = gameResultService.getResults(gameId);
+            if (results != null) {
+                return results.getLeaderBoard();
+            }
+        }
         GameManager game = gameService.getGame(gameId);
+        if (request.checkNotModified(game.getETag("leader", game.getLeaderBoardVersion()))) {
+            return null;
+        }
         List<LeaderBoardEntry> rawBoard = game.getLeaderBoard();
     
         List<LeaderBoardEntryGetDTO> dtos = new ArrayList<>();
@@ -37,4 +54,13 @@ public class LeaderBoardController {
     
         return dtos;
     }
+
+    @GetMapping("/{gameId}/results")
+    public GameResultsDTO getResults(@PathVariable Long gameId) {
+        GameResultsDTO results = gameResultService.getResults(gameId);
+        if (results == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No results for game " + gameId);
+        }
+        return results;
+    }
 }    
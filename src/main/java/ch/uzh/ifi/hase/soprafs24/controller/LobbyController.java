@@ -4,11 +4,14 @@ import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.*;
 import ch.uzh.ifi.hase.soprafs24.rest.mapper.DTOMapper;
 import ch.uzh.ifi.hase.soprafs24.service.LobbyService;
+import java.io.IOException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 public class LobbyController {
+    private static final long LOBBY_EVENTS_TIMEOUT_MILLIS = 300_000L;
     private final LobbyService lobbyService;
     private final DTOMapper mapper = DTOMapper.INSTANCE;
 
@@ -41,6 +44,18 @@ public class LobbyController {
         return mapper.convertEntityToLobbyGetDTO(lobbyService.getLobbyById(lobbyId));
     }
 
+    @GetMapping("/lobby/{lobbyId}/events")
+    public SseEmitter streamLobby(@PathVariable Long lobbyId) {
+        Lobby lobby = lobbyService.getLobbyById(lobbyId);
+        SseEmitter emitter = new SseEmitter(LOBBY_EVENTS_TIMEOUT_MILLIS);
+        Runnable unsubscribe = lobbyService.subscribe(lobbyId, updated -> sendLobby(emitter, updated));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        sendLobby(emitter, lobby);
+        return emitter;
+    }
+
     @PostMapping("lobby/{lobbyId}/ready")
     @ResponseStatus(HttpStatus.OK)
     public LobbyGetDTO setUserReady(@PathVariable Long lobbyId,
@@ -49,4 +64,18 @@ public class LobbyController {
         Lobby updated = lobbyService.setUserReady(lobbyId, dto.getUserId());
         return mapper.convertEntityToLobbyGetDTO(updated);
     }
+
+    private void sendLobby(SseEmitter emitter, Lobby lobby) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("lobby")
+                    .id(Long.toString(lobby.getVersion()))
+                    .data(mapper.convertEntityToLobbyGetDTO(lobby)));
+            if (!lobby.isActive()) {
+                emitter.complete();
+            }
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
 }
@@ -4,6 +4,7 @@ import ch.uzh.ifi.hase.soprafs24.rest.dto.NewsDTO;
 import ch.uzh.ifi.hase.soprafs24.service.NewsService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -18,8 +19,11 @@ public class NewsController {
     }
 
     @GetMapping("/{gameId}")
-    public ResponseEntity<List<NewsDTO>> getGameNews(@PathVariable Long gameId) {
+    public ResponseEntity<List<NewsDTO>> getGameNews(@PathVariable Long gameId, WebRequest request) {
         try {
+            if (request.checkNotModified(newsService.getNewsETag(gameId))) {
+                return null;
+            }
             List<NewsDTO> newsDTOs = newsService.getNewsForGame(gameId);
             return ResponseEntity.ok(newsDTOs);
         } catch (Exception e) {
@@ -2,26 +2,28 @@ package ch.uzh.ifi.hase.soprafs24.controller;
 
 import java.util.List;
 import java.util.Map;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.StockHoldingDTO;
-import ch.uzh.ifi.hase.soprafs24.rest.dto.StockPriceGetDTO;
+import ch.uzh.ifi.hase.soprafs24.service.GameResultService;
 import ch.uzh.ifi.hase.soprafs24.service.StockService;
 
 @RestController
 @RequestMapping("/api/stocks")
 public class StockController {
     private final StockService stockService;
+    private final GameResultService gameResultService;
 
-    public StockController(StockService stockService) {
+    public StockController(StockService stockService, GameResultService gameResultService) {
         this.stockService = stockService;
+        this.gameResultService = gameResultService;
     }
 
     @PostMapping("/fetch/popular-static")
@@ -39,21 +41,34 @@ public class StockController {
     @GetMapping("/player-holdings/{userId}")
     public ResponseEntity<List<StockHoldingDTO>> getPlayerHoldings(
             @PathVariable Long userId,
-            @RequestParam Long gameId) {
+            @RequestParam Long gameId,
+            WebRequest request) {
+        String etag = stockService.getHoldingsETag(gameId, userId);
+        if (etag == null) {
+            List<StockHoldingDTO> finalHoldings = gameResultService.getFinalHoldings(gameId, userId);
+            if (finalHoldings != null) {
+                return ResponseEntity.ok(finalHoldings);
+            }
+        } else if (request.checkNotModified(etag)) {
+            return null;
+        }
         List<StockHoldingDTO> holdings = stockService.getPlayerHoldings(userId, gameId);
         return ResponseEntity.ok(holdings);
     }
 
     @GetMapping("/{gameId}/stocks")
-    @ResponseStatus(HttpStatus.OK)
-    public List<StockPriceGetDTO> getPrice(
+    public ResponseEntity<byte[]> getPrice(
             @PathVariable Long gameId,
             @RequestParam(required = false) String symbol,
-            @RequestParam(required = false) Integer round) {
-        if (symbol == null || round == null) {
-            return stockService.getCurrentRoundStockPrices(gameId);
+            @RequestParam(required = false) Integer round,
+            WebRequest request) {
+        if (request.checkNotModified(stockService.getPricesETag(gameId, symbol, round))) {
+            return null;
         }
-        return stockService.getStockPrice(gameId, symbol, round);
+        byte[] body = symbol == null || round == null
+                ? stockService.getCurrentRoundStockPricesJson(gameId)
+                : stockService.getStockPriceJson(gameId, symbol, round);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @GetMapping("/all-data/{userId}")
@@ -73,7 +88,11 @@ public class StockController {
     public ResponseEntity<List<StockHoldingDTO>> getPlayerHoldingsByRound(
             @PathVariable Long userId,
             @PathVariable Integer round,
-            @RequestParam Long gameId) {
+            @RequestParam Long gameId,
+            WebRequest request) {
+        if (request.checkNotModified(stockService.getHoldingsETag(gameId, userId))) {
+            return null;
+        }
         List<StockHoldingDTO> holdings = stockService.getPlayerHoldingsByRound(userId, gameId, round);
         return ResponseEntity.ok(holdings);
     }
@@ -81,7 +100,11 @@ public class StockController {
     @GetMapping("/player-holdings/{userId}/all-rounds")
     public ResponseEntity<Map<Integer, List<StockHoldingDTO>>> getPlayerHoldingsAllRounds(
             @PathVariable Long userId,
-            @RequestParam Long gameId) {
+            @RequestParam Long gameId,
+            WebRequest request) {
+        if (request.checkNotModified(stockService.getHoldingsETag(gameId, userId))) {
+            return null;
+        }
 
         Map<Integer, List<StockHoldingDTO>> allHoldings = stockService.getPlayerHoldingsAllRounds(userId, gameId);
         return ResponseEntity.ok(allHoldings);
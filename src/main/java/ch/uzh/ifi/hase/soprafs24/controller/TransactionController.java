@@ -4,6 +4,7 @@ import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
 import ch.uzh.ifi.hase.soprafs24.game.GameManager;
 import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,18 +12,19 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/transaction")
 public class TransactionController {
 
+    /** Completes once the game's event loop has applied the submission; no request thread waits for it. */
     @PostMapping("/{gameId}/submit")
-    public ResponseEntity<String> submitTransaction(
+    public CompletableFuture<ResponseEntity<String>> submitTransaction(
             @PathVariable Long gameId,
             @RequestParam Long userId,
             @RequestBody List<TransactionRequestDTO> transactionsRequest) {
 
         GameManager gameManager = InMemoryGameRegistry.getGame(gameId);
         if (gameManager == null) {
-            return ResponseEntity.badRequest().body("Game not found.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Game not found."));
         }
 
-        gameManager.submitTransactions(userId, transactionsRequest);
-        return ResponseEntity.ok("Transactions submitted.");
+        return gameManager.submitTransactionsAsync(userId, transactionsRequest)
+                .thenApply(done -> ResponseEntity.ok("Transactions submitted."));
     }
 }
@@ -0,0 +1,48 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import javax.persistence.*;
+
+/**
+ * Latest snapshot of a running game, written periodically by its owner so
+ * another node can take the game over if the owner dies; see
+ * {@code GameManager#checkpoint}.
+ */
+@Entity
+@Table(name = "GAME_CHECKPOINT")
+public class GameCheckpoint implements Serializable {
+
+    @Id
+    private Long gameId;
+
+    @Column(nullable = false)
+    private LocalDateTime checkpointedAt;
+
+    @Column(nullable = false)
+    private byte[] snapshot;
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public LocalDateTime getCheckpointedAt() {
+        return checkpointedAt;
+    }
+
+    public void setCheckpointedAt(LocalDateTime checkpointedAt) {
+        this.checkpointedAt = checkpointedAt;
+    }
+
+    public byte[] getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(byte[] snapshot) {
+        this.snapshot = snapshot;
+    }
+}
@@ -0,0 +1,57 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import java.io.Serializable;
+import javax.persistence.*;
+
+/**
+ * Which node currently runs a game. A lease whose {@code expiresAt} has passed
+ * may be claimed by any node.
+ */
+@Entity
+@Table(name = "GAME_LEASE")
+public class GameLease implements Serializable {
+
+    @Id
+    private Long gameId;
+
+    @Column(nullable = false)
+    private String ownerNodeId;
+
+    @Column(nullable = false)
+    private String ownerUrl;
+
+    @Column(nullable = false)
+    private long expiresAt;
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public String getOwnerNodeId() {
+        return ownerNodeId;
+    }
+
+    public void setOwnerNodeId(String ownerNodeId) {
+        this.ownerNodeId = ownerNodeId;
+    }
+
+    public String getOwnerUrl() {
+        return ownerUrl;
+    }
+
+    public void setOwnerUrl(String ownerUrl) {
+        this.ownerUrl = ownerUrl;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,45 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import javax.persistence.*;
+
+/** Archived results of a finished game, stored as the JSON of its results summary. */
+@Entity
+@Table(name = "GAME_RESULT")
+public class GameResult implements Serializable {
+
+    @Id
+    private Long gameId;
+
+    @Column(nullable = false)
+    private LocalDateTime endedAt;
+
+    @Lob
+    @Column(nullable = false)
+    private String summary;
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public LocalDateTime getEndedAt() {
+        return endedAt;
+    }
+
+    public void setEndedAt(LocalDateTime endedAt) {
+        this.endedAt = endedAt;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+}
@@ -0,0 +1,44 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import javax.persistence.*;
+
+/** A running game that was idle and written out of memory; see {@code GameManager#hibernate}. */
+@Entity
+@Table(name = "HIBERNATED_GAME")
+public class HibernatedGame implements Serializable {
+
+    @Id
+    private Long gameId;
+
+    @Column(nullable = false)
+    private LocalDateTime hibernatedAt;
+
+    @Column(nullable = false)
+    private byte[] snapshot;
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public LocalDateTime getHibernatedAt() {
+        return hibernatedAt;
+    }
+
+    public void setHibernatedAt(LocalDateTime hibernatedAt) {
+        this.hibernatedAt = hibernatedAt;
+    }
+
+    public byte[] getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(byte[] snapshot) {
+        this.snapshot = snapshot;
+    }
+}
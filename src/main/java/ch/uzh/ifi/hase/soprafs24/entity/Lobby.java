@@ -7,7 +7,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Entity
-@Table(name = "LOBBY")
+@Table(name = "LOBBY", indexes = @Index(name = "idx_lobby_active_expires_at", columnList = "active, expires_at"))
 public class Lobby implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -31,10 +31,24 @@ public class Lobby implements Serializable {
     @Column(nullable = false)
     private Long timeLimitSeconds;
 
+    @Column(name = "expires_at", columnDefinition = "TIMESTAMP")
+    private Instant expiresAt;
+
+    /**
+     * Bumped by every committed change, so it orders snapshots across nodes and
+     * keeps a stale copy from being written over a newer row.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = Instant.now();
         this.active = true;
+        if (this.timeLimitSeconds != null) {
+            this.expiresAt = this.createdAt.plusSeconds(this.timeLimitSeconds);
+        }
     }
 
     public Long getId() {
@@ -76,4 +90,20 @@ public class Lobby implements Serializable {
     public void setTimeLimitSeconds(Long timeLimitSeconds) {
         this.timeLimitSeconds = timeLimitSeconds;
     }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
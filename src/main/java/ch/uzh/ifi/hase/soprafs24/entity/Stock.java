@@ -3,8 +3,16 @@ package ch.uzh.ifi.hase.soprafs24.entity;
 import javax.persistence.*;
 import java.time.LocalDate;
 
+/**
+ * One adjusted daily close. (symbol, date) is unique; the indexes are created
+ * by the Flyway migration {@code V1__stock_adjusted_time_series_indexes} and
+ * repeated here so schemas generated by Hibernate alone get the same names.
+ */
 @Entity
-@Table(name = "STOCK_ADJUSTED")
+@Table(name = "STOCK_ADJUSTED", indexes = {
+        @Index(name = "ux_stock_adjusted_symbol_date", columnList = "symbol, date", unique = true),
+        @Index(name = "ix_stock_adjusted_date", columnList = "date")
+})
 public class Stock {
 
     @Id
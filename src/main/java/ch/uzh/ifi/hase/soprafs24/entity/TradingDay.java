@@ -0,0 +1,36 @@
+package ch.uzh.ifi.hase.soprafs24.entity;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * One date with market data and how many symbols have a close on it. Kept in
+ * step with STOCK_ADJUSTED by ingestion, so game start can choose a window of
+ * trading days without scanning the price table.
+ */
+@Entity
+@Table(name = "TRADING_CALENDAR")
+public class TradingDay {
+
+    @Id
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private int symbolCount;
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+
+    public void setSymbolCount(int symbolCount) {
+        this.symbolCount = symbolCount;
+    }
+}
@@ -0,0 +1,69 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import org.slf4j.Logger;
+
+/**
+ * Per-game logging state for {@link GameManager}. Submissions are counted and
+ * reported once per round instead of once each, and warnings are limited to a
+ * few per second per game with the number suppressed reported on the next one.
+ * All methods are called on the owning GameManager's event loop.
+ */
+final class GameEventLog {
+    private static final long WARNING_WINDOW_NANOS = 1_000_000_000L;
+    private static final int WARNINGS_PER_WINDOW = 5;
+
+    private final Long gameId;
+    private int submissions;
+    private int orders;
+    private int rejected;
+    private long windowStartNanos;
+    private int warningsInWindow;
+    private long suppressedWarnings;
+
+    GameEventLog(Long gameId) {
+        this.gameId = gameId;
+        this.windowStartNanos = System.nanoTime() - WARNING_WINDOW_NANOS;
+    }
+
+    void submissionAccepted(int orderCount) {
+        submissions++;
+        orders += orderCount;
+    }
+
+    void submissionRejected() {
+        rejected++;
+    }
+
+    void warn(Logger log, String message, Object... args) {
+        if (!log.isWarnEnabled() || !tryAcquireWarning()) {
+            return;
+        }
+        if (suppressedWarnings > 0) {
+            log.warn("Game {}: {} similar warnings suppressed.", gameId, suppressedWarnings);
+            suppressedWarnings = 0;
+        }
+        log.warn(message, args);
+    }
+
+    void logRoundClosed(Logger log, int round, int players) {
+        log.info("Game {}: round {} closed with {}/{} submissions, {} orders, {} rejected submissions.",
+                gameId, round, submissions, players, orders, rejected);
+        submissions = 0;
+        orders = 0;
+        rejected = 0;
+    }
+
+    private boolean tryAcquireWarning() {
+        long now = System.nanoTime();
+        if (now - windowStartNanos >= WARNING_WINDOW_NANOS) {
+            windowStartNanos = now;
+            warningsInWindow = 0;
+        }
+        if (warningsInWindow < WARNINGS_PER_WINDOW) {
+            warningsInWindow++;
+            return true;
+        }
+        suppressedWarnings++;
+        return false;
+    }
+}
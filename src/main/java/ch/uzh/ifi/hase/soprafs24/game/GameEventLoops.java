@@ -0,0 +1,85 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fixed set of single-threaded event loops, one per core unless
+ * {@code game.event-loops} says otherwise. Every game is pinned to one loop by
+ * its id, and all of its mutations and round timers run there in order, so
+ * the engine itself takes no locks. The loops start with the first game.
+ */
+public final class GameEventLoops {
+
+    private static final Logger log = LoggerFactory.getLogger(GameEventLoops.class);
+    private static int configuredSize = Runtime.getRuntime().availableProcessors();
+    private static boolean started;
+
+    private GameEventLoops() {
+    }
+
+    /**
+     * Sets how many loops to start; zero or less means one per core. Only
+     * takes effect before the first game is created.
+     */
+    public static synchronized void configure(int size) {
+        int resolved = size > 0 ? size : Runtime.getRuntime().availableProcessors();
+        if (started) {
+            if (resolved != Loops.LOOPS.length) {
+                log.warn("game.event-loops={} ignored: {} event loops are already running.", resolved,
+                        Loops.LOOPS.length);
+            }
+            return;
+        }
+        configuredSize = resolved;
+    }
+
+    private static synchronized int startingSize() {
+        started = true;
+        return configuredSize;
+    }
+
+    static int loopFor(Long gameId) {
+        return Math.floorMod(Long.hashCode(gameId), Loops.LOOPS.length);
+    }
+
+    static ScheduledExecutorService executor(int loop) {
+        return Loops.LOOPS[loop];
+    }
+
+    /** Whether the calling thread is the given loop, in which case work for it must run inline. */
+    static boolean inLoop(int loop) {
+        return Thread.currentThread() instanceof LoopThread && ((LoopThread) Thread.currentThread()).index == loop;
+    }
+
+    public static int size() {
+        return Loops.LOOPS.length;
+    }
+
+    /** Started on first use, so {@link #configure} can run before. */
+    private static final class Loops {
+        private static final ScheduledExecutorService[] LOOPS = start(startingSize());
+
+        private static ScheduledExecutorService[] start(int size) {
+            ScheduledExecutorService[] loops = new ScheduledExecutorService[size];
+            for (int i = 0; i < size; i++) {
+                int index = i;
+                loops[i] = Executors.newSingleThreadScheduledExecutor(r -> new LoopThread(r, index));
+                GameMetrics.schedulerStarted();
+            }
+            return loops;
+        }
+    }
+
+    private static final class LoopThread extends Thread {
+        private final int index;
+
+        LoopThread(Runnable task, int index) {
+            super(task, "GameLoop-" + index);
+            this.index = index;
+            setDaemon(true);
+        }
+    }
+}
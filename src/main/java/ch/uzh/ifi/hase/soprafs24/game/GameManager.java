@@ -3,44 +3,93 @@ package ch.uzh.ifi.hase.soprafs24.game;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameViewDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
 
+/**
+ * One running game. All mutations run as tasks on the game's event loop (see
+ * {@link GameEventLoops}); the blocking methods wait for their task, the
+ * {@code *Async} ones hand back its future. Single-field reads go straight to
+ * the published state; the full view is built on the loop.
+ */
 public class GameManager {
     private static final Logger log = LoggerFactory.getLogger(GameManager.class);
     private final Long gameId;
-    private final Map<Long, PlayerState> playerStates = new HashMap<>();
-    private LinkedHashMap<LocalDate, Map<String, Double>> stockTimeline;
+    private final Map<Long, PlayerState> playerStates = new ConcurrentHashMap<>();
+    private volatile LinkedHashMap<LocalDate, Map<String, Double>> stockTimeline;
+    private volatile List<LocalDate> datesByRound;
+    private volatile List<Map<String, Double>> pricesByRound;
+    private volatile List<RoundPrices> roundPrices;
     private final long roundDelayMillis;
-    private List<LeaderBoardEntry> leaderBoard = new ArrayList<>();
-    private int currentRound = 1;
-    private boolean active = true;
-    private final LocalDateTime startedAt = LocalDateTime.now();
+    private volatile List<LeaderBoardEntry> leaderBoard = new ArrayList<>();
+    private volatile int currentRound = 1;
+    private volatile boolean active = true;
+    private volatile LocalDateTime startedAt = LocalDateTime.now();
     private static final long DEFAULT_ROUND_DELAY_MILLIS = 120_000;
     private static final int MAX_ROUNDS = 10;
     private static final long SYNC_BUFFER_MILLIS = 2_000;
-    private final ScheduledExecutorService scheduler;
-    private long nextRoundStartTimeMillis = 0L;
+    private final int loop;
+    private final ScheduledExecutorService executor;
+    private volatile long nextRoundStartTimeMillis = 0L;
     private ScheduledFuture<?> nextRoundFuture;
+    private final GameEventLog eventLog;
+    private final List<GameRoundListener> roundListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long roundVersion;
+    private volatile long leaderBoardVersion;
+    private volatile long submissionsVersion;
+    private volatile long timelineVersion;
+    private final String etagPrefix;
+    private final long createdAtMillis = System.currentTimeMillis();
+    private volatile SettlementMode settlementMode = SettlementMode.IMMEDIATE;
+    private final RoundSettlement settlement = new RoundSettlement();
+    private final Map<Long, Integer> queuedRounds = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedThisRound = new AtomicInteger();
+    /**
+     * Odd while ROUND_CLOSE orders are taken, even while the loop settles a
+     * round or once orders are shut; only the loop moves it, one step at a
+     * time. A request thread queues an order under the round it read and
+     * withdraws it again if the epoch moved meanwhile, so an order is either
+     * settled with the round it was queued for or refused.
+     */
+    private final AtomicLong orderEpoch = new AtomicLong(1);
+    private volatile boolean recordsMetrics = true;
 
     public GameManager(Long gameId, LinkedHashMap<LocalDate, Map<String, Double>> stockTimeline,
             long roundDelayMillis) {
         this.gameId = gameId;
+        this.etagPrefix = gameId + "-" + Long.toHexString(ThreadLocalRandom.current().nextLong());
         this.stockTimeline = Objects.requireNonNull(stockTimeline, "Stock timeline cannot be null");
+        indexTimeline();
+        long initialVersion = version.incrementAndGet();
+        this.roundVersion = initialVersion;
+        this.leaderBoardVersion = initialVersion;
+        this.submissionsVersion = initialVersion;
+        this.timelineVersion = initialVersion;
         if (stockTimeline.isEmpty()) {
             log.warn("GameManager for gameId {} initialized with an empty stock timeline.", gameId);
         }
         this.roundDelayMillis = roundDelayMillis;
-        this.scheduler = Executors
-                .newSingleThreadScheduledExecutor(r -> new Thread(r, "GameRoundScheduler-" + this.gameId));
+        this.eventLog = new GameEventLog(gameId);
+        this.loop = GameEventLoops.loopFor(gameId);
+        this.executor = GameEventLoops.executor(loop);
 
-        log.info("GameManager for gameId {} created. Round delay: {}ms. Timeline entries: {}.",
-                gameId, roundDelayMillis, stockTimeline.size());
+        log.info("GameManager for gameId {} created on event loop {}. Round delay: {}ms. Timeline entries: {}.",
+                gameId, loop, roundDelayMillis, stockTimeline.size());
     }
 
     public GameManager(Long gameId, LinkedHashMap<LocalDate, Map<String, Double>> stockTimeline) {
@@ -49,59 +98,300 @@ public class GameManager {
                 DEFAULT_ROUND_DELAY_MILLIS);
     }
 
+    /** Runs the task on this game's loop; inline when already on it. */
+    private <T> CompletableFuture<T> onLoop(Supplier<T> task) {
+        if (GameEventLoops.inLoop(loop)) {
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    private CompletableFuture<Void> onLoop(Runnable task) {
+        return onLoop(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     public void registerPlayer(Long userId) {
-        if (playerStates.containsKey(userId)) {
-            log.warn("Attempt to register duplicate player {}. Registration refused for game {}.", userId, gameId);
-            throw new IllegalStateException("Player " + userId + " already exists in game " + gameId);
+        registerPlayers(List.of(userId));
+    }
+
+    /**
+     * Registers all players in one task on the loop and ranks them once. A
+     * duplicate id is refused before anyone is added.
+     */
+    public void registerPlayers(Collection<Long> userIds) {
+        List<Long> players = List.copyOf(userIds);
+        await(onLoop(() -> applyRegistrations(players)));
+    }
+
+    private void applyRegistrations(List<Long> userIds) {
+        long startNanos = System.nanoTime();
+        try {
+            Set<Long> distinct = new HashSet<>();
+            for (Long userId : userIds) {
+                if (playerStates.containsKey(userId) || !distinct.add(userId)) {
+                    log.warn("Attempt to register duplicate player {}. Registration refused for game {}.", userId,
+                            gameId);
+                    throw new IllegalStateException("Player " + userId + " already exists in game " + gameId);
+                }
+            }
+            for (Long userId : userIds) {
+                PlayerState ps = new PlayerState(userId);
+                ps.setRoundPrices(this::getRoundPrices);
+                ps.markChanged(version.get());
+                playerStates.put(userId, ps);
+            }
+            submissionsVersion = version.incrementAndGet();
+            log.debug("{} player(s) registered for game {}. Total players: {}.", userIds.size(), gameId,
+                    playerStates.size());
+            recalculateLeaderboard();
+        } finally {
+            recordOperation(GameMetrics.Operation.REGISTER_PLAYER, startNanos);
         }
-        PlayerState ps = new PlayerState(userId);
-        playerStates.put(userId, ps);
-        log.info("Player {} registered for game {}. Total players: {}.", userId, gameId, playerStates.size());
-        recalculateLeaderboard();
     }
 
-    public synchronized void submitTransactions(Long userId, List<TransactionRequestDTO> txs) {
+    public void submitTransactions(Long userId, List<TransactionRequestDTO> txs) {
+        await(submitTransactionsAsync(userId, txs));
+    }
+
+    /**
+     * Applies the submission on the game's loop, or in {@link SettlementMode#ROUND_CLOSE} queues it on the
+     * caller's thread and completes at once; the orders are then settled when the round closes. A queued
+     * submission that can no longer be settled fails with {@link IllegalStateException}.
+     */
+    public CompletableFuture<Void> submitTransactionsAsync(Long userId, List<TransactionRequestDTO> txs) {
+        long startNanos = System.nanoTime();
+        if (settlementMode == SettlementMode.ROUND_CLOSE) {
+            try {
+                queueSubmission(userId, txs);
+            } catch (IllegalStateException e) {
+                return CompletableFuture.failedFuture(e);
+            } finally {
+                recordOperation(GameMetrics.Operation.SUBMIT_TRANSACTIONS, startNanos);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        return onLoop(() -> {
+            try {
+                applySubmission(userId, txs);
+            } finally {
+                recordOperation(GameMetrics.Operation.SUBMIT_TRANSACTIONS, startNanos);
+            }
+        });
+    }
+
+    private void applySubmission(Long userId, List<TransactionRequestDTO> txs) {
         if (!active) {
-            log.warn("Game {} is not active. Transactions from player {} rejected.", gameId, userId);
+            eventLog.warn(log, "Game {} is not active. Transactions from player {} rejected.", gameId, userId);
+            recordRejectedSubmission(GameMetrics.RejectionReason.INACTIVE_GAME);
             return;
         }
 
         PlayerState state = playerStates.get(userId);
         if (state == null) {
-            log.warn("Player {} not found in game {}. Transactions rejected.", userId, gameId);
+            eventLog.warn(log, "Player {} not found in game {}. Transactions rejected.", userId, gameId);
+            eventLog.submissionRejected();
+            recordRejectedSubmission(GameMetrics.RejectionReason.UNKNOWN_PLAYER);
             return;
         }
 
         if (state.hasSubmittedForRound(currentRound)) {
-            log.warn("Player {} has already submitted for round {} in game {}. Additional transactions rejected.",
+            eventLog.warn(log,
+                    "Player {} has already submitted for round {} in game {}. Additional transactions rejected.",
                     userId, currentRound, gameId);
+            eventLog.submissionRejected();
+            recordRejectedSubmission(GameMetrics.RejectionReason.DUPLICATE_ROUND);
             return;
         }
 
-        Map<String, Double> pricesForTransaction = getCurrentStockPrices();
+        RoundPrices pricesForTransaction = getRoundPrices(currentRound);
         if (pricesForTransaction.isEmpty() && txs.stream().anyMatch(tx -> !"INFO".equalsIgnoreCase(tx.getType()))) {
-            log.error(
+            eventLog.warn(log,
                     "CRITICAL: Cannot process buy/sell transactions for player {} in game {}: Current stock prices are unavailable for round {}.",
                     userId, gameId, currentRound);
         }
 
         for (TransactionRequestDTO tx : txs) {
-            state.applyTransaction(tx, pricesForTransaction);
+            state.applyTransaction(tx, pricesForTransaction, currentRound);
         }
         state.markSubmittedForRound(currentRound);
-        log.info("Player {} submitted {} transactions for round {} in game {}.", userId, txs.size(), currentRound,
+        long changedAt = version.incrementAndGet();
+        state.markChanged(changedAt);
+        submissionsVersion = changedAt;
+        eventLog.submissionAccepted(txs.size());
+        log.debug("Player {} submitted {} transactions for round {} in game {}.", userId, txs.size(), currentRound,
                 gameId);
 
         boolean allSubmitted = haveAllPlayersSubmittedForCurrentRound();
 
-        log.debug("Game {}: All submitted for round {}: {}. Round in progress flag: {}.", gameId, currentRound,
-                allSubmitted);
+        log.debug("Game {}: All submitted for round {}: {}.", gameId, currentRound, allSubmitted);
 
-        if (haveAllPlayersSubmittedForCurrentRound()) {
+        if (allSubmitted) {
             scheduleNextRoundAfter(SYNC_BUFFER_MILLIS);
         }
     }
 
+    /**
+     * Off-loop counterpart of {@link #applySubmission}. The order is queued under the round read together with
+     * {@link #orderEpoch}; if the epoch has moved once it is queued, the loop may already have settled that round
+     * without it, so it is withdrawn and refused unless the loop settled it after all.
+     */
+    private void queueSubmission(Long userId, List<TransactionRequestDTO> txs) {
+        long epoch = orderEpoch.get();
+        int round = currentRound;
+        if (!takesOrders(epoch) || !active) {
+            log.debug("Game {} no longer accepts orders for round {}. Transactions from player {} rejected.",
+                    gameId, round, userId);
+            recordRejectedSubmission(active ? GameMetrics.RejectionReason.STALE_ROUND
+                    : GameMetrics.RejectionReason.INACTIVE_GAME);
+            throw ordersRefused(round);
+        }
+        PlayerState state = playerStates.get(userId);
+        if (state == null) {
+            log.debug("Player {} not found in game {}. Transactions rejected.", userId, gameId);
+            recordRejectedSubmission(GameMetrics.RejectionReason.UNKNOWN_PLAYER);
+            return;
+        }
+        Integer previous = queuedRounds.put(userId, round);
+        if (previous != null && previous == round) {
+            log.debug("Player {} has already submitted for round {} in game {}.", userId, round, gameId);
+            recordRejectedSubmission(GameMetrics.RejectionReason.DUPLICATE_ROUND);
+            return;
+        }
+        RoundSettlement.QueuedSubmission queued = settlement.add(userId, round, txs);
+        if (orderEpoch.get() != epoch) {
+            boolean withdrawn = settlement.withdraw(queued);
+            if (withdrawn || settlement.isRefused(queued)) {
+                queuedRounds.remove(userId, round);
+                if (withdrawn) {
+                    recordRejectedSubmission(GameMetrics.RejectionReason.STALE_ROUND);
+                }
+                log.debug("Game {} closed round {} while player {} queued orders. Transactions rejected.", gameId,
+                        round, userId);
+                throw ordersRefused(round);
+            }
+        }
+        submissionsVersion = version.incrementAndGet();
+        if (queuedThisRound.incrementAndGet() >= playerStates.size()) {
+            onLoop(this::closeRoundIfAllQueued);
+        }
+    }
+
+    private IllegalStateException ordersRefused(int round) {
+        return new IllegalStateException("Game " + gameId + " no longer accepts orders for round " + round + ".");
+    }
+
+    private static boolean takesOrders(long epoch) {
+        return (epoch & 1) == 1;
+    }
+
+    private void shutOrders() {
+        if (takesOrders(orderEpoch.get())) {
+            orderEpoch.incrementAndGet();
+        }
+    }
+
+    private void openOrders() {
+        if (!takesOrders(orderEpoch.get())) {
+            orderEpoch.incrementAndGet();
+        }
+    }
+
+    /**
+     * Shuts the order queue, settles what it holds and runs {@code transition} (the round change or the end of
+     * the game), so every order queued from here on sees a new epoch. With {@code keepShut} the queue is not
+     * opened again.
+     */
+    private void settleAndClose(boolean keepShut, Runnable transition) {
+        shutOrders();
+        settleQueuedOrders();
+        queuedThisRound.set(0);
+        transition.run();
+        if (!keepShut) {
+            openOrders();
+        }
+    }
+
+    private void closeRoundIfAllQueued() {
+        if (active && haveAllPlayersSubmittedForCurrentRound()
+                && nextRoundStartTimeMillis - System.currentTimeMillis() > SYNC_BUFFER_MILLIS) {
+            log.debug("Game {}: All players queued orders for round {}.", gameId, currentRound);
+            scheduleNextRoundAfter(SYNC_BUFFER_MILLIS);
+        }
+    }
+
+    private void settleQueuedOrders() {
+        if (settlement.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        int stale = settlement.settle(currentRound, getRoundPrices(currentRound), playerStates,
+                (player, orders) -> {
+                    long changedAt = version.incrementAndGet();
+                    player.markChanged(changedAt);
+                    submissionsVersion = changedAt;
+                    eventLog.submissionAccepted(orders);
+                });
+        for (int i = 0; i < stale; i++) {
+            eventLog.submissionRejected();
+            recordRejectedSubmission(GameMetrics.RejectionReason.STALE_ROUND);
+        }
+        recordOperation(GameMetrics.Operation.SETTLE_ROUND, startNanos);
+    }
+
+    public SettlementMode getSettlementMode() {
+        return settlementMode;
+    }
+
+    /** Chooses how submissions are applied; set it before the game starts. */
+    public void setSettlementMode(SettlementMode settlementMode) {
+        this.settlementMode = Objects.requireNonNull(settlementMode, "Settlement mode cannot be null");
+    }
+
+    /**
+     * Stops this game from recording engine meters, so synthetic games such as
+     * the startup warm-up do not skew the production latency and rejection
+     * figures.
+     */
+    public void disableMetrics() {
+        this.recordsMetrics = false;
+    }
+
+    private void recordOperation(GameMetrics.Operation operation, long startNanos) {
+        if (recordsMetrics) {
+            GameMetrics.recordOperation(operation, startNanos);
+        }
+    }
+
+    private void recordRejectedSubmission(GameMetrics.RejectionReason reason) {
+        if (recordsMetrics) {
+            GameMetrics.recordRejectedSubmission(reason);
+        }
+    }
+
+    private void recordRoundTimerLag(long lagMillis) {
+        if (recordsMetrics) {
+            GameMetrics.recordRoundTimerLag(lagMillis);
+        }
+    }
+
     public Map<String, Double> getCurrentStockPrices() {
         if (stockTimeline == null || stockTimeline.isEmpty()) {
             log.warn("Game {}: Stock timeline is null or empty. Cannot get current stock prices for round {}.", gameId,
@@ -114,8 +404,7 @@ public class GameManager {
             return Collections.emptyMap();
         }
 
-        List<Map<String, Double>> pricesByDate = new ArrayList<>(stockTimeline.values());
-        Map<String, Double> pricesForCurrentRound = pricesByDate.get(currentRound - 1);
+        Map<String, Double> pricesForCurrentRound = pricesByRound.get(currentRound - 1);
 
         return pricesForCurrentRound != null ? new HashMap<>(pricesForCurrentRound) : Collections.emptyMap();
     }
@@ -133,8 +422,7 @@ public class GameManager {
             return null;
         }
 
-        List<LocalDate> datesInTimeline = new ArrayList<>(stockTimeline.keySet());
-        LocalDate marketDateForCurrentRound = datesInTimeline.get(currentRound - 1);
+        LocalDate marketDateForCurrentRound = datesByRound.get(currentRound - 1);
         log.debug("Game {}: Current market date for round {} is {}.", gameId, currentRound, marketDateForCurrentRound);
         return marketDateForCurrentRound;
     }
@@ -149,78 +437,310 @@ public class GameManager {
                     stockTimeline.size());
             return null;
         }
-        List<LocalDate> datesInTimeline = new ArrayList<>(stockTimeline.keySet());
-        return datesInTimeline.get(round - 1);
+        return datesByRound.get(round - 1);
+    }
+
+    /** Micro-unit prices of the given round's market date; empty outside the timeline. Never copies. */
+    public RoundPrices getRoundPrices(int round) {
+        List<RoundPrices> prices = roundPrices;
+        if (round <= 0 || round > prices.size()) {
+            return RoundPrices.EMPTY;
+        }
+        return prices.get(round - 1);
+    }
+
+    private void indexTimeline() {
+        List<Map<String, Double>> prices = new ArrayList<>();
+        List<RoundPrices> micros = new ArrayList<>();
+        for (Map<String, Double> pricesOnDate : stockTimeline.values()) {
+            prices.add(pricesOnDate == null ? null : Collections.unmodifiableMap(pricesOnDate));
+            micros.add(RoundPrices.of(pricesOnDate));
+        }
+        this.datesByRound = Collections.unmodifiableList(new ArrayList<>(stockTimeline.keySet()));
+        this.pricesByRound = Collections.unmodifiableList(prices);
+        this.roundPrices = Collections.unmodifiableList(micros);
     }
 
     public List<LeaderBoardEntry> getLeaderBoard() {
         return Collections.unmodifiableList(new ArrayList<>(leaderBoard));
     }
 
-    public synchronized void nextRound() {
+    public void nextRound() {
+        await(onLoop(this::advanceRound));
+    }
+
+    private void advanceRound() {
         if (!active) {
             log.info("Game {} is inactive. Not advancing to next round.", gameId);
             return;
         }
-        for (PlayerState player : playerStates.values()) {
-            player.snapshotHoldingsAtRound(currentRound);
-        }
-        if (currentRound < MAX_ROUNDS) {
-            currentRound++;
-            log.info("Game {}: Advanced to round {}.", gameId, currentRound);
-            recalculateLeaderboard();
-            scheduleNextRoundAfter(roundDelayMillis);
-        } else {
-            log.info("Game {}: Max rounds ({}) reached. Ending game.", gameId, MAX_ROUNDS);
-            endGame();
+        long startNanos = System.nanoTime();
+        try {
+            boolean lastRound = currentRound >= MAX_ROUNDS;
+            int closing = currentRound;
+            settleAndClose(lastRound, () -> {
+                for (PlayerState player : playerStates.values()) {
+                    player.snapshotHoldingsAtRound(closing);
+                }
+                if (!lastRound) {
+                    currentRound++;
+                }
+            });
+            eventLog.logRoundClosed(log, closing, playerStates.size());
+            if (!lastRound) {
+                log.info("Game {}: Advanced to round {}.", gameId, currentRound);
+                recalculateLeaderboard();
+                scheduleNextRoundAfter(roundDelayMillis);
+                notifyRoundStarted();
+            } else {
+                log.info("Game {}: Max rounds ({}) reached. Ending game.", gameId, MAX_ROUNDS);
+                finishGame();
+            }
+        } finally {
+            recordOperation(GameMetrics.Operation.NEXT_ROUND, startNanos);
         }
     }
 
     private void scheduleNextRoundAfter(long delay) {
+        scheduleNextRoundAt(System.currentTimeMillis() + delay);
+    }
+
+    private void scheduleNextRoundAt(long scheduledStartMillis) {
         if (nextRoundFuture != null && !nextRoundFuture.isDone()) {
             nextRoundFuture.cancel(false);
         }
-        nextRoundStartTimeMillis = System.currentTimeMillis() + delay;
-        nextRoundFuture = scheduler.schedule(() -> {
-            synchronized (GameManager.this) {
-                if (!active)
-                    return;
-                nextRound();
+        long delay = Math.max(0L, scheduledStartMillis - System.currentTimeMillis());
+        nextRoundStartTimeMillis = scheduledStartMillis;
+        roundVersion = version.incrementAndGet();
+        nextRoundFuture = executor.schedule(() -> {
+            if (!active)
+                return;
+            recordRoundTimerLag(System.currentTimeMillis() - scheduledStartMillis);
+            try {
+                advanceRound();
+            } catch (RuntimeException e) {
+                log.error("Game {}: Failed to advance from round {}.", gameId, currentRound, e);
             }
         }, delay, TimeUnit.MILLISECONDS);
     }
 
-    public synchronized void startGame() {
-        scheduleNextRoundAfter(roundDelayMillis);
+    public void startGame() {
+        await(onLoop(() -> {
+            scheduleNextRoundAfter(roundDelayMillis);
+            notifyRoundStarted();
+        }));
+    }
+
+    /**
+     * Writes this game out through {@code store} and evicts it. The snapshot
+     * is taken on the game's loop with orders closed and the round timer
+     * stopped; {@code store} runs on the calling thread so the loop is not
+     * held up by its I/O, and the game is evicted afterwards only if nothing
+     * changed it meanwhile. Otherwise, or if {@code store} throws, the game
+     * carries on as it was; a snapshot already stored is then stale.
+     */
+    public boolean hibernate(Consumer<byte[]> store) {
+        long[] snapshotVersion = new long[1];
+        byte[] snapshot = await(onLoop(() -> {
+            if (!active || !settlement.isEmpty()) {
+                return null;
+            }
+            shutOrders();
+            if (!settlement.isEmpty()) {
+                openOrders();
+                return null;
+            }
+            if (nextRoundFuture != null) {
+                nextRoundFuture.cancel(false);
+            }
+            snapshotVersion[0] = version.get();
+            return GameSnapshot.write(this);
+        }));
+        if (snapshot == null) {
+            return false;
+        }
+        try {
+            store.accept(snapshot);
+        } catch (RuntimeException e) {
+            await(onLoop(this::reopenAfterHibernation));
+            throw e;
+        }
+        return await(onLoop(() -> {
+            if (!active || version.get() != snapshotVersion[0]) {
+                reopenAfterHibernation();
+                return false;
+            }
+            active = false;
+            roundVersion = version.incrementAndGet();
+            for (GameRoundListener listener : roundListeners) {
+                try {
+                    listener.onGameHibernated(this);
+                } catch (RuntimeException e) {
+                    log.warn("Game {}: round listener failed on hibernation: {}", gameId, e.getMessage());
+                }
+            }
+            InMemoryGameRegistry.remove(gameId);
+            log.info("Game {} hibernated in round {}.", gameId, currentRound);
+            return true;
+        }));
+    }
+
+    /** Undoes the first step of {@link #hibernate} on the loop: orders open again and the timer runs. */
+    private void reopenAfterHibernation() {
+        if (!active) {
+            return;
+        }
+        openOrders();
+        scheduleNextRoundAt(nextRoundStartTimeMillis);
+    }
+
+    /**
+     * Snapshot of this game in the {@link #fromSnapshot} format, taken on the
+     * loop, or null once the game has ended. Orders still queued for the
+     * round are not part of it.
+     */
+    public byte[] checkpoint() {
+        return await(onLoop(() -> active ? GameSnapshot.write(this) : null));
+    }
+
+    /**
+     * Drops this instance without ending the game, because another node now
+     * runs it: no listener is told, and nothing is settled or archived.
+     */
+    public void evict() {
+        await(onLoop(() -> {
+            shutOrders();
+            active = false;
+            if (nextRoundFuture != null) {
+                nextRoundFuture.cancel(false);
+            }
+            roundVersion = version.incrementAndGet();
+            InMemoryGameRegistry.remove(gameId, this);
+            log.info("Game {} evicted in round {}; it is now run elsewhere.", gameId, currentRound);
+        }));
+    }
+
+    /**
+     * Restarts the round timer of a game read back from a snapshot. Rounds
+     * whose start passed while the game was hibernated are closed first, each
+     * on its original schedule, so the game is where it would have been.
+     */
+    public void resume() {
+        await(onLoop(() -> {
+            long now = System.currentTimeMillis();
+            int closed = 0;
+            while (active && nextRoundStartTimeMillis <= now) {
+                long due = nextRoundStartTimeMillis;
+                advanceRound();
+                closed++;
+                if (active) {
+                    nextRoundStartTimeMillis = due + roundDelayMillis;
+                }
+            }
+            if (active) {
+                scheduleNextRoundAt(nextRoundStartTimeMillis);
+                recalculateLeaderboard();
+                notifyRoundStarted();
+            }
+            log.info("Game {} resumed in round {} after closing {} rounds that fell due while hibernated.", gameId,
+                    currentRound, closed);
+        }));
+    }
+
+    /** Marks the player as seen now; called from the request path, so it only writes one volatile field. */
+    public void recordActivity(Long userId) {
+        PlayerState player = playerStates.get(userId);
+        if (player != null) {
+            player.markSeen(System.currentTimeMillis());
+        }
+    }
+
+    /** Most recent API visit of any player, or the game's creation when nobody has one. */
+    public long getLastActivityMillis() {
+        long last = createdAtMillis;
+        for (PlayerState player : playerStates.values()) {
+            last = Math.max(last, player.getLastSeenMillis());
+        }
+        return last;
+    }
+
+    /** Rebuilds a game written by {@link #hibernate}; call {@link #resume()} once it is registered. */
+    public static GameManager fromSnapshot(byte[] snapshot) {
+        return GameSnapshot.read(snapshot);
+    }
+
+    long getRoundDelayMillis() {
+        return roundDelayMillis;
+    }
+
+    void restore(int currentRound, LocalDateTime startedAt, long nextRoundStartTimeMillis, long version,
+            Collection<PlayerState> players) {
+        this.currentRound = currentRound;
+        this.startedAt = startedAt;
+        this.nextRoundStartTimeMillis = nextRoundStartTimeMillis;
+        long restoredVersion = Math.max(version, this.version.get()) + 1;
+        this.version.set(restoredVersion);
+        this.roundVersion = restoredVersion;
+        this.leaderBoardVersion = restoredVersion;
+        this.submissionsVersion = restoredVersion;
+        this.timelineVersion = restoredVersion;
+        for (PlayerState player : players) {
+            player.markChanged(restoredVersion);
+            playerStates.put(player.getUserId(), player);
+        }
+    }
+
+    public void addRoundListener(GameRoundListener listener) {
+        roundListeners.add(Objects.requireNonNull(listener, "Round listener cannot be null"));
+    }
+
+    private void notifyRoundStarted() {
+        for (GameRoundListener listener : roundListeners) {
+            try {
+                listener.onRoundStarted(this, currentRound);
+            } catch (RuntimeException e) {
+                log.warn("Game {}: round listener failed for round {}: {}", gameId, currentRound, e.getMessage());
+            }
+        }
     }
 
-    private void recalculateLeaderboard() {
+    void recalculateLeaderboard() {
+        long startNanos = System.nanoTime();
         List<LeaderBoardEntry> updatedBoard = new ArrayList<>();
-        Map<String, Double> currentPricesForLeaderboard = getCurrentStockPrices();
+        RoundPrices currentPricesForLeaderboard = getRoundPrices(currentRound);
 
         for (PlayerState player : playerStates.values()) {
-            double totalAssets = player.calculateTotalAssets(currentPricesForLeaderboard);
-            log.debug("Game {}: Player {} ({}) total assets for leaderboard: {}", gameId, player.getUserId(),
-                    totalAssets);
+            long totalAssets = player.calculateTotalAssetsMicros(currentPricesForLeaderboard);
+            if (log.isDebugEnabled()) {
+                log.debug("Game {}: Player {} total assets for leaderboard: {}", gameId, player.getUserId(),
+                        Money.toDecimal(totalAssets));
+            }
             updatedBoard.add(new LeaderBoardEntry(player.getUserId(), totalAssets));
         }
-        updatedBoard.sort((a, b) -> Double.compare(b.getTotalAssets(), a.getTotalAssets()));
+        updatedBoard.sort((a, b) -> Long.compare(b.getTotalAssetsMicros(), a.getTotalAssetsMicros()));
         this.leaderBoard = updatedBoard;
+        leaderBoardVersion = version.incrementAndGet();
         if (!updatedBoard.isEmpty()) {
-            log.info("Game {}: Leaderboard recalculated. Top player: {} with assets {}", gameId,
+            log.debug("Game {}: Leaderboard recalculated. Top player: {} with assets {}", gameId,
                     updatedBoard.get(0).getUserId(), updatedBoard.get(0).getTotalAssets());
         } else {
-            log.info("Game {}: Leaderboard recalculated. No players on leaderboard.", gameId);
+            log.debug("Game {}: Leaderboard recalculated. No players on leaderboard.", gameId);
         }
+        recordOperation(GameMetrics.Operation.RECALCULATE_LEADERBOARD, startNanos);
+    }
+
+    public void endGame() {
+        await(onLoop(this::finishGame));
     }
 
-    public synchronized void endGame() {
+    private void finishGame() {
         if (!this.active) {
             log.info("Game {} already ended.", gameId);
             return;
         }
         log.info("Game {} is ending. Final round was {}.", gameId, currentRound);
-        this.active = false;
+        settleAndClose(true, () -> this.active = false);
+        roundVersion = version.incrementAndGet();
         recalculateLeaderboard();
 
         if (nextRoundFuture != null && !nextRoundFuture.isDone()) {
@@ -228,22 +748,14 @@ public class GameManager {
             nextRoundFuture.cancel(false);
         }
 
-        log.info("Game {}: Shutting down round scheduler.", gameId);
-        scheduler.shutdown();
-        try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                log.warn("Game {}: Scheduler did not terminate in 5s; forcing shutdown.", gameId);
-                scheduler.shutdownNow();
-            } else {
-                log.info("Game {}: Scheduler terminated cleanly.", gameId);
+        log.info("Game {} processing finished.", gameId);
+        for (GameRoundListener listener : roundListeners) {
+            try {
+                listener.onGameEnded(this);
+            } catch (RuntimeException e) {
+                log.warn("Game {}: round listener failed on game end: {}", gameId, e.getMessage());
             }
-        } catch (InterruptedException e) {
-            log.warn("Game {}: Interrupted during scheduler shutdown; forcing shutdown.", gameId, e);
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
         }
-
-        log.info("Game {} processing finished.", gameId);
         InMemoryGameRegistry.remove(gameId);
     }
 
@@ -272,8 +784,19 @@ public class GameManager {
     }
 
     public void setStockTimeline(LinkedHashMap<LocalDate, Map<String, Double>> stockTimeline) {
-        this.stockTimeline = Objects.requireNonNull(stockTimeline, "Stock timeline cannot be set to null");
-        log.info("Game {}: Stock timeline has been externally updated. New size: {}", gameId, stockTimeline.size());
+        Objects.requireNonNull(stockTimeline, "Stock timeline cannot be set to null");
+        await(onLoop(() -> {
+            this.stockTimeline = stockTimeline;
+            indexTimeline();
+            timelineVersion = version.incrementAndGet();
+            roundVersion = timelineVersion;
+            log.info("Game {}: Stock timeline has been externally updated. New size: {}", gameId,
+                    stockTimeline.size());
+        }));
+    }
+
+    int getPlayerCount() {
+        return playerStates.size();
     }
 
     public PlayerState getPlayerState(Long userId) {
@@ -288,10 +811,107 @@ public class GameManager {
             return true;
         }
         return playerStates.values().stream()
-                .allMatch(player -> player.hasSubmittedForRound(currentRound));
+                .allMatch(player -> player.hasSubmittedForRound(currentRound)
+                        || Objects.equals(queuedRounds.get(player.getUserId()), currentRound));
     }
 
     public long getNextRoundStartTimeMillis() {
         return nextRoundStartTimeMillis;
     }
+
+    /** Monotonic counter bumped on every observable change to this game. */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /** Version of the last change to the round number, active flag or next round start. */
+    public long getRoundVersion() {
+        return roundVersion;
+    }
+
+    public long getLeaderBoardVersion() {
+        return leaderBoardVersion;
+    }
+
+    /** Version of the last accepted submission or player registration. */
+    public long getSubmissionsVersion() {
+        return submissionsVersion;
+    }
+
+    public long getTimelineVersion() {
+        return timelineVersion;
+    }
+
+    /**
+     * Random tag of this instance of the game. A game read back after hibernation or taken over by another node
+     * gets a new one, so version numbers handed out by an earlier instance can be told apart.
+     */
+    public String getInstanceTag() {
+        return etagPrefix;
+    }
+
+    /**
+     * Entity tag for a read resource of this game built from the versions it depends on. The random per-instance
+     * prefix keeps tags from a previous game with the same id from matching.
+     */
+    public String getETag(String resource, long... versions) {
+        StringBuilder etag = new StringBuilder(etagPrefix).append('-').append(resource);
+        for (long v : versions) {
+            etag.append('-').append(v);
+        }
+        return etag.toString();
+    }
+
+    /**
+     * Consistent snapshot of the requested {@link GameViewDTO} fields, taken on the game's event loop. Fields
+     * that were not requested are neither copied nor serialized.
+     */
+    public GameViewDTO toView(Set<String> fields) {
+        return await(toViewAsync(fields));
+    }
+
+    /** {@link #toView} without waiting: the future completes once the loop has built the view. */
+    public CompletableFuture<GameViewDTO> toViewAsync(Set<String> fields) {
+        return onLoop(() -> buildView(fields));
+    }
+
+    private GameViewDTO buildView(Set<String> fields) {
+        GameViewDTO view = new GameViewDTO();
+        if (fields.contains(GameViewDTO.GAME_ID)) {
+            view.setGameId(gameId);
+        }
+        if (fields.contains(GameViewDTO.CURRENT_ROUND)) {
+            view.setCurrentRound(currentRound);
+        }
+        if (fields.contains(GameViewDTO.ACTIVE)) {
+            view.setActive(active);
+        }
+        if (fields.contains(GameViewDTO.STARTED_AT)) {
+            view.setStartedAt(startedAt);
+        }
+        if (fields.contains(GameViewDTO.NEXT_ROUND_START_TIME_MILLIS)) {
+            view.setNextRoundStartTimeMillis(nextRoundStartTimeMillis);
+        }
+        if (fields.contains(GameViewDTO.CURRENT_MARKET_DATE)) {
+            view.setCurrentMarketDate(getCurrentMarketDate());
+        }
+        if (fields.contains(GameViewDTO.CURRENT_STOCK_PRICES)) {
+            view.setCurrentStockPrices(getCurrentStockPrices());
+        }
+        if (fields.contains(GameViewDTO.LEADER_BOARD)) {
+            view.setLeaderBoard(leaderBoard);
+        }
+        if (fields.contains(GameViewDTO.PLAYER_STATES)) {
+            Map<Long, GameViewDTO.PlayerView> players = new HashMap<>();
+            for (PlayerState player : playerStates.values()) {
+                players.put(player.getUserId(), new GameViewDTO.PlayerView(player.getUserId(),
+                        player.getCashBalance(), player.getPlayerStocks(), player.getTransactionHistory()));
+            }
+            view.setPlayerStates(players);
+        }
+        if (fields.contains(GameViewDTO.STOCK_TIMELINE)) {
+            view.setStockTimeline(getStockTimeline());
+        }
+        return view;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Engine meters registered once against the global registry, which Spring Boot
+ * wires into the actuator registry. Recording is a nanoTime read plus a
+ * histogram update, so it stays on in production.
+ */
+public final class GameMetrics {
+
+    public enum Operation {
+        REGISTER_PLAYER("register_player"),
+        SUBMIT_TRANSACTIONS("submit_transactions"),
+        NEXT_ROUND("next_round"),
+        RECALCULATE_LEADERBOARD("recalculate_leaderboard"),
+        SETTLE_ROUND("settle_round");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum RejectionReason {
+        INACTIVE_GAME("inactive_game"),
+        UNKNOWN_PLAYER("unknown_player"),
+        DUPLICATE_ROUND("duplicate_round"),
+        STALE_ROUND("stale_round");
+
+        private final String tag;
+
+        RejectionReason(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final Map<Operation, Timer> OPERATION_TIMERS = new EnumMap<>(Operation.class);
+    private static final Map<RejectionReason, Counter> REJECTED_SUBMISSIONS = new EnumMap<>(RejectionReason.class);
+    private static final Timer ROUND_TIMER_LAG = Timer.builder("game.round.timer.lag")
+            .description("Delay between a round's scheduled start and the moment it actually advanced")
+            .publishPercentileHistogram()
+            .register(Metrics.globalRegistry);
+    private static final AtomicInteger ACTIVE_SCHEDULERS = new AtomicInteger();
+
+    static {
+        for (Operation operation : Operation.values()) {
+            OPERATION_TIMERS.put(operation, Timer.builder("game.engine.operation")
+                    .tag("operation", operation.tag)
+                    .description("Latency of game engine operations")
+                    .publishPercentileHistogram()
+                    .register(Metrics.globalRegistry));
+        }
+        for (RejectionReason reason : RejectionReason.values()) {
+            REJECTED_SUBMISSIONS.put(reason, Counter.builder("game.submissions.rejected")
+                    .tag("reason", reason.tag)
+                    .description("Transaction submissions rejected by the engine")
+                    .register(Metrics.globalRegistry));
+        }
+    }
+
+    private GameMetrics() {
+    }
+
+    static void recordOperation(Operation operation, long startNanos) {
+        OPERATION_TIMERS.get(operation).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    static void recordRejectedSubmission(RejectionReason reason) {
+        REJECTED_SUBMISSIONS.get(reason).increment();
+    }
+
+    static void recordRoundTimerLag(long lagMillis) {
+        ROUND_TIMER_LAG.record(Math.max(0L, lagMillis), TimeUnit.MILLISECONDS);
+    }
+
+    static void schedulerStarted() {
+        ACTIVE_SCHEDULERS.incrementAndGet();
+    }
+
+    public static int getActiveSchedulers() {
+        return ACTIVE_SCHEDULERS.get();
+    }
+}
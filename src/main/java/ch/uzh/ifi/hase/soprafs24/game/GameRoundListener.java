@@ -0,0 +1,18 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+/**
+ * Callback for work that should happen once per round rather than once per
+ * request. Invoked on the game's event loop, so implementations must be quick
+ * and must not block.
+ */
+public interface GameRoundListener {
+
+    void onRoundStarted(GameManager game, int round);
+
+    default void onGameEnded(GameManager game) {
+    }
+
+    /** The game was written out while idle and this instance evicted; it comes back as a new instance. */
+    default void onGameHibernated(GameManager game) {
+    }
+}
@@ -0,0 +1,197 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact binary form of a running game, used to hibernate it. Holds the
+ * timeline, round clock and version, and per player the live portfolio,
+ * transactions, submitted rounds and the holdings and cash of every
+ * snapshotted round, with money in micro-units. Derived state such as the
+ * leaderboard is rebuilt. A snapshot in any other format is refused.
+ */
+final class GameSnapshot {
+
+    private static final int FORMAT = 1;
+
+    private GameSnapshot() {
+    }
+
+    static byte[] write(GameManager game) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(FORMAT);
+            out.writeLong(game.getGameId());
+            out.writeLong(game.getRoundDelayMillis());
+            out.writeInt(game.getCurrentRound());
+            out.writeUTF(game.getStartedAt().toString());
+            out.writeLong(game.getNextRoundStartTimeMillis());
+            out.writeLong(game.getVersion());
+            out.writeUTF(game.getSettlementMode().name());
+
+            LinkedHashMap<LocalDate, Map<String, Double>> timeline = game.getStockTimeline();
+            out.writeInt(timeline.size());
+            for (Map.Entry<LocalDate, Map<String, Double>> day : timeline.entrySet()) {
+                out.writeUTF(day.getKey().toString());
+                writePrices(out, day.getValue() == null ? Map.of() : day.getValue());
+            }
+
+            Map<Long, PlayerState> players = game.getPlayerStates();
+            out.writeInt(players.size());
+            for (PlayerState player : players.values()) {
+                writePlayer(out, player);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot of game " + game.getGameId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static GameManager read(byte[] snapshot) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(snapshot)))) {
+            int format = in.readInt();
+            if (format != FORMAT) {
+                throw new IllegalStateException("Unsupported game snapshot format " + format);
+            }
+            long gameId = in.readLong();
+            long roundDelayMillis = in.readLong();
+            int currentRound = in.readInt();
+            LocalDateTime startedAt = LocalDateTime.parse(in.readUTF());
+            long nextRoundStartTimeMillis = in.readLong();
+            long version = in.readLong();
+            SettlementMode settlementMode = SettlementMode.valueOf(in.readUTF());
+
+            LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+            int days = in.readInt();
+            for (int i = 0; i < days; i++) {
+                LocalDate date = LocalDate.parse(in.readUTF());
+                timeline.put(date, readPrices(in));
+            }
+
+            GameManager game = new GameManager(gameId, timeline, roundDelayMillis);
+            game.setSettlementMode(settlementMode);
+            int playerCount = in.readInt();
+            List<PlayerState> players = new ArrayList<>(playerCount);
+            for (int i = 0; i < playerCount; i++) {
+                players.add(readPlayer(in, game));
+            }
+            game.restore(currentRound, startedAt, nextRoundStartTimeMillis, version, players);
+            return game;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read game snapshot", e);
+        }
+    }
+
+    private static void writePlayer(DataOutputStream out, PlayerState player) throws IOException {
+        out.writeLong(player.getUserId());
+        out.writeLong(player.getCashMicros());
+        writeHoldings(out, player.getPlayerStocks());
+
+        List<Transaction> transactions = player.getTransactionHistory();
+        out.writeInt(transactions.size());
+        for (Transaction tx : transactions) {
+            out.writeUTF(tx.getStockId());
+            out.writeInt(tx.getQuantity());
+            out.writeLong(tx.getPriceMicros());
+            out.writeUTF(tx.getType());
+            out.writeInt(tx.getRound());
+        }
+
+        Set<Integer> submitted = player.getSubmittedRounds();
+        out.writeInt(submitted.size());
+        for (int round : submitted) {
+            out.writeInt(round);
+        }
+
+        PortfolioHistory history = player.getPortfolioHistory();
+        List<Integer> rounds = new ArrayList<>();
+        for (int round = 1; round <= history.getLastRecordedRound(); round++) {
+            if (history.hasRound(round)) {
+                rounds.add(round);
+            }
+        }
+        out.writeInt(rounds.size());
+        for (int round : rounds) {
+            out.writeInt(round);
+            out.writeLong(player.getCashMicrosAtRound(round));
+            writeHoldings(out, player.getHoldingsForRound(round));
+        }
+    }
+
+    private static PlayerState readPlayer(DataInputStream in, GameManager game) throws IOException {
+        PlayerState player = new PlayerState(in.readLong());
+        player.setRoundPrices(game::getRoundPrices);
+        long cashMicros = in.readLong();
+        Map<String, Integer> stocks = readHoldings(in);
+
+        int transactionCount = in.readInt();
+        List<Transaction> transactions = new ArrayList<>(transactionCount);
+        for (int i = 0; i < transactionCount; i++) {
+            transactions.add(new Transaction(in.readUTF(), in.readInt(), in.readLong(), in.readUTF(), in.readInt()));
+        }
+
+        int submittedCount = in.readInt();
+        Set<Integer> submitted = new HashSet<>();
+        for (int i = 0; i < submittedCount; i++) {
+            submitted.add(in.readInt());
+        }
+        player.restore(cashMicros, stocks, transactions, submitted);
+
+        int roundCount = in.readInt();
+        for (int i = 0; i < roundCount; i++) {
+            int round = in.readInt();
+            long cashAtRound = in.readLong();
+            player.restoreRound(round, readHoldings(in), cashAtRound);
+        }
+        return player;
+    }
+
+    private static void writePrices(DataOutputStream out, Map<String, Double> prices) throws IOException {
+        out.writeInt(prices.size());
+        for (Map.Entry<String, Double> price : prices.entrySet()) {
+            out.writeUTF(price.getKey());
+            out.writeDouble(price.getValue());
+        }
+    }
+
+    private static Map<String, Double> readPrices(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, Double> prices = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            prices.put(in.readUTF(), in.readDouble());
+        }
+        return prices;
+    }
+
+    private static void writeHoldings(DataOutputStream out, Map<String, Integer> holdings) throws IOException {
+        out.writeInt(holdings.size());
+        for (Map.Entry<String, Integer> holding : holdings.entrySet()) {
+            out.writeUTF(holding.getKey());
+            out.writeInt(holding.getValue());
+        }
+    }
+
+    private static Map<String, Integer> readHoldings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, Integer> holdings = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            holdings.put(in.readUTF(), in.readInt());
+        }
+        return holdings;
+    }
+}
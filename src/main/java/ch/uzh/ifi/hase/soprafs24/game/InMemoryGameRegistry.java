@@ -1,11 +1,15 @@
 package ch.uzh.ifi.hase.soprafs24.game;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.stereotype.Component;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Component
-public class InMemoryGameRegistry {
+public class InMemoryGameRegistry implements MeterBinder {
 
     private static final Map<Long, GameManager> activeGames = new ConcurrentHashMap<>();
 
@@ -21,6 +25,11 @@ public class InMemoryGameRegistry {
         activeGames.remove(gameId);
     }
 
+    /** Removes the game only while {@code gameManager} is the instance registered for it. */
+    public static void remove(Long gameId, GameManager gameManager) {
+        activeGames.remove(gameId, gameManager);
+    }
+
     public static boolean isGameActive(Long gameId) {
         return activeGames.containsKey(gameId);
     }
@@ -29,4 +38,33 @@ public class InMemoryGameRegistry {
         activeGames.clear();
     }
 
+    public static Set<Long> gameIds() {
+        return Set.copyOf(activeGames.keySet());
+    }
+
+    public static int size() {
+        return activeGames.size();
+    }
+
+    public static int playerCount() {
+        int players = 0;
+        for (GameManager game : activeGames.values()) {
+            players += game.getPlayerCount();
+        }
+        return players;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("game.registry.active", InMemoryGameRegistry::size)
+                .description("Games currently held in the in-memory registry")
+                .register(registry);
+        Gauge.builder("game.registry.players", InMemoryGameRegistry::playerCount)
+                .description("Players registered across all active games")
+                .register(registry);
+        Gauge.builder("game.scheduler.threads", GameMetrics::getActiveSchedulers)
+                .description("Event-loop threads running game mutations and round timers")
+                .register(registry);
+    }
+
 }
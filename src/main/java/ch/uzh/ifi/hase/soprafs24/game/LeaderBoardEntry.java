@@ -1,12 +1,14 @@
 package ch.uzh.ifi.hase.soprafs24.game;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class LeaderBoardEntry {
     private Long userId;
-    private double totalAssets;
+    private long totalAssetsMicros;
 
-    public LeaderBoardEntry(Long userId, double totalAssets) {
+    public LeaderBoardEntry(Long userId, long totalAssetsMicros) {
         this.userId = userId;
-        this.totalAssets = totalAssets;
+        this.totalAssetsMicros = totalAssetsMicros;
     }
 
     public Long getUserId() {
@@ -14,6 +16,11 @@ public class LeaderBoardEntry {
     }
 
     public double getTotalAssets() {
-        return totalAssets;
+        return Money.toDecimal(totalAssetsMicros);
+    }
+
+    @JsonIgnore
+    public long getTotalAssetsMicros() {
+        return totalAssetsMicros;
     }
-}
\ No newline at end of file
+}
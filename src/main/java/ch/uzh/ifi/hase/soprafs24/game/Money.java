@@ -0,0 +1,31 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+/**
+ * Fixed-point money. The engine keeps cash, prices and valuations as longs
+ * in millionths of a currency unit, so sums never drift; amounts are turned
+ * back into decimals only when a DTO is built.
+ */
+public final class Money {
+
+    public static final long MICROS_PER_UNIT = 1_000_000L;
+
+    private Money() {
+    }
+
+    public static long ofDecimal(double amount) {
+        return Math.round(amount * MICROS_PER_UNIT);
+    }
+
+    public static double toDecimal(long micros) {
+        return micros / (double) MICROS_PER_UNIT;
+    }
+
+    /** Price times quantity, saturating instead of wrapping so an absurd order is simply unaffordable. */
+    public static long times(long priceMicros, int quantity) {
+        try {
+            return Math.multiplyExact(priceMicros, quantity);
+        } catch (ArithmeticException e) {
+            return (priceMicros < 0) == (quantity < 0) ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+    }
+}
@@ -1,66 +1,74 @@
 package ch.uzh.ifi.hase.soprafs24.game;
 
 import java.util.*;
+import java.util.function.IntFunction;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
 
 public class PlayerState {
 
+    static final long INITIAL_CASH_MICROS = 10_000 * Money.MICROS_PER_UNIT;
+
     private final Long userId;
     private final Map<String, Integer> stocksOwned;
-    private double cashBalance;
-    private final List<Transaction> transactionHistory;
+    private long cashMicros;
+    private final TransactionLedger ledger = new TransactionLedger();
 
     private final Set<Integer> submittedRounds = new HashSet<>();
-    private final Map<Integer, Map<String, Integer>> stockHistory = new HashMap<>();
+    private final PortfolioHistory portfolioHistory = new PortfolioHistory();
+    private IntFunction<RoundPrices> roundPrices = round -> RoundPrices.EMPTY;
+    private volatile long version;
+    private volatile long lastSeenMillis = System.currentTimeMillis();
 
     public PlayerState(Long userId) {
         this.userId = userId;
         this.stocksOwned = new HashMap<>();
-        this.cashBalance = 10000.0;
-        this.transactionHistory = new ArrayList<>();
+        this.cashMicros = INITIAL_CASH_MICROS;
     }
 
     public Long getUserId() {
         return userId;
     }
 
+    /** Decimal view of the cash for DTOs; the engine works on {@link #getCashMicros()}. */
     public double getCashBalance() {
-        return cashBalance;
+        return Money.toDecimal(cashMicros);
+    }
+
+    public long getCashMicros() {
+        return cashMicros;
     }
 
     public Map<String, Integer> getPlayerStocks() {
         return new HashMap<>(stocksOwned);
     }
 
-    public double calculateTotalAssets(Map<String, Double> stockPrices) {
-        double total = cashBalance;
+    /** Cash plus every position at the given prices, in micro-units. */
+    public long calculateTotalAssetsMicros(RoundPrices stockPrices) {
+        long total = cashMicros;
         for (Map.Entry<String, Integer> entry : stocksOwned.entrySet()) {
-            String symbol = entry.getKey();
-            int quantity = entry.getValue();
-            double price = stockPrices.getOrDefault(symbol, 0.0);
-            total += quantity * price;
+            total += Money.times(stockPrices.getMicros(entry.getKey()), entry.getValue());
         }
         return total;
     }
 
-    public void applyTransaction(TransactionRequestDTO tx, Map<String, Double> currentPrices) {
-        if (!currentPrices.containsKey(tx.getStockId())) {
+    public void applyTransaction(TransactionRequestDTO tx, RoundPrices currentPrices, int round) {
+        if (!currentPrices.contains(tx.getStockId())) {
             return;
         }
-        double price = currentPrices.getOrDefault(tx.getStockId(), 0.0);
-        double total = price * tx.getQuantity();
+        long price = currentPrices.getMicros(tx.getStockId());
+        long total = Money.times(price, tx.getQuantity());
 
-        if ("BUY".equalsIgnoreCase(tx.getType()) && cashBalance >= total) {
+        if ("BUY".equalsIgnoreCase(tx.getType()) && cashMicros >= total) {
             stocksOwned.put(tx.getStockId(),
                     stocksOwned.getOrDefault(tx.getStockId(), 0) + tx.getQuantity());
-            cashBalance -= total;
-            transactionHistory.add(new Transaction(tx.getStockId(), tx.getQuantity(), price, "BUY"));
+            cashMicros -= total;
+            ledger.append(tx.getStockId(), tx.getQuantity(), price, "BUY", round);
         } else if ("SELL".equalsIgnoreCase(tx.getType())) {
             int current = stocksOwned.getOrDefault(tx.getStockId(), 0);
             if (current >= tx.getQuantity()) {
                 stocksOwned.put(tx.getStockId(), current - tx.getQuantity());
-                cashBalance += total;
-                transactionHistory.add(new Transaction(tx.getStockId(), tx.getQuantity(), price, "SELL"));
+                cashMicros += total;
+                ledger.append(tx.getStockId(), tx.getQuantity(), price, "SELL", round);
             }
         }
     }
@@ -70,7 +78,12 @@ public class PlayerState {
     }
 
     public List<Transaction> getTransactionHistory() {
-        return new ArrayList<>(transactionHistory);
+        return ledger.page(0, ledger.size(), Transaction::new);
+    }
+
+    /** The executed trades, for paging through without materializing the whole history. */
+    public TransactionLedger getLedger() {
+        return ledger;
     }
 
     public boolean hasSubmittedForRound(int round) {
@@ -81,18 +94,80 @@ public class PlayerState {
         submittedRounds.add(round);
     }
 
-    public double getTotalAssets(Map<String, Double> prices) {
-        return calculateTotalAssets(prices);
-    }
-
     public void snapshotHoldingsAtRound(int round) {
         if (stocksOwned == null)
             return;
-        stockHistory.put(round, new HashMap<>(stocksOwned));
+        portfolioHistory.record(round, stocksOwned, cashMicros, roundPrices.apply(round),
+                roundPrices.apply(round + 1));
     }
 
     public Map<String, Integer> getHoldingsForRound(int round) {
-        return stockHistory.getOrDefault(round, Collections.emptyMap());
+        return portfolioHistory.getHoldings(round);
+    }
+
+    public PortfolioHistory getPortfolioHistory() {
+        return portfolioHistory;
+    }
+
+    /** Game version of this player's last accepted submission. */
+    public long getVersion() {
+        return version;
+    }
+
+    void markChanged(long version) {
+        this.version = version;
+    }
+
+    /** Last time this player called the API for the game; registration counts as a visit. */
+    public long getLastSeenMillis() {
+        return lastSeenMillis;
+    }
+
+    void markSeen(long millis) {
+        this.lastSeenMillis = millis;
+    }
+
+    long getCashMicrosAtRound(int round) {
+        PortfolioHistory.RoundPortfolio portfolio = portfolioHistory.getRound(round);
+        return portfolio == null ? cashMicros : portfolio.getCashMicros();
+    }
+
+    Set<Integer> getSubmittedRounds() {
+        return Collections.unmodifiableSet(submittedRounds);
+    }
+
+    /** Reinstates the live state of a hibernated player; round history is replayed with {@link #restoreRound}. */
+    void restore(long cashMicros, Map<String, Integer> stocksOwned, List<Transaction> transactionHistory,
+            Set<Integer> submittedRounds) {
+        this.cashMicros = cashMicros;
+        this.stocksOwned.clear();
+        this.stocksOwned.putAll(stocksOwned);
+        ledger.clear();
+        appendAll(transactionHistory);
+        this.submittedRounds.clear();
+        this.submittedRounds.addAll(submittedRounds);
+    }
+
+    /** Writes back the outcome of a round-close settlement; {@code positions} holds only the symbols traded. */
+    void applySettlement(long cashMicros, Map<String, Integer> positions, List<Transaction> filled, int round) {
+        this.cashMicros = cashMicros;
+        this.stocksOwned.putAll(positions);
+        appendAll(filled);
+        markSubmittedForRound(round);
+    }
+
+    private void appendAll(List<Transaction> transactions) {
+        for (Transaction tx : transactions) {
+            ledger.append(tx.getStockId(), tx.getQuantity(), tx.getPriceMicros(), tx.getType(), tx.getRound());
+        }
+    }
+
+    void restoreRound(int round, Map<String, Integer> holdings, long cashAtRound) {
+        portfolioHistory.record(round, holdings, cashAtRound, roundPrices.apply(round), roundPrices.apply(round + 1));
+    }
+
+    void setRoundPrices(IntFunction<RoundPrices> roundPrices) {
+        this.roundPrices = Objects.requireNonNull(roundPrices, "Round prices cannot be null");
     }
 
 }
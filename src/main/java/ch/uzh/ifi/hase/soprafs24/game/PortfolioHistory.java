@@ -0,0 +1,248 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-player record of positions held at the end of each round, valued at
+ * the prices in force when the round was snapshotted. This is the only round
+ * history a player keeps. Each round stores its cash, the two price tables
+ * (shared with the game) and the quantities that changed since the previously
+ * recorded round; every {@value #KEYFRAME_INTERVAL}th recorded round stores
+ * all quantities, so reading a round replays at most that many deltas.
+ */
+public class PortfolioHistory {
+
+    static final int KEYFRAME_INTERVAL = 32;
+    private static final String[] NO_SYMBOLS = new String[0];
+    private static final int[] NO_QUANTITIES = new int[0];
+
+    private final List<Entry> rounds = new ArrayList<>();
+    private RoundPortfolio latest;
+
+    synchronized void record(int round, Map<String, Integer> holdings, long cashMicros, RoundPrices roundPrices,
+            RoundPrices nextRoundPrices) {
+        if (round <= 0) {
+            return;
+        }
+        Map<String, Integer> positions = new TreeMap<>();
+        for (Map.Entry<String, Integer> entry : holdings.entrySet()) {
+            if (entry.getValue() > 0) {
+                positions.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (round <= rounds.size()) {
+            rewriteFrom(round, positions, cashMicros, roundPrices, nextRoundPrices);
+            return;
+        }
+        append(round, positions, cashMicros, roundPrices, nextRoundPrices);
+        latest = null;
+    }
+
+    /** The portfolio recorded for the round, or null if that round was never snapshotted. */
+    public synchronized RoundPortfolio getRound(int round) {
+        if (!hasRound(round)) {
+            return null;
+        }
+        if (round == rounds.size()) {
+            if (latest == null) {
+                latest = materialize(round);
+            }
+            return latest;
+        }
+        return materialize(round);
+    }
+
+    public synchronized boolean hasRound(int round) {
+        return round > 0 && round <= rounds.size() && rounds.get(round - 1) != null;
+    }
+
+    /** Positive quantities held at the end of the round; empty if the round was never snapshotted. */
+    synchronized Map<String, Integer> getHoldings(int round) {
+        return hasRound(round) ? quantitiesAt(round) : Collections.emptyMap();
+    }
+
+    public synchronized int getLastRecordedRound() {
+        return rounds.size();
+    }
+
+    private void append(int round, Map<String, Integer> positions, long cashMicros, RoundPrices roundPrices,
+            RoundPrices nextRoundPrices) {
+        int previousRound = rounds.size();
+        while (previousRound > 0 && rounds.get(previousRound - 1) == null) {
+            previousRound--;
+        }
+        Entry previous = previousRound == 0 ? null : rounds.get(previousRound - 1);
+        Entry entry;
+        if (previous == null || previous.sinceKeyframe + 1 >= KEYFRAME_INTERVAL) {
+            entry = new Entry(cashMicros, roundPrices, nextRoundPrices, 0, positions);
+        } else {
+            Map<String, Integer> before = quantitiesAt(previousRound);
+            Map<String, Integer> delta = new TreeMap<>();
+            for (Map.Entry<String, Integer> position : positions.entrySet()) {
+                if (!position.getValue().equals(before.get(position.getKey()))) {
+                    delta.put(position.getKey(), position.getValue());
+                }
+            }
+            for (String symbol : before.keySet()) {
+                if (!positions.containsKey(symbol)) {
+                    delta.put(symbol, 0);
+                }
+            }
+            entry = new Entry(cashMicros, roundPrices, nextRoundPrices, previous.sinceKeyframe + 1, delta);
+        }
+        while (rounds.size() < round - 1) {
+            rounds.add(null);
+        }
+        rounds.add(entry);
+    }
+
+    /** Replaces an already recorded round and re-encodes the rounds after it against the new contents. */
+    private void rewriteFrom(int round, Map<String, Integer> positions, long cashMicros, RoundPrices roundPrices,
+            RoundPrices nextRoundPrices) {
+        List<Entry> tail = new ArrayList<>(rounds.subList(round - 1, rounds.size()));
+        List<Map<String, Integer>> tailQuantities = new ArrayList<>();
+        for (int r = round; r <= rounds.size(); r++) {
+            tailQuantities.add(rounds.get(r - 1) == null ? null : quantitiesAt(r));
+        }
+        rounds.subList(round - 1, rounds.size()).clear();
+        latest = null;
+        append(round, positions, cashMicros, roundPrices, nextRoundPrices);
+        for (int i = 1; i < tail.size(); i++) {
+            Entry old = tail.get(i);
+            if (old == null) {
+                rounds.add(null);
+            } else {
+                append(round + i, tailQuantities.get(i), old.cashMicros, old.prices, old.nextPrices);
+            }
+        }
+    }
+
+    private Map<String, Integer> quantitiesAt(int round) {
+        int keyframeRound = round;
+        while (rounds.get(keyframeRound - 1) == null || rounds.get(keyframeRound - 1).sinceKeyframe > 0) {
+            keyframeRound--;
+        }
+        Map<String, Integer> quantities = new TreeMap<>();
+        for (int r = keyframeRound; r <= round; r++) {
+            Entry entry = rounds.get(r - 1);
+            if (entry == null) {
+                continue;
+            }
+            for (int i = 0; i < entry.symbols.length; i++) {
+                if (entry.quantities[i] == 0) {
+                    quantities.remove(entry.symbols[i]);
+                } else {
+                    quantities.put(entry.symbols[i], entry.quantities[i]);
+                }
+            }
+        }
+        return quantities;
+    }
+
+    private RoundPortfolio materialize(int round) {
+        Entry entry = rounds.get(round - 1);
+        List<Position> positions = new ArrayList<>();
+        for (Map.Entry<String, Integer> quantity : quantitiesAt(round).entrySet()) {
+            String symbol = quantity.getKey();
+            positions.add(new Position(symbol, quantity.getValue(), entry.prices.getMicros(symbol),
+                    entry.nextPrices.getMicros(symbol)));
+        }
+        return new RoundPortfolio(round, entry.cashMicros, Collections.unmodifiableList(positions));
+    }
+
+    /** One recorded round: a keyframe ({@code sinceKeyframe == 0}) or the changes to the previous one. */
+    private static final class Entry {
+        private final long cashMicros;
+        private final RoundPrices prices;
+        private final RoundPrices nextPrices;
+        private final int sinceKeyframe;
+        private final String[] symbols;
+        private final int[] quantities;
+
+        private Entry(long cashMicros, RoundPrices prices, RoundPrices nextPrices, int sinceKeyframe,
+                Map<String, Integer> quantities) {
+            this.cashMicros = cashMicros;
+            this.prices = prices;
+            this.nextPrices = nextPrices;
+            this.sinceKeyframe = sinceKeyframe;
+            this.symbols = quantities.isEmpty() ? NO_SYMBOLS : quantities.keySet().toArray(NO_SYMBOLS);
+            this.quantities = quantities.isEmpty() ? NO_QUANTITIES : new int[quantities.size()];
+            int i = 0;
+            for (int quantity : quantities.values()) {
+                this.quantities[i++] = quantity;
+            }
+        }
+    }
+
+    public static final class RoundPortfolio {
+        private final int round;
+        private final long cashMicros;
+        private final List<Position> positions;
+
+        private RoundPortfolio(int round, long cashMicros, List<Position> positions) {
+            this.round = round;
+            this.cashMicros = cashMicros;
+            this.positions = positions;
+        }
+
+        public int getRound() {
+            return round;
+        }
+
+        public double getCashBalance() {
+            return Money.toDecimal(cashMicros);
+        }
+
+        public long getCashMicros() {
+            return cashMicros;
+        }
+
+        public List<Position> getPositions() {
+            return positions;
+        }
+
+        /** Cash plus positions at the round's own prices. */
+        public long getTotalValueMicros() {
+            long total = cashMicros;
+            for (Position position : positions) {
+                total += Money.times(position.priceMicros, position.quantity);
+            }
+            return total;
+        }
+    }
+
+    /** A position valued at the round's own market date and at the following round's date. */
+    public static final class Position {
+        private final String symbol;
+        private final int quantity;
+        private final long priceMicros;
+        private final long nextRoundPriceMicros;
+
+        private Position(String symbol, int quantity, long priceMicros, long nextRoundPriceMicros) {
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.priceMicros = priceMicros;
+            this.nextRoundPriceMicros = nextRoundPriceMicros;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public double getPrice() {
+            return Money.toDecimal(priceMicros);
+        }
+
+        public double getNextRoundPrice() {
+            return Money.toDecimal(nextRoundPriceMicros);
+        }
+    }
+}
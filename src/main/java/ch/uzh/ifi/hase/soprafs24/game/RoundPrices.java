@@ -0,0 +1,83 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One market date's prices in micro-units. Built once per round when the
+ * timeline is set; lookups go through a symbol index into a {@code long[]},
+ * so valuing a portfolio or applying an order neither boxes nor allocates.
+ */
+public final class RoundPrices {
+
+    static final RoundPrices EMPTY = new RoundPrices(new String[0], new long[0]);
+
+    private final String[] symbols;
+    private final long[] micros;
+    private final Map<String, Integer> index;
+
+    private RoundPrices(String[] symbols, long[] micros) {
+        this.symbols = symbols;
+        this.micros = micros;
+        this.index = new HashMap<>(symbols.length * 2);
+        for (int i = 0; i < symbols.length; i++) {
+            index.put(symbols[i], i);
+        }
+    }
+
+    /** Converts decimal prices; symbols without a price are left out. */
+    public static RoundPrices of(Map<String, Double> prices) {
+        if (prices == null || prices.isEmpty()) {
+            return EMPTY;
+        }
+        String[] symbols = new String[prices.size()];
+        long[] micros = new long[prices.size()];
+        int count = 0;
+        for (Map.Entry<String, Double> price : prices.entrySet()) {
+            if (price.getValue() == null) {
+                continue;
+            }
+            symbols[count] = price.getKey();
+            micros[count] = Money.ofDecimal(price.getValue());
+            count++;
+        }
+        if (count < symbols.length) {
+            symbols = Arrays.copyOf(symbols, count);
+            micros = Arrays.copyOf(micros, count);
+        }
+        return new RoundPrices(symbols, micros);
+    }
+
+    public boolean isEmpty() {
+        return symbols.length == 0;
+    }
+
+    public boolean contains(String symbol) {
+        return index.containsKey(symbol);
+    }
+
+    /** Price in micro-units, or 0 for a symbol not quoted on this date. */
+    public long getMicros(String symbol) {
+        Integer i = index.get(symbol);
+        return i == null ? 0L : micros[i];
+    }
+
+    int size() {
+        return symbols.length;
+    }
+
+    /** Position of the symbol in this round's arrays, or -1 when it is not quoted. */
+    int indexOf(String symbol) {
+        Integer i = index.get(symbol);
+        return i == null ? -1 : i;
+    }
+
+    String symbolAt(int i) {
+        return symbols[i];
+    }
+
+    long microsAt(int i) {
+        return micros[i];
+    }
+}
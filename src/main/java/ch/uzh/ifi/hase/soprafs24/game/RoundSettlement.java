@@ -0,0 +1,183 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
+
+/**
+ * Order queue and settlement pass for {@link SettlementMode#ROUND_CLOSE}.
+ * Request threads append to a lock-free queue; at round close the game's
+ * loop drains it, copies the submitting players' micro-unit cash and
+ * positions into flat arrays, applies every order in arrival order with the same rules as
+ * {@link PlayerState#applyTransaction}, and writes the results back once.
+ * Each queued submission ends up either settled or refused, decided by a
+ * compare-and-set between the loop and a submitter that takes it back.
+ */
+final class RoundSettlement {
+
+    private static final byte SKIP = 0;
+    private static final byte BUY = 1;
+    private static final byte SELL = 2;
+
+    private final Queue<QueuedSubmission> queue = new ConcurrentLinkedQueue<>();
+
+    private static final int PENDING = 0;
+    private static final int SETTLED = 1;
+    private static final int REFUSED = 2;
+
+    QueuedSubmission add(Long userId, int round, List<TransactionRequestDTO> txs) {
+        QueuedSubmission submission = new QueuedSubmission(userId, round, List.copyOf(txs));
+        queue.add(submission);
+        return submission;
+    }
+
+    /**
+     * Takes back a submission the loop has not picked up yet. False if the
+     * loop got to it first; it is then either settled or already refused
+     * (see {@link #isRefused}).
+     */
+    boolean withdraw(QueuedSubmission submission) {
+        return submission.state.compareAndSet(PENDING, REFUSED);
+    }
+
+    boolean isRefused(QueuedSubmission submission) {
+        return submission.state.get() == REFUSED;
+    }
+
+    boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Settles everything queued for {@code round} at {@code prices}. Each
+     * settled player is passed to {@code onSettled} with its order count;
+     * submissions queued for another round are refused and counted in the
+     * return value. Withdrawn ones are skipped.
+     */
+    int settle(int round, RoundPrices prices, Map<Long, PlayerState> players,
+            ObjIntConsumer<PlayerState> onSettled) {
+        List<QueuedSubmission> submissions = new ArrayList<>();
+        int stale = 0;
+        QueuedSubmission queued;
+        while ((queued = queue.poll()) != null) {
+            if (queued.round != round || !players.containsKey(queued.userId)) {
+                if (queued.state.compareAndSet(PENDING, REFUSED)) {
+                    stale++;
+                }
+            } else if (queued.state.compareAndSet(PENDING, SETTLED)) {
+                submissions.add(queued);
+            }
+        }
+        if (submissions.isEmpty()) {
+            return stale;
+        }
+
+        int symbolCount = prices.size();
+
+        Map<Long, Integer> playerIndex = new HashMap<>();
+        List<PlayerState> settled = new ArrayList<>();
+        int orderCount = 0;
+        for (QueuedSubmission submission : submissions) {
+            if (playerIndex.putIfAbsent(submission.userId, settled.size()) == null) {
+                settled.add(players.get(submission.userId));
+            }
+            orderCount += submission.txs.size();
+        }
+        int playerCount = settled.size();
+        long[] cash = new long[playerCount];
+        int[] holdings = new int[playerCount * symbolCount];
+        boolean[] touched = new boolean[playerCount * symbolCount];
+        for (int p = 0; p < playerCount; p++) {
+            PlayerState player = settled.get(p);
+            cash[p] = player.getCashMicros();
+            Map<String, Integer> owned = player.getPlayerStocks();
+            for (int s = 0; s < symbolCount; s++) {
+                holdings[p * symbolCount + s] = owned.getOrDefault(prices.symbolAt(s), 0);
+            }
+        }
+
+        int[] orderPlayer = new int[orderCount];
+        int[] orderSymbol = new int[orderCount];
+        int[] orderQuantity = new int[orderCount];
+        byte[] orderSide = new byte[orderCount];
+        int[] ordersPerPlayer = new int[playerCount];
+        int o = 0;
+        for (QueuedSubmission submission : submissions) {
+            int p = playerIndex.get(submission.userId);
+            ordersPerPlayer[p] += submission.txs.size();
+            for (TransactionRequestDTO tx : submission.txs) {
+                int s = prices.indexOf(tx.getStockId());
+                orderPlayer[o] = p;
+                orderSymbol[o] = s;
+                orderQuantity[o] = tx.getQuantity();
+                orderSide[o] = s < 0 ? SKIP
+                        : "BUY".equalsIgnoreCase(tx.getType()) ? BUY
+                        : "SELL".equalsIgnoreCase(tx.getType()) ? SELL : SKIP;
+                o++;
+            }
+        }
+
+        List<List<Transaction>> filled = new ArrayList<>(playerCount);
+        for (int p = 0; p < playerCount; p++) {
+            filled.add(new ArrayList<>());
+        }
+        for (int i = 0; i < orderCount; i++) {
+            if (orderSide[i] == SKIP) {
+                continue;
+            }
+            int p = orderPlayer[i];
+            int s = orderSymbol[i];
+            int slot = p * symbolCount + s;
+            int quantity = orderQuantity[i];
+            long total = Money.times(prices.microsAt(s), quantity);
+            if (orderSide[i] == BUY) {
+                if (cash[p] < total) {
+                    continue;
+                }
+                holdings[slot] += quantity;
+                cash[p] -= total;
+            } else {
+                if (holdings[slot] < quantity) {
+                    continue;
+                }
+                holdings[slot] -= quantity;
+                cash[p] += total;
+            }
+            touched[slot] = true;
+            filled.get(p).add(new Transaction(prices.symbolAt(s), quantity, prices.microsAt(s),
+                    orderSide[i] == BUY ? "BUY" : "SELL", round));
+        }
+
+        for (int p = 0; p < playerCount; p++) {
+            Map<String, Integer> positions = new HashMap<>();
+            for (int s = 0; s < symbolCount; s++) {
+                if (touched[p * symbolCount + s]) {
+                    positions.put(prices.symbolAt(s), holdings[p * symbolCount + s]);
+                }
+            }
+            PlayerState player = settled.get(p);
+            player.applySettlement(cash[p], positions, filled.get(p), round);
+            onSettled.accept(player, ordersPerPlayer[p]);
+        }
+        return stale;
+    }
+
+    static final class QueuedSubmission {
+        private final Long userId;
+        private final int round;
+        private final List<TransactionRequestDTO> txs;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        private QueuedSubmission(Long userId, int round, List<TransactionRequestDTO> txs) {
+            this.userId = userId;
+            this.round = round;
+            this.txs = txs;
+        }
+    }
+}
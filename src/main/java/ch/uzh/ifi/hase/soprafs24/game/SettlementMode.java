@@ -0,0 +1,9 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+/** When a game applies submitted orders. */
+public enum SettlementMode {
+    /** Each submission is applied on the game's loop as it arrives, at the round's prices. */
+    IMMEDIATE,
+    /** Submissions are queued and all of a round's orders are settled together when the round closes. */
+    ROUND_CLOSE
+}
@@ -3,23 +3,26 @@ package ch.uzh.ifi.hase.soprafs24.game;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class Transaction {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private String stockId;
     private int quantity;
-    private double price;
+    private long priceMicros;
     private String type;
+    private int round;
 
     public Transaction() {
     }
 
-    public Transaction(String stockId, int quantity, double price, String type) {
+    public Transaction(String stockId, int quantity, long priceMicros, String type, int round) {
         this.stockId = stockId;
         this.quantity = quantity;
-        this.price = price;
+        this.priceMicros = priceMicros;
         this.type = type;
+        this.round = round;
     }
 
     public String getStockId() {
@@ -31,10 +34,20 @@ public class Transaction {
     }
 
     public double getPrice() {
-        return price;
+        return Money.toDecimal(priceMicros);
+    }
+
+    @JsonIgnore
+    public long getPriceMicros() {
+        return priceMicros;
     }
 
     public String getType() {
         return type;
     }
+
+    /** Round the trade was executed in; 0 for trades restored from a snapshot that predates rounds. */
+    public int getRound() {
+        return round;
+    }
 }
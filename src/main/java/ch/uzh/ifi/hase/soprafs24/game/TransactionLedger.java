@@ -0,0 +1,121 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A player's executed trades as parallel primitive columns: symbol ordinal,
+ * quantity, price in micro-units, side and round. Appended only on the
+ * game's event loop; readers on request threads page through it without
+ * locking or copying, because the size is published after the columns and
+ * a grown column still holds every earlier entry.
+ */
+public final class TransactionLedger {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final byte BUY = 1;
+    private static final byte SELL = 2;
+
+    /** Builds one result per ledger entry, so a page is mapped straight into its DTOs. */
+    @FunctionalInterface
+    public interface EntryMapper<T> {
+        T map(String stockId, int quantity, long priceMicros, String type, int round);
+    }
+
+    private final Map<String, Integer> symbolOrdinals = new HashMap<>();
+    private volatile String[] symbols = new String[0];
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+    private volatile int size;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Up to {@code limit} entries starting at index {@code from}, oldest
+     * first. Entries appended while the page is read are left for the next
+     * page.
+     */
+    public <T> List<T> page(int from, int limit, EntryMapper<T> mapper) {
+        int end = size;
+        Columns current = columns;
+        String[] names = symbols;
+        if (from < 0 || from >= end || limit <= 0) {
+            return List.of();
+        }
+        end = (int) Math.min(end, (long) from + limit);
+        List<T> page = new ArrayList<>(end - from);
+        for (int i = from; i < end; i++) {
+            page.add(mapper.map(names[current.symbol[i]], current.quantity[i], current.priceMicros[i],
+                    current.side[i] == BUY ? "BUY" : "SELL", current.round[i]));
+        }
+        return page;
+    }
+
+    void append(String stockId, int quantity, long priceMicros, String type, int round) {
+        int index = size;
+        Columns current = columns;
+        if (index == current.capacity()) {
+            current = current.grow(index * 2);
+        }
+        current.symbol[index] = ordinalOf(stockId);
+        current.quantity[index] = quantity;
+        current.priceMicros[index] = priceMicros;
+        current.side[index] = "BUY".equalsIgnoreCase(type) ? BUY : SELL;
+        current.round[index] = round;
+        columns = current;
+        size = index + 1;
+    }
+
+    void clear() {
+        symbolOrdinals.clear();
+        symbols = new String[0];
+        columns = new Columns(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    private int ordinalOf(String stockId) {
+        Integer ordinal = symbolOrdinals.get(stockId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        String[] grown = Arrays.copyOf(symbols, symbols.length + 1);
+        grown[symbols.length] = stockId;
+        symbols = grown;
+        symbolOrdinals.put(stockId, symbols.length - 1);
+        return symbols.length - 1;
+    }
+
+    private static final class Columns {
+        private final int[] symbol;
+        private final int[] quantity;
+        private final long[] priceMicros;
+        private final byte[] side;
+        private final int[] round;
+
+        private Columns(int capacity) {
+            this(new int[capacity], new int[capacity], new long[capacity], new byte[capacity], new int[capacity]);
+        }
+
+        private Columns(int[] symbol, int[] quantity, long[] priceMicros, byte[] side, int[] round) {
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.priceMicros = priceMicros;
+            this.side = side;
+            this.round = round;
+        }
+
+        private int capacity() {
+            return symbol.length;
+        }
+
+        private Columns grow(int capacity) {
+            return new Columns(Arrays.copyOf(symbol, capacity), Arrays.copyOf(quantity, capacity),
+                    Arrays.copyOf(priceMicros, capacity), Arrays.copyOf(side, capacity),
+                    Arrays.copyOf(round, capacity));
+        }
+    }
+}
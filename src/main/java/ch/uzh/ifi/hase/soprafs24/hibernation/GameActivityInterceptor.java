@@ -0,0 +1,39 @@
+package ch.uzh.ifi.hase.soprafs24.hibernation;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ch.uzh.ifi.hase.soprafs24.cluster.GameOwnershipInterceptor;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+
+/**
+ * Turns API calls into player heartbeats and wakes hibernated games. Any
+ * request naming a game that is not in memory first tries to rehydrate it;
+ * one that also names a player marks that player as seen.
+ */
+public class GameActivityInterceptor implements HandlerInterceptor {
+
+    private final GameHibernator gameHibernator;
+
+    public GameActivityInterceptor(GameHibernator gameHibernator) {
+        this.gameHibernator = gameHibernator;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long gameId = GameOwnershipInterceptor.resolveId(request, "gameId");
+        if (gameId == null) {
+            return true;
+        }
+        GameManager game = InMemoryGameRegistry.getGame(gameId);
+        if (game == null) {
+            game = gameHibernator.rehydrate(gameId);
+        }
+        Long userId = GameOwnershipInterceptor.resolveId(request, "userId");
+        if (game != null && userId != null) {
+            game.recordActivity(userId);
+        }
+        return true;
+    }
+}
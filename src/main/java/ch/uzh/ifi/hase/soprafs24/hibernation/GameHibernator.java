@@ -0,0 +1,138 @@
+package ch.uzh.ifi.hase.soprafs24.hibernation;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ch.uzh.ifi.hase.soprafs24.entity.HibernatedGame;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.repository.HibernatedGameRepository;
+import ch.uzh.ifi.hase.soprafs24.service.GameService;
+
+/**
+ * Moves games nobody has touched for {@code game.hibernation.idle-millis}
+ * out of memory into {@code HIBERNATED_GAME}, and brings them back on the
+ * next request for them. A resumed game catches up on the rounds that fell
+ * due in the meantime, so its round clock is unchanged.
+ * <p>
+ * Requests for games that are neither in memory nor hibernated (ended games,
+ * mostly) are remembered for {@code game.hibernation.miss-cache-millis}, so
+ * they do not each cost a database lookup. Concurrent requests for the same
+ * game share one rehydration; different games rehydrate in parallel.
+ */
+@Component
+public class GameHibernator {
+
+    private static final Logger log = LoggerFactory.getLogger(GameHibernator.class);
+    private final HibernatedGameRepository hibernatedGameRepository;
+    private final GameService gameService;
+    private final long idleMillis;
+    private final long missCacheMillis;
+    private final Map<Long, Long> notHibernatedUntil = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<GameManager>> rehydrations = new ConcurrentHashMap<>();
+
+    public GameHibernator(HibernatedGameRepository hibernatedGameRepository, GameService gameService,
+            @Value("${game.hibernation.idle-millis:300000}") long idleMillis,
+            @Value("${game.hibernation.miss-cache-millis:5000}") long missCacheMillis) {
+        this.hibernatedGameRepository = hibernatedGameRepository;
+        this.gameService = gameService;
+        this.idleMillis = idleMillis;
+        this.missCacheMillis = missCacheMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${game.hibernation.scan-millis:60000}")
+    public void hibernateIdleGames() {
+        long now = System.currentTimeMillis();
+        notHibernatedUntil.values().removeIf(until -> until <= now);
+        for (Long gameId : InMemoryGameRegistry.gameIds()) {
+            GameManager game = InMemoryGameRegistry.getGame(gameId);
+            if (game == null || !game.isActive() || now - game.getLastActivityMillis() < idleMillis) {
+                continue;
+            }
+            boolean[] stored = new boolean[1];
+            try {
+                if (game.hibernate(snapshot -> stored[0] = store(gameId, snapshot))) {
+                    log.info("Game {} idle for {}s; hibernated.", gameId, (now - game.getLastActivityMillis()) / 1000);
+                } else if (stored[0]) {
+                    log.info("Game {} changed while it was being hibernated; keeping it in memory.", gameId);
+                    hibernatedGameRepository.deleteById(gameId);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Game {}: hibernation failed, keeping it in memory: {}", gameId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The game from its snapshot, registered and running again, or null when
+     * it was not hibernated or another node now holds its lease.
+     */
+    public GameManager rehydrate(Long gameId) {
+        GameManager running = InMemoryGameRegistry.getGame(gameId);
+        if (running != null) {
+            return running;
+        }
+        Long missUntil = notHibernatedUntil.get(gameId);
+        if (missUntil != null && missUntil > System.currentTimeMillis()) {
+            return null;
+        }
+        CompletableFuture<GameManager> mine = new CompletableFuture<>();
+        CompletableFuture<GameManager> pending = rehydrations.putIfAbsent(gameId, mine);
+        if (pending != null) {
+            return pending.join();
+        }
+        try {
+            GameManager game = load(gameId);
+            mine.complete(game);
+            return game;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rehydrations.remove(gameId, mine);
+        }
+    }
+
+    private GameManager load(Long gameId) {
+        GameManager running = InMemoryGameRegistry.getGame(gameId);
+        if (running != null) {
+            return running;
+        }
+        HibernatedGame hibernated = hibernatedGameRepository.findById(gameId).orElse(null);
+        if (hibernated == null) {
+            notHibernatedUntil.put(gameId, System.currentTimeMillis() + missCacheMillis);
+            return null;
+        }
+        GameManager game = GameManager.fromSnapshot(hibernated.getSnapshot());
+        GameManager resumed = gameService.resumeGame(game);
+        if (resumed == null) {
+            log.info("Game {} is hibernated but leased by another node; leaving it there.", gameId);
+            return null;
+        }
+        if (resumed != game) {
+            // Already running here, e.g. still between storing its snapshot and
+            // leaving the registry; that hibernation owns the row.
+            return resumed;
+        }
+        hibernatedGameRepository.deleteById(gameId);
+        log.info("Game {} rehydrated from a {}-byte snapshot taken at {}.", gameId, hibernated.getSnapshot().length,
+                hibernated.getHibernatedAt());
+        return game;
+    }
+
+    private boolean store(Long gameId, byte[] snapshot) {
+        HibernatedGame hibernated = new HibernatedGame();
+        hibernated.setGameId(gameId);
+        hibernated.setHibernatedAt(LocalDateTime.now());
+        hibernated.setSnapshot(snapshot);
+        hibernatedGameRepository.saveAndFlush(hibernated);
+        notHibernatedUntil.remove(gameId);
+        return true;
+    }
+}
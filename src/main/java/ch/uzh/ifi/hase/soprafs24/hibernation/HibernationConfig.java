@@ -0,0 +1,25 @@
+package ch.uzh.ifi.hase.soprafs24.hibernation;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/** Installs {@link GameActivityInterceptor} when the hibernator is present, which it is not in MVC slice tests. */
+@Configuration
+public class HibernationConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<GameHibernator> gameHibernator;
+
+    public HibernationConfig(ObjectProvider<GameHibernator> gameHibernator) {
+        this.gameHibernator = gameHibernator;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        GameHibernator hibernator = gameHibernator.getIfAvailable();
+        if (hibernator != null) {
+            registry.addInterceptor(new GameActivityInterceptor(hibernator));
+        }
+    }
+}
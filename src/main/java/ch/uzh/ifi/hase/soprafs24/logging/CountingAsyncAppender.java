@@ -0,0 +1,27 @@
+package ch.uzh.ifi.hase.soprafs24.logging;
+
+import java.util.concurrent.atomic.LongAdder;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Non-blocking async appender that counts the events it drops, either because
+ * the queue is full or because it is past the discarding threshold and the
+ * event is INFO or below. Configured in logback-spring.xml.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+    private static final LongAdder DROPPED_EVENTS = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining == 0 || (remaining < getDiscardingThreshold() && isDiscardable(event))) {
+            DROPPED_EVENTS.increment();
+        }
+        super.append(event);
+    }
+
+    public static long getDroppedEvents() {
+        return DROPPED_EVENTS.sum();
+    }
+}
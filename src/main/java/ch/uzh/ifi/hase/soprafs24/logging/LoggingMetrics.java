@@ -0,0 +1,17 @@
+package ch.uzh.ifi.hase.soprafs24.logging;
+
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("logging.events.dropped", this, metrics -> CountingAsyncAppender.getDroppedEvents())
+                .description("Log events dropped by the async appender")
+                .register(registry);
+    }
+}
@@ -0,0 +1,30 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ch.uzh.ifi.hase.soprafs24.entity.GameLease;
+
+@Repository
+public interface GameLeaseRepository extends JpaRepository<GameLease, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE GameLease l SET l.ownerNodeId = :nodeId, l.ownerUrl = :ownerUrl, l.expiresAt = :expiresAt "
+            + "WHERE l.gameId = :gameId AND (l.ownerNodeId = :nodeId OR l.expiresAt <= :now)")
+    int tryClaim(@Param("gameId") Long gameId, @Param("nodeId") String nodeId, @Param("ownerUrl") String ownerUrl,
+            @Param("expiresAt") long expiresAt, @Param("now") long now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE GameLease l SET l.expiresAt = :expiresAt WHERE l.gameId = :gameId AND l.ownerNodeId = :nodeId")
+    int renew(@Param("gameId") Long gameId, @Param("nodeId") String nodeId, @Param("expiresAt") long expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM GameLease l WHERE l.gameId = :gameId AND l.ownerNodeId = :nodeId")
+    int release(@Param("gameId") Long gameId, @Param("nodeId") String nodeId);
+}
@@ -0,0 +1,9 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ch.uzh.ifi.hase.soprafs24.entity.HibernatedGame;
+
+@Repository
+public interface HibernatedGameRepository extends JpaRepository<HibernatedGame, Long> {
+}
@@ -2,11 +2,53 @@ package ch.uzh.ifi.hase.soprafs24.repository;
 
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository("lobbyRepository")
 public interface LobbyRepository extends JpaRepository<Lobby, Long> {
     List<Lobby> findByActiveTrue();
+
+    /**
+     * Loads the current row and holds its lock until the transaction ends, so
+     * changes from different nodes apply one after the other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Lobby l WHERE l.id = :id")
+    Optional<Lobby> findByIdForUpdate(@Param("id") Long id);
+
+    /** The row's current version, to tell whether a cached snapshot is still current. */
+    @Query("SELECT l.version FROM Lobby l WHERE l.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT l.id AS id, l.version AS version FROM Lobby l WHERE l.id IN :ids")
+    List<RowVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT l.id AS id, l.expiresAt AS expiresAt FROM Lobby l WHERE l.active = true AND l.expiresAt IS NOT NULL")
+    List<ExpiryDeadline> findActiveExpiryDeadlines();
+
+    @Modifying
+    @Query("UPDATE VERSIONED Lobby l SET l.active = false WHERE l.active = true AND l.expiresAt <= :now")
+    int deactivateExpiredLobbies(@Param("now") Instant now);
+
+    interface RowVersion {
+        Long getId();
+
+        long getVersion();
+    }
+
+    interface ExpiryDeadline {
+        Long getId();
+
+        Instant getExpiresAt();
+    }
 }
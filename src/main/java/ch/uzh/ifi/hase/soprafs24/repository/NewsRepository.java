@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ch.uzh.ifi.hase.soprafs24.entity.News;
 
@@ -12,4 +14,9 @@ public interface NewsRepository extends JpaRepository<News, Long> {
     Optional<News> findByUrl(String url);
 
     List<News> findByPublishedTimeBetweenOrderByPublishedTimeDesc(LocalDateTime startTime, LocalDateTime endTime);
+
+    /** Id of the newest article stored for the time range, 0 if there is none; articles are never updated. */
+    @Query("SELECT COALESCE(MAX(n.id), 0) FROM News n WHERE n.publishedTime BETWEEN :startTime AND :endTime")
+    long findMaxIdByPublishedTimeBetween(@Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime);
 }
\ No newline at end of file
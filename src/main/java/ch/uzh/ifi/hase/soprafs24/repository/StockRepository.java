@@ -18,27 +18,30 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
 
     List<Stock> findBySymbolAndDateBetween(String symbol, LocalDate start, LocalDate end);
 
-    @Query(value = """
-                SELECT date
-                FROM (
-                    SELECT DISTINCT date
-                    FROM stock_adjusted
-                    WHERE
-                        date >= '2023-01-01' AND  -- Only consider dates from 2023-01-01 onwards
-                        date <= (SELECT MAX(date) - INTERVAL '9 days' FROM stock_adjusted)
-                ) AS valid_dates
-                ORDER BY RANDOM()
-                LIMIT 1
-            """, nativeQuery = true)
-    LocalDate findRandomStartDateWith10Days();
+    /**
+     * Symbol, date and price of one adjusted close; read as an index-only
+     * scan of {@code ux_stock_adjusted_symbol_date}.
+     */
+    interface PriceRow {
+        String getSymbol();
+
+        LocalDate getDate();
+
+        Double getPrice();
+    }
+
+    /*
+     * Trading days come from trading_calendar, which ingestion keeps in step
+     * with this table; the symbol walk is a loose index scan over
+     * ux_stock_adjusted_symbol_date, one probe per distinct symbol.
+     */
 
     @Query(value = """
                 SELECT * FROM stock_adjusted
                 WHERE date IN (
-                    SELECT DISTINCT date
-                    FROM stock_adjusted
+                    SELECT date FROM trading_calendar
                     WHERE date >= :startDate
-                    ORDER BY date ASC
+                    ORDER BY date
                     LIMIT 10
                 )
                 ORDER BY date ASC
@@ -46,23 +49,32 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
     List<Stock> findStocksForTenDays(@Param("startDate") LocalDate startDate);
 
     @Query(value = """
-                SELECT * FROM stock_adjusted
-                WHERE symbol IN (
-                    SELECT symbol FROM stock_adjusted
-                    GROUP BY symbol
-                    ORDER BY RANDOM()
-                    LIMIT 10
-                )
-                AND date IN (
-                    SELECT DISTINCT date
-                    FROM stock_adjusted
+                WITH RECURSIVE symbols(symbol) AS (
+                    SELECT MIN(symbol) FROM stock_adjusted
+                    UNION ALL
+                    SELECT (SELECT MIN(s.symbol) FROM stock_adjusted s WHERE s.symbol > t.symbol)
+                    FROM symbols t
+                    WHERE t.symbol IS NOT NULL
+                ),
+                trading_days AS (
+                    SELECT date FROM trading_calendar
                     WHERE date >= :startDate
-                    ORDER BY date ASC
+                    ORDER BY date
+                    LIMIT 10
+                ),
+                picked AS (
+                    SELECT symbol FROM symbols
+                    WHERE symbol IS NOT NULL
+                    ORDER BY RANDOM()
                     LIMIT 10
                 )
-                ORDER BY symbol, date ASC
+                SELECT s.symbol AS symbol, s.date AS date, s.price AS price
+                FROM picked p
+                JOIN stock_adjusted s ON s.symbol = p.symbol
+                WHERE s.date IN (SELECT date FROM trading_days)
+                ORDER BY s.symbol, s.date ASC
             """, nativeQuery = true)
-    List<Stock> findRandom10SymbolsWithFirst10DatesFrom(@Param("startDate") LocalDate startDate);
+    List<PriceRow> findRandom10SymbolsWithFirst10DatesFrom(@Param("startDate") LocalDate startDate);
 
     @Query(value = "SELECT * FROM stock_adjusted WHERE symbol = :symbol ORDER BY date LIMIT :limit OFFSET :offset", nativeQuery = true)
     List<Stock> findBySymbolWithLimitOffset(@Param("symbol") String symbol, @Param("offset") int offset,
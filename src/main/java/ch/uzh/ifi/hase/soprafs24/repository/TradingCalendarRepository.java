@@ -0,0 +1,47 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ch.uzh.ifi.hase.soprafs24.entity.TradingDay;
+
+@Repository
+public interface TradingCalendarRepository extends JpaRepository<TradingDay, LocalDate> {
+
+    /**
+     * A random date from 2023-01-01 on that starts ten consecutive trading
+     * days, each with at least {@code minSymbols} symbols.
+     */
+    @Query(value = """
+                SELECT date FROM (
+                    SELECT date, LEAD(date, 9) OVER (ORDER BY date) AS tenth_day
+                    FROM trading_calendar
+                    WHERE symbol_count >= :minSymbols
+                ) windows
+                WHERE date >= DATE '2023-01-01' AND tenth_day IS NOT NULL
+                ORDER BY RANDOM()
+                LIMIT 1
+            """, nativeQuery = true)
+    LocalDate findRandomStartDateWith10Days(@Param("minSymbols") int minSymbols);
+
+    /**
+     * Recounts the symbols on each of {@code dates} from STOCK_ADJUSTED and
+     * inserts or updates their calendar rows. Recounting rather than adding
+     * keeps the calendar right when two ingestion runs overlap.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+                INSERT INTO trading_calendar (date, symbol_count)
+                SELECT s.date, COUNT(*) FROM stock_adjusted s
+                WHERE s.date IN (:dates)
+                GROUP BY s.date
+                ON CONFLICT (date) DO UPDATE SET symbol_count = EXCLUDED.symbol_count
+            """, nativeQuery = true)
+    int refreshDates(@Param("dates") Collection<LocalDate> dates);
+}
@@ -0,0 +1,90 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Everything a player's game screen polls for, in one response. Sections that
+ * did not change since the client's version are left out.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameDashboardDTO {
+
+    private String version;
+    private GameStatusDTO round;
+    private RoundStatusDTO status;
+    private List<LeaderBoardEntryGetDTO> leaderBoard;
+    private List<StockPriceGetDTO> stocks;
+    private List<StockHoldingDTO> holdings;
+    private List<NewsDTO> news;
+    private PlayerStateGetDTO playerState;
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public GameStatusDTO getRound() {
+        return round;
+    }
+
+    public void setRound(GameStatusDTO round) {
+        this.round = round;
+    }
+
+    public RoundStatusDTO getStatus() {
+        return status;
+    }
+
+    public void setStatus(RoundStatusDTO status) {
+        this.status = status;
+    }
+
+    public List<LeaderBoardEntryGetDTO> getLeaderBoard() {
+        return leaderBoard;
+    }
+
+    public void setLeaderBoard(List<LeaderBoardEntryGetDTO> leaderBoard) {
+        this.leaderBoard = leaderBoard;
+    }
+
+    public List<StockPriceGetDTO> getStocks() {
+        return stocks;
+    }
+
+    public void setStocks(List<StockPriceGetDTO> stocks) {
+        this.stocks = stocks;
+    }
+
+    public List<StockHoldingDTO> getHoldings() {
+        return holdings;
+    }
+
+    public void setHoldings(List<StockHoldingDTO> holdings) {
+        this.holdings = holdings;
+    }
+
+    public List<NewsDTO> getNews() {
+        return news;
+    }
+
+    public void setNews(List<NewsDTO> news) {
+        this.news = news;
+    }
+
+    public PlayerStateGetDTO getPlayerState() {
+        return playerState;
+    }
+
+    public void setPlayerState(PlayerStateGetDTO playerState) {
+        this.playerState = playerState;
+    }
+
+    public boolean hasSections() {
+        return round != null || status != null || leaderBoard != null || stocks != null || holdings != null
+                || news != null || playerState != null;
+    }
+}
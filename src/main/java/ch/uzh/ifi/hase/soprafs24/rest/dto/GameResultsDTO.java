@@ -0,0 +1,119 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * What is kept of a game once it ends: the final leaderboard and, per player,
+ * the closing cash, holdings and total plus the portfolio value after each
+ * round. Served by the post-game screens and archived to {@code GAME_RESULT}.
+ */
+public class GameResultsDTO {
+
+    private Long gameId;
+    private int finalRound;
+    private LocalDateTime endedAt;
+    private List<LeaderBoardEntryGetDTO> leaderBoard;
+    private List<PlayerResult> players;
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public int getFinalRound() {
+        return finalRound;
+    }
+
+    public void setFinalRound(int finalRound) {
+        this.finalRound = finalRound;
+    }
+
+    public LocalDateTime getEndedAt() {
+        return endedAt;
+    }
+
+    public void setEndedAt(LocalDateTime endedAt) {
+        this.endedAt = endedAt;
+    }
+
+    public List<LeaderBoardEntryGetDTO> getLeaderBoard() {
+        return leaderBoard;
+    }
+
+    public void setLeaderBoard(List<LeaderBoardEntryGetDTO> leaderBoard) {
+        this.leaderBoard = leaderBoard;
+    }
+
+    public List<PlayerResult> getPlayers() {
+        return players;
+    }
+
+    public void setPlayers(List<PlayerResult> players) {
+        this.players = players;
+    }
+
+    public PlayerResult getPlayer(Long userId) {
+        if (players == null) {
+            return null;
+        }
+        for (PlayerResult player : players) {
+            if (player.getUserId().equals(userId)) {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    public static class PlayerResult {
+        private Long userId;
+        private double cashBalance;
+        private double totalAssets;
+        private List<StockHoldingDTO> holdings;
+        private List<Double> roundValuations;
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public double getCashBalance() {
+            return cashBalance;
+        }
+
+        public void setCashBalance(double cashBalance) {
+            this.cashBalance = cashBalance;
+        }
+
+        public double getTotalAssets() {
+            return totalAssets;
+        }
+
+        public void setTotalAssets(double totalAssets) {
+            this.totalAssets = totalAssets;
+        }
+
+        public List<StockHoldingDTO> getHoldings() {
+            return holdings;
+        }
+
+        public void setHoldings(List<StockHoldingDTO> holdings) {
+            this.holdings = holdings;
+        }
+
+        /** Portfolio value at the close of round {@code i + 1}; null for a round that was never snapshotted. */
+        public List<Double> getRoundValuations() {
+            return roundValuations;
+        }
+
+        public void setRoundValuations(List<Double> roundValuations) {
+            this.roundValuations = roundValuations;
+        }
+    }
+}
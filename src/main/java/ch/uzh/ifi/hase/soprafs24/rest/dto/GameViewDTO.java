@@ -0,0 +1,157 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ch.uzh.ifi.hase.soprafs24.game.LeaderBoardEntry;
+import ch.uzh.ifi.hase.soprafs24.game.Transaction;
+
+/**
+ * Snapshot of a running game for {@code GET /game/{gameId}}. Only the fields a
+ * client asked for are filled in; the rest stay null and are left out of the
+ * response.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameViewDTO {
+
+    public static final String GAME_ID = "gameId";
+    public static final String CURRENT_ROUND = "currentRound";
+    public static final String ACTIVE = "active";
+    public static final String STARTED_AT = "startedAt";
+    public static final String NEXT_ROUND_START_TIME_MILLIS = "nextRoundStartTimeMillis";
+    public static final String CURRENT_MARKET_DATE = "currentMarketDate";
+    public static final String CURRENT_STOCK_PRICES = "currentStockPrices";
+    public static final String LEADER_BOARD = "leaderBoard";
+    public static final String PLAYER_STATES = "playerStates";
+    public static final String STOCK_TIMELINE = "stockTimeline";
+
+    public static final Set<String> ALL_FIELDS = Set.of(GAME_ID, CURRENT_ROUND, ACTIVE, STARTED_AT,
+            NEXT_ROUND_START_TIME_MILLIS, CURRENT_MARKET_DATE, CURRENT_STOCK_PRICES, LEADER_BOARD, PLAYER_STATES,
+            STOCK_TIMELINE);
+
+    private Long gameId;
+    private Integer currentRound;
+    private Boolean active;
+    private LocalDateTime startedAt;
+    private Long nextRoundStartTimeMillis;
+    private LocalDate currentMarketDate;
+    private Map<String, Double> currentStockPrices;
+    private List<LeaderBoardEntry> leaderBoard;
+    private Map<Long, PlayerView> playerStates;
+    private LinkedHashMap<LocalDate, Map<String, Double>> stockTimeline;
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public Integer getCurrentRound() {
+        return currentRound;
+    }
+
+    public void setCurrentRound(Integer currentRound) {
+        this.currentRound = currentRound;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Long getNextRoundStartTimeMillis() {
+        return nextRoundStartTimeMillis;
+    }
+
+    public void setNextRoundStartTimeMillis(Long nextRoundStartTimeMillis) {
+        this.nextRoundStartTimeMillis = nextRoundStartTimeMillis;
+    }
+
+    public LocalDate getCurrentMarketDate() {
+        return currentMarketDate;
+    }
+
+    public void setCurrentMarketDate(LocalDate currentMarketDate) {
+        this.currentMarketDate = currentMarketDate;
+    }
+
+    public Map<String, Double> getCurrentStockPrices() {
+        return currentStockPrices;
+    }
+
+    public void setCurrentStockPrices(Map<String, Double> currentStockPrices) {
+        this.currentStockPrices = currentStockPrices;
+    }
+
+    public List<LeaderBoardEntry> getLeaderBoard() {
+        return leaderBoard;
+    }
+
+    public void setLeaderBoard(List<LeaderBoardEntry> leaderBoard) {
+        this.leaderBoard = leaderBoard;
+    }
+
+    public Map<Long, PlayerView> getPlayerStates() {
+        return playerStates;
+    }
+
+    public void setPlayerStates(Map<Long, PlayerView> playerStates) {
+        this.playerStates = playerStates;
+    }
+
+    public LinkedHashMap<LocalDate, Map<String, Double>> getStockTimeline() {
+        return stockTimeline;
+    }
+
+    public void setStockTimeline(LinkedHashMap<LocalDate, Map<String, Double>> stockTimeline) {
+        this.stockTimeline = stockTimeline;
+    }
+
+    public static class PlayerView {
+        private final Long userId;
+        private final double cashBalance;
+        private final Map<String, Integer> playerStocks;
+        private final List<Transaction> transactionHistory;
+
+        public PlayerView(Long userId, double cashBalance, Map<String, Integer> playerStocks,
+                List<Transaction> transactionHistory) {
+            this.userId = userId;
+            this.cashBalance = cashBalance;
+            this.playerStocks = playerStocks;
+            this.transactionHistory = transactionHistory;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public double getCashBalance() {
+            return cashBalance;
+        }
+
+        public Map<String, Integer> getPlayerStocks() {
+            return playerStocks;
+        }
+
+        public List<Transaction> getTransactionHistory() {
+            return transactionHistory;
+        }
+    }
+}
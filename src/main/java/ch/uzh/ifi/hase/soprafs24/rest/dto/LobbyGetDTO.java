@@ -8,6 +8,7 @@ public class LobbyGetDTO {
   private long createdAt;
   private boolean active;
   private Long timeLimitSeconds;
+  private long version;
 
   public Long getId() {
     return id;
@@ -48,4 +49,12 @@ public class LobbyGetDTO {
   public void setTimeLimitSeconds(Long timeLimitSeconds) {
     this.timeLimitSeconds = timeLimitSeconds;
   }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
 }
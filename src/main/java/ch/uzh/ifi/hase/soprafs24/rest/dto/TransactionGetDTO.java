@@ -0,0 +1,60 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+public class TransactionGetDTO {
+    private String stockId;
+    private int quantity;
+    private double price;
+    private String type;
+    private int round;
+
+    public TransactionGetDTO() {
+    }
+
+    public TransactionGetDTO(String stockId, int quantity, double price, String type, int round) {
+        this.stockId = stockId;
+        this.quantity = quantity;
+        this.price = price;
+        this.type = type;
+        this.round = round;
+    }
+
+    public String getStockId() {
+        return stockId;
+    }
+
+    public void setStockId(String stockId) {
+        this.stockId = stockId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public void setRound(int round) {
+        this.round = round;
+    }
+}
@@ -0,0 +1,29 @@
+package ch.uzh.ifi.hase.soprafs24.rest.dto;
+
+import java.util.List;
+
+/**
+ * One page of a player's trades, oldest first. {@code nextCursor} is the
+ * cursor for the following page, or null once the page reached the end of
+ * the ledger.
+ */
+public class TransactionPageDTO {
+    private List<TransactionGetDTO> transactions;
+    private Integer nextCursor;
+
+    public List<TransactionGetDTO> getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(List<TransactionGetDTO> transactions) {
+        this.transactions = transactions;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -25,6 +25,8 @@ public interface DTOMapper {
   @Mapping(target = "createdAt", ignore = true)
   @Mapping(target = "active", ignore = true)
   @Mapping(target = "timeLimitSeconds", ignore = true)
+  @Mapping(target = "expiresAt", ignore = true)
+  @Mapping(target = "version", ignore = true)
   Lobby convertLobbyPostDTOtoEntity(LobbyPostDTO lobbyPostDTO);
 
   @Mapping(source = "id", target = "id")
@@ -32,5 +34,6 @@ public interface DTOMapper {
   @Mapping(target = "createdAt", expression = "java(lobby.getCreatedAt().toEpochMilli())")
   @Mapping(source = "active", target = "active")
   @Mapping(source = "timeLimitSeconds", target = "timeLimitSeconds")
+  @Mapping(source = "version", target = "version")
   LobbyGetDTO convertEntityToLobbyGetDTO(Lobby lobby);
 }
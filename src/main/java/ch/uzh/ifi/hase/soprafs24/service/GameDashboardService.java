@@ -0,0 +1,138 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.LeaderBoardEntry;
+import ch.uzh.ifi.hase.soprafs24.game.PlayerState;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameDashboardDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameStatusDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderBoardEntryGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.PlayerStateGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.RoundStatusDTO;
+
+/**
+ * Builds the combined game dashboard from the per-section versions kept by
+ * {@link GameManager} and the news version kept by {@link NewsService}. The
+ * versions are read before any section, so a change racing with the build is
+ * at worst sent again on the next poll.
+ */
+@Service
+public class GameDashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameDashboardService.class);
+    private static final char VERSION_SEPARATOR = '.';
+    private final GameService gameService;
+    private final StockService stockService;
+    private final NewsService newsService;
+
+    @Autowired
+    public GameDashboardService(GameService gameService, StockService stockService, NewsService newsService) {
+        this.gameService = gameService;
+        this.stockService = stockService;
+        this.newsService = newsService;
+    }
+
+    /**
+     * Sections changed after the {@code since} version, or null when the client
+     * is already up to date. The version names the game instance it came from;
+     * one from an earlier instance (before hibernation or a node hand-off), or
+     * none at all, gets every section.
+     */
+    public GameDashboardDTO getDashboard(Long gameId, Long userId, String since) {
+        GameManager game = gameService.getGame(gameId);
+        PlayerState player = game.getPlayerState(userId);
+        if (player == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Player not found in game.");
+        }
+        long version = game.getVersion();
+        long newsVersion = newsService.getNewsVersion(gameId);
+        long[] seen = parseVersion(since, game.getInstanceTag());
+        if (seen == null) {
+            if (since != null) {
+                log.debug("Game {}: player {} polled with version {} from another instance; sending everything.",
+                        gameId, userId, since);
+            }
+            seen = new long[] { 0L, -1L };
+        }
+        long gameSince = seen[0];
+        boolean newsChanged = newsVersion != seen[1];
+        if (version <= gameSince && !newsChanged) {
+            return null;
+        }
+
+        GameDashboardDTO dashboard = new GameDashboardDTO();
+        dashboard.setVersion(game.getInstanceTag() + VERSION_SEPARATOR + version + VERSION_SEPARATOR + newsVersion);
+        long roundVersion = game.getRoundVersion();
+        if (roundVersion > gameSince) {
+            dashboard.setRound(new GameStatusDTO(game.getCurrentRound(), game.isActive(),
+                    game.getNextRoundStartTimeMillis() - System.currentTimeMillis()));
+        }
+        if (game.getSubmissionsVersion() > gameSince || roundVersion > gameSince) {
+            boolean allSubmitted = game.haveAllPlayersSubmittedForCurrentRound();
+            dashboard.setStatus(new RoundStatusDTO(allSubmitted, allSubmitted, game.getNextRoundStartTimeMillis()));
+        }
+        if (game.getLeaderBoardVersion() > gameSince) {
+            dashboard.setLeaderBoard(toLeaderBoardDTOs(game.getLeaderBoard()));
+        }
+        if (roundVersion > gameSince || game.getTimelineVersion() > gameSince) {
+            dashboard.setStocks(stockService.getCurrentRoundStockPrices(gameId));
+        }
+        if (roundVersion > gameSince || player.getVersion() > gameSince) {
+            dashboard.setHoldings(stockService.getPlayerHoldings(userId, gameId));
+        }
+        if (game.getTimelineVersion() > gameSince || newsChanged) {
+            dashboard.setNews(newsService.getNewsForGame(gameId));
+        }
+        if (player.getVersion() > gameSince) {
+            PlayerStateGetDTO playerState = new PlayerStateGetDTO();
+            playerState.setUserId(player.getUserId());
+            playerState.setCashBalance(player.getCashBalance());
+            dashboard.setPlayerState(playerState);
+        }
+        if (!dashboard.hasSections()) {
+            log.trace("Game {}: no dashboard sections for player {} changed since version {}.", gameId, userId, since);
+            return null;
+        }
+        return dashboard;
+    }
+
+    /**
+     * The game and news versions in a dashboard version handed out by the
+     * given game instance, or null if it is missing, malformed or from
+     * another instance.
+     */
+    private static long[] parseVersion(String version, String instanceTag) {
+        String prefix = instanceTag + VERSION_SEPARATOR;
+        if (version == null || !version.startsWith(prefix)) {
+            return null;
+        }
+        int separator = version.indexOf(VERSION_SEPARATOR, prefix.length());
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            return new long[] { Long.parseLong(version.substring(prefix.length(), separator)),
+                    Long.parseLong(version.substring(separator + 1)) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<LeaderBoardEntryGetDTO> toLeaderBoardDTOs(List<LeaderBoardEntry> board) {
+        List<LeaderBoardEntryGetDTO> dtos = new ArrayList<>();
+        for (LeaderBoardEntry entry : board) {
+            LeaderBoardEntryGetDTO dto = new LeaderBoardEntryGetDTO();
+            dto.setUserId(entry.getUserId());
+            dto.setTotalAssets(entry.getTotalAssets());
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+}
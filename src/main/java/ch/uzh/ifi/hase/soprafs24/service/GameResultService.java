@@ -0,0 +1,202 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import ch.uzh.ifi.hase.soprafs24.entity.GameResult;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.GameRoundListener;
+import ch.uzh.ifi.hase.soprafs24.game.LeaderBoardEntry;
+import ch.uzh.ifi.hase.soprafs24.game.Money;
+import ch.uzh.ifi.hase.soprafs24.game.PlayerState;
+import ch.uzh.ifi.hase.soprafs24.game.PortfolioHistory;
+import ch.uzh.ifi.hase.soprafs24.game.RoundPrices;
+import ch.uzh.ifi.hase.soprafs24.repository.GameResultRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameResultsDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderBoardEntryGetDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.StockHoldingDTO;
+
+/**
+ * Keeps the results of finished games after their engine state is dropped.
+ * A game is compacted to a {@link GameResultsDTO} when it ends, held in a
+ * size-bounded LRU for the post-game screens and written to
+ * {@code GAME_RESULT} in batches. Older results are read back from there.
+ */
+@Service
+public class GameResultService implements GameRoundListener {
+
+    private static final Logger log = LoggerFactory.getLogger(GameResultService.class);
+    private final ObjectMapper summaryMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final Queue<GameResultsDTO> pendingArchive = new ConcurrentLinkedQueue<>();
+    private final Map<Long, GameResultsDTO> recentResults;
+    private final GameResultRepository gameResultRepository;
+    private final StockService stockService;
+    private final int archiveBatchSize;
+
+    public GameResultService(GameResultRepository gameResultRepository, StockService stockService,
+            @Value("${game.results.cache-size:256}") int cacheSize,
+            @Value("${game.results.archive-batch-size:50}") int archiveBatchSize) {
+        this.gameResultRepository = gameResultRepository;
+        this.stockService = stockService;
+        this.archiveBatchSize = archiveBatchSize;
+        this.recentResults = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, GameResultsDTO> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public void onRoundStarted(GameManager game, int round) {
+        // Results are only taken when the game ends.
+    }
+
+    @Override
+    public void onGameEnded(GameManager game) {
+        GameResultsDTO results = summarize(game);
+        recentResults.put(game.getGameId(), results);
+        pendingArchive.add(results);
+        log.info("Game {}: results kept for {} players; archive queue at {}.", game.getGameId(),
+                results.getPlayers().size(), pendingArchive.size());
+    }
+
+    /** Results of a finished game, or null when no game with that id has ended. */
+    public GameResultsDTO getResults(Long gameId) {
+        GameResultsDTO results = recentResults.get(gameId);
+        if (results != null) {
+            return results;
+        }
+        for (GameResultsDTO pending : pendingArchive) {
+            if (pending.getGameId().equals(gameId)) {
+                return pending;
+            }
+        }
+        GameResult archived = gameResultRepository.findById(gameId).orElse(null);
+        if (archived == null) {
+            return null;
+        }
+        try {
+            results = summaryMapper.readValue(archived.getSummary(), GameResultsDTO.class);
+        } catch (JsonProcessingException e) {
+            log.error("Game {}: archived results are unreadable: {}", gameId, e.getMessage());
+            return null;
+        }
+        recentResults.put(gameId, results);
+        return results;
+    }
+
+    /** Closing holdings of a player in a finished game, or null when there are none on record. */
+    public List<StockHoldingDTO> getFinalHoldings(Long gameId, Long userId) {
+        GameResultsDTO results = getResults(gameId);
+        GameResultsDTO.PlayerResult player = results == null ? null : results.getPlayer(userId);
+        return player == null ? null : player.getHoldings();
+    }
+
+    @Scheduled(fixedDelayString = "${game.results.archive-millis:10000}")
+    public void archivePending() {
+        while (!pendingArchive.isEmpty()) {
+            List<GameResultsDTO> batch = new ArrayList<>(archiveBatchSize);
+            List<GameResult> rows = new ArrayList<>(archiveBatchSize);
+            GameResultsDTO results;
+            while (batch.size() < archiveBatchSize && (results = pendingArchive.peek()) != null) {
+                batch.add(results);
+                try {
+                    rows.add(toRow(results));
+                } catch (JsonProcessingException e) {
+                    log.error("Game {}: results cannot be serialized and will not be archived: {}",
+                            results.getGameId(), e.getMessage());
+                }
+                pendingArchive.remove(results);
+            }
+            try {
+                gameResultRepository.saveAll(rows);
+                log.debug("Archived results of {} finished games.", rows.size());
+            } catch (RuntimeException e) {
+                log.warn("Archiving results of {} games failed, retrying later: {}", batch.size(), e.getMessage());
+                pendingArchive.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void archiveOnShutdown() {
+        archivePending();
+    }
+
+    private GameResult toRow(GameResultsDTO results) throws JsonProcessingException {
+        GameResult row = new GameResult();
+        row.setGameId(results.getGameId());
+        row.setEndedAt(results.getEndedAt());
+        row.setSummary(summaryMapper.writeValueAsString(results));
+        return row;
+    }
+
+    private GameResultsDTO summarize(GameManager game) {
+        Map<String, Double> prices = game.getCurrentStockPrices();
+        RoundPrices roundPrices = game.getRoundPrices(game.getCurrentRound());
+        Map<String, String> categories = stockService.getCategoryMap();
+
+        List<LeaderBoardEntryGetDTO> leaderBoard = new ArrayList<>();
+        for (LeaderBoardEntry entry : game.getLeaderBoard()) {
+            LeaderBoardEntryGetDTO dto = new LeaderBoardEntryGetDTO();
+            dto.setUserId(entry.getUserId());
+            dto.setTotalAssets(entry.getTotalAssets());
+            leaderBoard.add(dto);
+        }
+
+        List<GameResultsDTO.PlayerResult> players = new ArrayList<>();
+        for (PlayerState state : game.getPlayerStates().values()) {
+            GameResultsDTO.PlayerResult player = new GameResultsDTO.PlayerResult();
+            player.setUserId(state.getUserId());
+            player.setCashBalance(state.getCashBalance());
+            player.setTotalAssets(Money.toDecimal(state.calculateTotalAssetsMicros(roundPrices)));
+
+            List<StockHoldingDTO> holdings = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : state.getPlayerStocks().entrySet()) {
+                if (entry.getValue() <= 0) {
+                    continue;
+                }
+                String symbol = entry.getKey();
+                holdings.add(new StockHoldingDTO(symbol, entry.getValue(), categories.getOrDefault(symbol, "OTHER"),
+                        prices.getOrDefault(symbol, 0.0)));
+            }
+            player.setHoldings(holdings);
+
+            PortfolioHistory history = state.getPortfolioHistory();
+            List<Double> valuations = new ArrayList<>(history.getLastRecordedRound());
+            for (int round = 1; round <= history.getLastRecordedRound(); round++) {
+                PortfolioHistory.RoundPortfolio portfolio = history.getRound(round);
+                valuations.add(portfolio == null ? null : Money.toDecimal(portfolio.getTotalValueMicros()));
+            }
+            player.setRoundValuations(valuations);
+            players.add(player);
+        }
+
+        GameResultsDTO results = new GameResultsDTO();
+        results.setGameId(game.getGameId());
+        results.setFinalRound(game.getCurrentRound());
+        results.setEndedAt(LocalDateTime.now());
+        results.setLeaderBoard(leaderBoard);
+        results.setPlayers(players);
+        return results;
+    }
+}
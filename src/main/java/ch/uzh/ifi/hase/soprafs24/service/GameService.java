@@ -1,36 +1,66 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ch.uzh.ifi.hase.soprafs24.cluster.GameCheckpointer;
+import ch.uzh.ifi.hase.soprafs24.cluster.GameLeaseManager;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
+import ch.uzh.ifi.hase.soprafs24.game.GameEventLoops;
 import ch.uzh.ifi.hase.soprafs24.game.GameManager;
 import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.game.SettlementMode;
 import ch.uzh.ifi.hase.soprafs24.repository.GameRepository;
-import ch.uzh.ifi.hase.soprafs24.repository.LobbyRepository;
 
 @Service
 public class GameService {
 
-    private final LobbyRepository lobbyRepository;
+    private static final Logger log = LoggerFactory.getLogger(GameService.class);
+    private final LobbyService lobbyService;
     private final GameRepository gameRepository;
     private final StockService stockService;
+    private final GameLeaseManager gameLeaseManager;
+    private final GameCheckpointer gameCheckpointer;
+    private final GameResultService gameResultService;
+    private final SettlementMode settlementMode;
+    private final Map<Long, Object> gameLocks = new ConcurrentHashMap<>();
 
     @Autowired
-    public GameService(LobbyRepository lobbyRepository, GameRepository gameRepository, StockService stockService) {
-        this.lobbyRepository = lobbyRepository;
+    public GameService(LobbyService lobbyService, GameRepository gameRepository, StockService stockService,
+            GameLeaseManager gameLeaseManager, GameCheckpointer gameCheckpointer,
+            GameResultService gameResultService,
+            @Value("${game.settlement-mode:IMMEDIATE}") SettlementMode settlementMode,
+            @Value("${game.event-loops:0}") int eventLoops) {
+        GameEventLoops.configure(eventLoops);
+        this.lobbyService = lobbyService;
         this.gameRepository = gameRepository;
         this.stockService = stockService;
+        this.gameLeaseManager = gameLeaseManager;
+        this.gameCheckpointer = gameCheckpointer;
+        this.gameResultService = gameResultService;
+        this.settlementMode = settlementMode;
     }
 
+    /**
+     * Starts the lobby's game. Readiness and players are read from the lobby's
+     * locked row, which stays locked until the lobby is closed, so a start
+     * never acts on a stale snapshot or races a join on another node.
+     */
+    @Transactional
     public Game tryStartGame(Long lobbyId) {
-        Lobby lobby = lobbyRepository.findById(lobbyId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Lobby not found"));
+        Lobby lobby = lobbyService.lockLobby(lobbyId);
 
         if (!lobby.isActive()) {
             throw new IllegalStateException("Lobby is no longer active");
@@ -41,30 +71,120 @@ public class GameService {
             throw new IllegalStateException("Not all players are ready");
         }
 
+        if (!gameLeaseManager.acquire(lobbyId)) {
+            throw new IllegalStateException("Game is already running on another node");
+        }
+
         Game game = new Game();
         game.setId(lobbyId);
         game.setLobbyId(lobbyId);
         gameRepository.save(game);
 
-        LinkedHashMap<LocalDate, Map<String, Double>> timeline = stockService.getStockTimelineFromDatabase();
-        System.out.println("===== Stock Timeline for Game =====");
-        int day = 1;
-        for (Map.Entry<LocalDate, Map<String, Double>> entry : timeline.entrySet()) {
-            LocalDate date = entry.getKey();
-            Map<String, Double> snapshot = entry.getValue();
-            System.out.println("Day " + day++ + " (" + date + "):");
-            snapshot.forEach((symbol, price) -> System.out.println("  " + symbol + ": " + price));
+        launch(game.getId(), lobby.getPlayerReadyStatuses().keySet());
+        lobbyService.deactivateLobby(lobbyId);
+        return game;
+    }
+
+    /**
+     * Resumes a game whose lease this node has just taken over from the last
+     * checkpoint its previous owner wrote; rounds that fell due since then
+     * are closed on the way. Null when there is nothing to resume from: no
+     * checkpoint, or the game already has results.
+     */
+    public GameManager recoverGame(Long gameId) {
+        return withGameLock(gameId, () -> recoverLocked(gameId));
+    }
+
+    private GameManager recoverLocked(Long gameId) {
+        GameManager running = InMemoryGameRegistry.getGame(gameId);
+        if (running != null) {
+            return running;
         }
-        System.out.println("===================================");
-        GameManager gameManager = new GameManager(game.getId(), timeline);
-        lobby.getPlayerReadyStatuses().keySet().forEach(gameManager::registerPlayer);
-        InMemoryGameRegistry.registerGame(game.getId(), gameManager);
-        gameManager.startGame();
-        lobby.setActive(false);
-        lobbyRepository.save(lobby);
+        if (gameResultService.getResults(gameId) != null) {
+            gameCheckpointer.discard(gameId);
+            return null;
+        }
+        GameManager game = gameCheckpointer.restore(gameId);
+        if (game == null) {
+            log.warn("Game {}: lease taken over by node {}, but there is no checkpoint to resume it from.", gameId,
+                    gameLeaseManager.getNodeId());
+            return null;
+        }
+        log.warn("Game {} taken over by node {} in round {}.", gameId, gameLeaseManager.getNodeId(),
+                game.getCurrentRound());
+        run(game);
         return game;
     }
 
+    /**
+     * Registers a game read back from hibernation and restarts its round
+     * timer. Returns the game now running here, which is the one already
+     * registered under that id if there is one, or null when another node
+     * holds the game's lease.
+     */
+    public GameManager resumeGame(GameManager game) {
+        return withGameLock(game.getGameId(), () -> {
+            GameManager running = InMemoryGameRegistry.getGame(game.getGameId());
+            if (running != null) {
+                return running;
+            }
+            if (!gameLeaseManager.acquire(game.getGameId())) {
+                return null;
+            }
+            run(game);
+            return game;
+        });
+    }
+
+    /**
+     * Runs the work while holding a lock for that game id only, so resuming or
+     * recovering one game never waits on another. The lock is dropped from
+     * the map once released; a thread that was waiting on a dropped lock
+     * retries with the current one.
+     */
+    private <T> T withGameLock(Long gameId, Supplier<T> work) {
+        while (true) {
+            Object lock = gameLocks.computeIfAbsent(gameId, id -> new Object());
+            synchronized (lock) {
+                if (gameLocks.get(gameId) != lock) {
+                    continue;
+                }
+                try {
+                    return work.get();
+                } finally {
+                    gameLocks.remove(gameId, lock);
+                }
+            }
+        }
+    }
+
+    private void run(GameManager game) {
+        addListeners(game);
+        InMemoryGameRegistry.registerGame(game.getGameId(), game);
+        game.resume();
+    }
+
+    private GameManager launch(Long gameId, Collection<Long> playerIds) {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = stockService.getStockTimelineFromDatabase();
+        log.info("Starting game {} with {} players and {} timeline days.", gameId, playerIds.size(), timeline.size());
+        log.debug("Stock timeline for game {}: {}", gameId, timeline);
+        GameManager gameManager = new GameManager(gameId, timeline);
+        gameManager.setSettlementMode(settlementMode);
+        gameManager.registerPlayers(playerIds);
+        addListeners(gameManager);
+        InMemoryGameRegistry.registerGame(gameId, gameManager);
+        gameManager.startGame();
+        gameCheckpointer.checkpoint(gameManager);
+        return gameManager;
+    }
+
+    private void addListeners(GameManager gameManager) {
+        gameManager.addRoundListener(stockService);
+        gameManager.addRoundListener(gameLeaseManager);
+        gameManager.addRoundListener(gameCheckpointer);
+        gameManager.addRoundListener(gameResultService);
+    }
+
     public GameManager getGame(Long gameId) {
         GameManager game = InMemoryGameRegistry.getGame(gameId);
         if (game == null) {
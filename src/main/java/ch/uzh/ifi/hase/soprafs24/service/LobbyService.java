@@ -1,21 +1,48 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.function.Consumer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import ch.uzh.ifi.hase.soprafs24.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs24.repository.LobbyRepository;
 
+/**
+ * Active lobbies are held in memory as immutable, versioned snapshots. Every
+ * change is applied to the locked database row and, once its transaction
+ * commits, published as a new snapshot to the map and to any subscribed
+ * listeners. A read serves the cached snapshot only while its version still
+ * matches the row, so changes committed on other nodes are picked up (and
+ * passed on to this node's listeners) on the next read.
+ */
 @Service
 @Transactional
 public class LobbyService {
+    private final Logger log = LoggerFactory.getLogger(LobbyService.class);
     private final LobbyRepository lobbyRepository;
+    private final PriorityBlockingQueue<LobbyDeadline> expiryDeadlines = new PriorityBlockingQueue<>();
+    private final Map<Long, Lobby> activeLobbies = new ConcurrentHashMap<>();
+    private final Map<Long, List<Consumer<Lobby>>> lobbyListeners = new ConcurrentHashMap<>();
 
     public LobbyService(LobbyRepository lobbyRepository) {
         this.lobbyRepository = lobbyRepository;
@@ -24,44 +51,245 @@ public class LobbyService {
     public Lobby createLobby(Long userId, Lobby lobbyInput) {
         lobbyInput.setTimeLimitSeconds(300L);
         lobbyInput.getPlayerReadyStatuses().put(userId, false);
-        return lobbyRepository.save(lobbyInput);
+        Lobby created = lobbyRepository.save(lobbyInput);
+        Lobby snapshot = snapshotOf(created, created.getVersion());
+        if (snapshot.getId() != null) {
+            publishAfterCommit(snapshot);
+        }
+        return snapshot;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Lobby getLobbyById(Long lobbyId) {
-        return lobbyRepository.findById(lobbyId)
+        Lobby cached = activeLobbies.get(lobbyId);
+        if (cached != null && lobbyRepository.findVersionById(lobbyId)
+                .filter(version -> version == cached.getVersion()).isPresent()) {
+            return cached;
+        }
+        Lobby stored = lobbyRepository.findById(lobbyId).orElse(null);
+        if (stored == null) {
+            activeLobbies.remove(lobbyId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Lobby not found");
+        }
+        Lobby snapshot = snapshotOf(stored, stored.getVersion());
+        publish(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * The lobby as its row is now, locked until the caller's transaction ends,
+     * for decisions that must not be made on a cached snapshot.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Lobby lockLobby(Long lobbyId) {
+        Lobby lobby = lobbyRepository.findByIdForUpdate(lobbyId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Lobby not found"));
+        return snapshotOf(lobby, lobby.getVersion());
     }
 
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadExpiryDeadlines() {
+        int expired = lobbyRepository.deactivateExpiredLobbies(Instant.now());
+        for (LobbyRepository.ExpiryDeadline deadline : lobbyRepository.findActiveExpiryDeadlines()) {
+            expiryDeadlines.add(new LobbyDeadline(deadline.getId(), deadline.getExpiresAt()));
+        }
+        log.info("Deactivated {} expired lobbies on startup. Tracking {} active lobby deadlines.",
+                expired, expiryDeadlines.size());
+    }
+
+    /**
+     * Only touches the database once the earliest tracked deadline has passed,
+     * and then expires every due lobby with a single bulk update on expires_at.
+     */
     @Scheduled(fixedRate = 1_000)
     public void deactivateExpiredLobbies() {
         Instant now = Instant.now();
-        List<Lobby> activeLobbies = lobbyRepository.findByActiveTrue();
-
-        for (Lobby lobby : activeLobbies) {
-            Instant expiresAt = lobby.getCreatedAt()
-                    .plusSeconds(lobby.getTimeLimitSeconds());
-            if (expiresAt.isBefore(now)) {
-                lobby.setActive(false);
-                lobbyRepository.save(lobby);
+        LobbyDeadline next = expiryDeadlines.peek();
+        if (next == null || next.expiresAt.isAfter(now)) {
+            return;
+        }
+        List<Long> dueLobbyIds = new ArrayList<>();
+        while (next != null && !next.expiresAt.isAfter(now)) {
+            expiryDeadlines.poll();
+            dueLobbyIds.add(next.lobbyId);
+            next = expiryDeadlines.peek();
+        }
+        int expired = lobbyRepository.deactivateExpiredLobbies(now);
+        log.debug("Deactivated {} expired lobbies.", expired);
+
+        for (Long lobbyId : dueLobbyIds) {
+            Lobby evicted = activeLobbies.remove(lobbyId);
+            if (evicted != null) {
+                Lobby inactive = copyOf(evicted);
+                inactive.setActive(false);
+                notifyListeners(snapshotOf(inactive, evicted.getVersion() + 1));
+            }
+        }
+    }
+
+    /**
+     * Picks up changes committed on other nodes to the lobbies this node has
+     * subscribers for, so their event streams hear about joins and ready
+     * toggles without waiting for a read here.
+     */
+    @Scheduled(fixedRate = 1_000)
+    public void refreshSubscribedLobbies() {
+        List<Long> subscribed = new ArrayList<>();
+        lobbyListeners.forEach((lobbyId, listeners) -> {
+            if (!listeners.isEmpty()) {
+                subscribed.add(lobbyId);
+            }
+        });
+        if (subscribed.isEmpty()) {
+            return;
+        }
+        for (LobbyRepository.RowVersion row : lobbyRepository.findVersionsByIdIn(subscribed)) {
+            Lobby cached = activeLobbies.get(row.getId());
+            if (cached == null || cached.getVersion() != row.getVersion()) {
+                lobbyRepository.findById(row.getId())
+                        .ifPresent(stored -> publish(snapshotOf(stored, stored.getVersion())));
             }
         }
     }
 
+    private void trackExpiry(Lobby lobby) {
+        if (lobby != null && lobby.getId() != null && lobby.getExpiresAt() != null) {
+            expiryDeadlines.add(new LobbyDeadline(lobby.getId(), lobby.getExpiresAt()));
+        }
+    }
+
     public Lobby addUserToLobby(Long lobbyId, Long userId) {
-        Lobby lobby = getLobbyById(lobbyId);
-        lobby.getPlayerReadyStatuses().put(userId, false);
-        return lobbyRepository.save(lobby);
+        return updateLobby(lobbyId, lobby -> lobby.getPlayerReadyStatuses().put(userId, false));
     }
 
     public Lobby setUserReady(Long lobbyId, Long userId) {
-        Lobby lobby = getLobbyById(lobbyId);
+        return updateLobby(lobbyId, lobby -> {
+            if (!lobby.getPlayerReadyStatuses().containsKey(userId)) {
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST, "User is not part of the lobby");
+            }
+            lobby.getPlayerReadyStatuses().put(userId, true);
+        });
+    }
 
-        if (!lobby.getPlayerReadyStatuses().containsKey(userId)) {
-            throw new ResponseStatusException(
-                    HttpStatus.BAD_REQUEST, "User is not part of the lobby");
+    public Lobby deactivateLobby(Long lobbyId) {
+        return updateLobby(lobbyId, lobby -> lobby.setActive(false));
+    }
+
+    /**
+     * Registers a listener that receives every new snapshot of the given lobby.
+     * The returned handle removes the listener again.
+     */
+    public Runnable subscribe(Long lobbyId, Consumer<Lobby> listener) {
+        lobbyListeners.computeIfAbsent(lobbyId, id -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> {
+            List<Consumer<Lobby>> listeners = lobbyListeners.get(lobbyId);
+            if (listeners != null) {
+                listeners.remove(listener);
+            }
+        };
+    }
+
+    /**
+     * Applies a change to the lobby's row as it is in the database, locked for
+     * the rest of the transaction, so a change made on another node or an
+     * expiry is never written over. The result is published after commit;
+     * concurrent readers keep seeing the previous snapshot until then.
+     */
+    private Lobby updateLobby(Long lobbyId, Consumer<Lobby> change) {
+        Lobby lobby = lobbyRepository.findByIdForUpdate(lobbyId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Lobby not found"));
+        change.accept(lobby);
+        Lobby saved = lobbyRepository.saveAndFlush(lobby);
+        Lobby snapshot = snapshotOf(saved, saved.getVersion());
+        publishAfterCommit(snapshot);
+        return snapshot;
+    }
+
+    private void publishAfterCommit(Lobby snapshot) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(snapshot);
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(snapshot);
+            }
+        });
+    }
 
-        lobby.getPlayerReadyStatuses().put(userId, true);
-        return lobbyRepository.save(lobby);
+    /**
+     * Replaces the cached snapshot unless a newer version got there first, and
+     * tells the listeners. A lobby cached for the first time has its expiry
+     * tracked so this node evicts it when it runs out.
+     */
+    private void publish(Lobby snapshot) {
+        boolean[] newer = new boolean[1];
+        boolean[] added = new boolean[1];
+        activeLobbies.compute(snapshot.getId(), (id, current) -> {
+            if (current != null && current.getVersion() >= snapshot.getVersion()) {
+                return current;
+            }
+            newer[0] = true;
+            added[0] = current == null && snapshot.isActive();
+            return snapshot.isActive() ? snapshot : null;
+        });
+        if (added[0]) {
+            trackExpiry(snapshot);
+        }
+        if (newer[0]) {
+            notifyListeners(snapshot);
+        }
+    }
+
+    private void notifyListeners(Lobby snapshot) {
+        List<Consumer<Lobby>> listeners = snapshot.isActive()
+                ? lobbyListeners.get(snapshot.getId())
+                : lobbyListeners.remove(snapshot.getId());
+        if (listeners == null) {
+            return;
+        }
+        for (Consumer<Lobby> listener : listeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (RuntimeException e) {
+                log.warn("Lobby listener for lobby {} failed: {}", snapshot.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private static Lobby copyOf(Lobby source) {
+        Lobby copy = new Lobby();
+        copy.setId(source.getId());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setActive(source.isActive());
+        copy.setTimeLimitSeconds(source.getTimeLimitSeconds());
+        copy.setExpiresAt(source.getExpiresAt());
+        copy.setPlayerReadyStatuses(new HashMap<>(source.getPlayerReadyStatuses()));
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+
+    private static Lobby snapshotOf(Lobby source, long version) {
+        Lobby snapshot = copyOf(source);
+        snapshot.setPlayerReadyStatuses(Collections.unmodifiableMap(snapshot.getPlayerReadyStatuses()));
+        snapshot.setVersion(version);
+        return snapshot;
+    }
+
+    private static final class LobbyDeadline implements Comparable<LobbyDeadline> {
+        private final Long lobbyId;
+        private final Instant expiresAt;
+
+        private LobbyDeadline(Long lobbyId, Instant expiresAt) {
+            this.lobbyId = lobbyId;
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public int compareTo(LobbyDeadline other) {
+            return expiresAt.compareTo(other.expiresAt);
+        }
     }
 }
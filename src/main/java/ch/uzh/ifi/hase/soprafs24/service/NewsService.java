@@ -1,10 +1,12 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -15,8 +17,10 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -30,7 +34,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -52,6 +59,13 @@ public class NewsService {
     private final ObjectMapper objectMapper;
     private final HttpClient httpClient;
     private final ExecutorService newsFetchExecutor;
+    private final Map<NewsFetchKey, CompletableFuture<Integer>> inFlightFetches = new ConcurrentHashMap<>();
+    private final Set<NewsFetchKey> fetchedWindows = Collections.newSetFromMap(lruMap(FETCH_WINDOW_CACHE_SIZE));
+    private final Map<NewsFetchKey, Boolean> emptyWindows = lruMap(FETCH_WINDOW_CACHE_SIZE);
+    private final Map<Long, CachedNewsVersion> newsVersions = lruMap(NEWS_VERSION_CACHE_SIZE);
+    private static final int FETCH_WINDOW_CACHE_SIZE = 4096;
+    private static final int NEWS_VERSION_CACHE_SIZE = 1024;
+    private static final long NEWS_VERSION_TTL_MILLIS = 2_000;
     private static final long API_CALL_DELAY_MILLISECONDS = 0;
     private static final DateTimeFormatter AV_API_TIME_PUBLISHED_FORMAT = DateTimeFormatter
             .ofPattern("yyyyMMdd'T'HHmmss");
@@ -94,9 +108,24 @@ public class NewsService {
                 tickers.size(), firstTicker, lastTicker, gameStartDate, gameEndDate);
 
         List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        List<CompletableFuture<Integer>> sharedFutures = new ArrayList<>();
+        int skippedAsCovered = 0;
 
         for (String ticker : tickers) {
-            CompletableFuture<Integer> future = CompletableFuture.supplyAsync(() -> {
+            NewsFetchKey key = new NewsFetchKey(ticker, gameStartDate, gameEndDate);
+            if (isCovered(key)) {
+                skippedAsCovered++;
+                continue;
+            }
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            CompletableFuture<Integer> inFlight = inFlightFetches.putIfAbsent(key, future);
+            if (inFlight != null) {
+                log.debug("News fetch for ticker {} ({} to {}) already in flight. Joining it.", ticker,
+                        gameStartDate, gameEndDate);
+                sharedFutures.add(inFlight);
+                continue;
+            }
+            CompletableFuture.supplyAsync(() -> {
                 try {
                     if (API_CALL_DELAY_MILLISECONDS > 0) {
                         Thread.sleep(API_CALL_DELAY_MILLISECONDS);
@@ -113,10 +142,29 @@ public class NewsService {
                     log.error("Unexpected exception during news fetch for ticker {}: {}", ticker, e.getMessage(), e);
                     return 0;
                 }
-            }, newsFetchExecutor);
+            }, newsFetchExecutor).whenComplete((saved, error) -> {
+                inFlightFetches.remove(key, future);
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(saved);
+                }
+            });
             futures.add(future);
         }
 
+        if (skippedAsCovered > 0 || !sharedFutures.isEmpty()) {
+            log.info("Skipped {} ticker(s) already covered for {} to {} and joined {} in-flight fetch(es).",
+                    skippedAsCovered, gameStartDate, gameEndDate, sharedFutures.size());
+        }
+        if (!sharedFutures.isEmpty()) {
+            try {
+                CompletableFuture.allOf(sharedFutures.toArray(new CompletableFuture[0])).join();
+            } catch (Exception e) {
+                log.warn("A shared news fetch task completed exceptionally: {}", e.getMessage());
+            }
+        }
+
         try {
             CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
         } catch (Exception e) {
@@ -163,26 +211,20 @@ public class NewsService {
                 .GET()
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-        if (response.statusCode() != 200) {
-            log.error(
-                    "Alpha Vantage News API request FAILED for ticker {}. Status: {}, URL: {}, Body (first 500 chars): {}",
-                    ticker, response.statusCode(), uri,
-                    response.body().substring(0, Math.min(response.body().length(), 500)));
-            return 0;
-        }
-
-        String jsonResponse = response.body();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
         AlphaVantageNewsApiPojos.AlphaVantageNewsResponse newsApiResponse;
 
-        try {
-            newsApiResponse = objectMapper.readValue(jsonResponse,
-                    AlphaVantageNewsApiPojos.AlphaVantageNewsResponse.class);
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                log.error(
+                        "Alpha Vantage News API request FAILED for ticker {}. Status: {}, URL: {}, Body (first 500 chars): {}",
+                        ticker, response.statusCode(), uri,
+                        new String(body.readNBytes(500), StandardCharsets.UTF_8));
+                return 0;
+            }
+            newsApiResponse = readNewsResponse(body, numberOfArticlesToSave);
         } catch (JsonProcessingException e) {
-            log.error(
-                    "Failed to parse JSON response for ticker {}. URL: {}. Response (first 500 chars): '{}'. Error: {}",
-                    ticker, uri, jsonResponse.substring(0, Math.min(jsonResponse.length(), 500)), e.getMessage());
+            log.error("Failed to parse JSON response for ticker {}. URL: {}. Error: {}", ticker, uri, e.getMessage());
             return 0;
         }
 
@@ -204,12 +246,13 @@ public class NewsService {
         if (newsApiResponse.feed == null || newsApiResponse.feed.isEmpty()) {
             log.info("No news items returned from AlphaVantage for ticker: {}, Date Range: {} to {}. URL: {}", ticker,
                     timeFrom, timeTo, uri);
+            markEmpty(new NewsFetchKey(ticker, gameStartDate, gameEndDate));
             return 0;
         }
 
         log.info(
-                "Received {} news items from AlphaVantage for ticker {} (requested limit: {}). Will process up to {} item(s).",
-                newsApiResponse.feed.size(), ticker, requestLimit, numberOfArticlesToSave);
+                "Received {} news items from AlphaVantage for ticker {} (requested limit: {}). Parsed the first {} item(s).",
+                newsApiResponse.items, ticker, requestLimit, newsApiResponse.feed.size());
 
         int newNewsSavedForThisTicker = 0;
         for (int i = 0; i < newsApiResponse.feed.size() && i < numberOfArticlesToSave; i++) {
@@ -265,15 +308,137 @@ public class NewsService {
         }
 
         if (newNewsSavedForThisTicker > 0) {
+            newsVersions.clear();
             log.info("Successfully saved {} new news articles for ticker {}.", newNewsSavedForThisTicker, ticker);
         } else if (!newsApiResponse.feed.isEmpty() && numberOfArticlesToSave > 0) {
             log.info(
                     "Received news for ticker {} but did not save any (e.g., all duplicates, or issues with the first {} item(s)).",
                     ticker, numberOfArticlesToSave);
         }
+        fetchedWindows.add(new NewsFetchKey(ticker, gameStartDate, gameEndDate));
         return newNewsSavedForThisTicker;
     }
 
+    /**
+     * A window is covered if it was fetched before, or if it lies inside a
+     * window the API had no articles for. A window that did return articles
+     * only covers itself: its saved articles are the earliest of that window
+     * and say nothing about the earliest of a narrower one.
+     */
+    private boolean isCovered(NewsFetchKey key) {
+        if (fetchedWindows.contains(key)) {
+            return true;
+        }
+        synchronized (emptyWindows) {
+            for (NewsFetchKey window : emptyWindows.keySet()) {
+                if (window.ticker.equals(key.ticker) && !window.from.isAfter(key.from)
+                        && !window.to.isBefore(key.to)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void markEmpty(NewsFetchKey key) {
+        emptyWindows.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * A synchronized map that keeps the {@code maxEntries} most recently used
+     * entries, so the fetch and version caches stay bounded however many
+     * games and tickers this node sees.
+     */
+    private static <K, V> Map<K, V> lruMap(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Reads a NEWS_SENTIMENT body token by token and stops once
+     * {@code maxFeedItems} feed entries have been bound, so the remainder of
+     * the feed is never parsed or even downloaded.
+     */
+    private AlphaVantageNewsApiPojos.AlphaVantageNewsResponse readNewsResponse(InputStream body, int maxFeedItems)
+            throws IOException {
+        AlphaVantageNewsApiPojos.AlphaVantageNewsResponse newsResponse = new AlphaVantageNewsApiPojos.AlphaVantageNewsResponse();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "items":
+                        newsResponse.items = parser.getValueAsString();
+                        break;
+                    case "Information":
+                        newsResponse.information = parser.getValueAsString();
+                        break;
+                    case "Error Message":
+                        newsResponse.errorMessage = parser.getValueAsString();
+                        break;
+                    case "feed":
+                        if (value != JsonToken.START_ARRAY) {
+                            parser.skipChildren();
+                            break;
+                        }
+                        newsResponse.feed = new ArrayList<>();
+                        while (newsResponse.feed.size() < maxFeedItems && parser.nextToken() == JsonToken.START_OBJECT) {
+                            newsResponse.feed.add(objectMapper.readValue(parser, AlphaVantageNewsApiPojos.FeedItem.class));
+                        }
+                        if (newsResponse.feed.size() >= maxFeedItems) {
+                            return newsResponse;
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return newsResponse;
+    }
+
+    /** ETag of a game's news: changes with the game's timeline and whenever new articles are stored. */
+    public String getNewsETag(Long gameId) {
+        GameManager gameManager = InMemoryGameRegistry.getGame(gameId);
+        if (gameManager == null) {
+            return null;
+        }
+        return gameManager.getETag("news", gameManager.getTimelineVersion(), getNewsVersion(gameId));
+    }
+
+    /**
+     * Changes whenever an article is stored for the game's date range, by
+     * any node: the id of the newest such article, re-read from the database
+     * at most every {@value #NEWS_VERSION_TTL_MILLIS} ms. Articles stored by
+     * this node show up at once.
+     */
+    public long getNewsVersion(Long gameId) {
+        GameManager gameManager = InMemoryGameRegistry.getGame(gameId);
+        if (gameManager == null) {
+            return 0L;
+        }
+        long timelineVersion = gameManager.getTimelineVersion();
+        long now = System.currentTimeMillis();
+        CachedNewsVersion cached = newsVersions.get(gameId);
+        if (cached != null && cached.timelineVersion == timelineVersion
+                && now - cached.readAtMillis < NEWS_VERSION_TTL_MILLIS) {
+            return cached.version;
+        }
+        List<LocalDate> gameDates = new ArrayList<>(gameManager.getStockTimeline().keySet());
+        long version = gameDates.isEmpty() ? 0L
+                : newsRepository.findMaxIdByPublishedTimeBetween(gameDates.get(0).atStartOfDay(),
+                        gameDates.get(gameDates.size() - 1).atTime(23, 59, 59));
+        newsVersions.put(gameId, new CachedNewsVersion(version, timelineVersion, now));
+        return version;
+    }
+
     public List<NewsDTO> getNewsForGame(Long gameId) {
         GameManager gameManager = InMemoryGameRegistry.getGame(gameId);
         if (gameManager == null) {
@@ -324,7 +489,7 @@ public class NewsService {
         return relevantNewsDTOs;
     }
 
-    private boolean isNewsRelevantToGameTickers(News news, Set<String> gameTickers) {
+    boolean isNewsRelevantToGameTickers(News news, Set<String> gameTickers) {
         if (news.getApiTickerSentimentJson() == null || news.getApiTickerSentimentJson().isEmpty()) {
             return false;
         }
@@ -346,7 +511,7 @@ public class NewsService {
         return false;
     }
 
-    private NewsDTO convertToDTO(News news) {
+    NewsDTO convertToDTO(News news) {
         NewsDTO dto = new NewsDTO();
         dto.setId(news.getId());
         dto.setTitle(news.getTitle());
@@ -407,6 +572,51 @@ public class NewsService {
         return dto;
     }
 
+    private static final class CachedNewsVersion {
+        private final long version;
+        private final long timelineVersion;
+        private final long readAtMillis;
+
+        private CachedNewsVersion(long version, long timelineVersion, long readAtMillis) {
+            this.version = version;
+            this.timelineVersion = timelineVersion;
+            this.readAtMillis = readAtMillis;
+        }
+    }
+
+    /**
+     * A (ticker, date range) pair used both as the single-flight key and as an
+     * entry in the coverage cache of ranges already stored or known to be empty.
+     */
+    private static final class NewsFetchKey {
+        private final String ticker;
+        private final LocalDate from;
+        private final LocalDate to;
+
+        private NewsFetchKey(String ticker, LocalDate from, LocalDate to) {
+            this.ticker = ticker;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof NewsFetchKey)) {
+                return false;
+            }
+            NewsFetchKey other = (NewsFetchKey) o;
+            return ticker.equals(other.ticker) && from.equals(other.from) && to.equals(other.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ticker, from, to);
+        }
+    }
+
     @PreDestroy
     public void shutdownExecutor() {
         log.info("Shutting down NewsFetchExecutor...");
@@ -1,5 +1,6 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -9,6 +10,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +21,10 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.crazzyghost.alphavantage.AlphaVantage;
 import com.crazzyghost.alphavantage.Config;
 import com.crazzyghost.alphavantage.parameters.DataType;
@@ -26,27 +33,45 @@ import com.crazzyghost.alphavantage.timeseries.response.StockUnit;
 import com.crazzyghost.alphavantage.timeseries.response.TimeSeriesResponse;
 import ch.uzh.ifi.hase.soprafs24.entity.Stock;
 import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.GameRoundListener;
 import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
 import ch.uzh.ifi.hase.soprafs24.game.PlayerState;
+import ch.uzh.ifi.hase.soprafs24.game.PortfolioHistory;
 import ch.uzh.ifi.hase.soprafs24.repository.StockRepository;
+import ch.uzh.ifi.hase.soprafs24.repository.TradingCalendarRepository;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.StockHoldingDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.StockPriceGetDTO;
 
 @Service
-public class StockService {
+public class StockService implements GameRoundListener {
     private static final Logger log = LoggerFactory.getLogger(StockService.class);
+    private static final byte[] EMPTY_JSON_ARRAY = "[]".getBytes(StandardCharsets.UTF_8);
+    private static final RoundPriceResponses NO_PRICES = new RoundPriceResponses(EMPTY_JSON_ARRAY,
+            Collections.emptyMap());
+    private final ObjectMapper priceWriter = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final Map<Long, GamePriceResponses> priceResponses = new ConcurrentHashMap<>();
+    private final AtomicReference<LinkedHashMap<LocalDate, Map<String, Double>>> preloadedTimeline = new AtomicReference<>();
     private final StockRepository stockRepository;
+    private final TradingCalendarRepository tradingCalendarRepository;
     private final NewsService newsService;
     private final String API_KEY;
 
     public StockService(StockRepository stockRepository,
+            TradingCalendarRepository tradingCalendarRepository,
             NewsService newsService,
             @Value("${ALPHAVANTAGE_API_KEY}") String API_KEY) {
         this.stockRepository = stockRepository;
+        this.tradingCalendarRepository = tradingCalendarRepository;
         this.newsService = newsService;
         this.API_KEY = API_KEY;
     }
 
+    /** A timeline shows ten symbols, so only days quoting at least that many can start one. */
+    private static final int TIMELINE_SYMBOLS = 10;
+    private static final int CALENDAR_REFRESH_BATCH = 1000;
+
     private static final List<String> POPULAR_SYMBOLS = List.of(
             "TSLA", "GOOG", "MSFT", "NVDA", "AMZN", "META", "NFLX", "INTC", "AMD", "AAPL",
             "JPM", "GS",
@@ -146,7 +171,7 @@ public class StockService {
                 return;
             }
 
-            int newRecordsSaved = 0;
+            List<LocalDate> newDates = new ArrayList<>();
             for (StockUnit unit : stockUnits) {
                 try {
                     LocalDate date = LocalDate.parse(unit.getDate(), DateTimeFormatter.ISO_LOCAL_DATE);
@@ -158,15 +183,16 @@ public class StockService {
                         stock.setVolume(unit.getVolume());
                         stock.setCurrency("USD");
                         stockRepository.save(stock);
-                        newRecordsSaved++;
+                        newDates.add(date);
                     }
                 } catch (Exception e) {
                     log.error("Error processing or saving stock unit for symbol {} on date {}: {}", symbol,
                             unit.getDate(), e.getMessage(), e);
                 }
             }
-            if (newRecordsSaved > 0) {
-                log.info("Saved {} new daily records for symbol {}.", newRecordsSaved, symbol);
+            if (!newDates.isEmpty()) {
+                log.info("Saved {} new daily records for symbol {}.", newDates.size(), symbol);
+                refreshTradingCalendar(newDates);
             } else {
                 log.info("No new daily records to save for symbol {} (data likely up-to-date).", symbol);
             }
@@ -176,6 +202,19 @@ public class StockService {
         }
     }
 
+    /** Recounts the calendar rows for dates that just gained a close. */
+    void refreshTradingCalendar(List<LocalDate> dates) {
+        for (int from = 0; from < dates.size(); from += CALENDAR_REFRESH_BATCH) {
+            List<LocalDate> batch = dates.subList(from, Math.min(dates.size(), from + CALENDAR_REFRESH_BATCH));
+            try {
+                tradingCalendarRepository.refreshDates(batch);
+            } catch (Exception e) {
+                log.error("Failed to refresh the trading calendar for {} dates from {}: {}", batch.size(),
+                        batch.get(0), e.getMessage(), e);
+            }
+        }
+    }
+
     public List<StockPriceGetDTO> getStockPrice(Long gameId, String symbol, Integer round) {
         GameManager game = InMemoryGameRegistry.getGame(gameId);
         if (game == null) {
@@ -188,10 +227,12 @@ public class StockService {
             log.warn("Could not determine date for round {} in game {}. Returning empty list.", round, gameId);
             return Collections.emptyList();
         }
+        return toPriceHistory(game.getStockTimeline(), symbol, dateForRound, round);
+    }
 
-        LinkedHashMap<LocalDate, Map<String, Double>> timeline = game.getStockTimeline();
+    private static List<StockPriceGetDTO> toPriceHistory(Map<LocalDate, Map<String, Double>> timeline,
+            String symbol, LocalDate dateForRound, int round) {
         List<StockPriceGetDTO> result = new ArrayList<>();
-
         for (Map.Entry<LocalDate, Map<String, Double>> entry : timeline.entrySet()) {
             LocalDate entryDate = entry.getKey();
             if (!entryDate.isAfter(dateForRound)) {
@@ -210,11 +251,190 @@ public class StockService {
         return result;
     }
 
+    /** ETag of the prices endpoint, or null when the game is unknown so the regular path reports it. */
+    public String getPricesETag(Long gameId, String symbol, Integer round) {
+        GameManager game = InMemoryGameRegistry.getGame(gameId);
+        if (game == null) {
+            return null;
+        }
+        if (symbol == null || round == null) {
+            return game.getETag("prices", game.getRoundVersion(), game.getTimelineVersion());
+        }
+        return game.getETag("price-history", game.getTimelineVersion());
+    }
+
+    /** ETag shared by the player-holdings endpoints; holdings are revalued when the round or timeline changes. */
+    public String getHoldingsETag(Long gameId, Long userId) {
+        GameManager game = InMemoryGameRegistry.getGame(gameId);
+        PlayerState player = game == null ? null : game.getPlayerState(userId);
+        if (player == null) {
+            return null;
+        }
+        return game.getETag("holdings", game.getRoundVersion(), game.getTimelineVersion(), player.getVersion());
+    }
+
+    /**
+     * Serialized body for {@code /api/stocks/{gameId}/stocks}. Every player in
+     * a game asks for the same bytes, so they are built once per round.
+     */
+    public byte[] getCurrentRoundStockPricesJson(Long gameId) {
+        GameManager manager = InMemoryGameRegistry.getGame(gameId);
+        if (manager == null) {
+            log.warn("Game with ID {} not found for getCurrentRoundStockPrices.", gameId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found: " + gameId);
+        }
+        return priceResponsesFor(manager).forRound(manager.getCurrentRound()).currentPrices;
+    }
+
+    /** Serialized price history of one symbol up to the given round, shared by all players of the game. */
+    public byte[] getStockPriceJson(Long gameId, String symbol, Integer round) {
+        GameManager game = InMemoryGameRegistry.getGame(gameId);
+        if (game == null) {
+            log.warn("Game with ID {} not found for getStockPrice(symbol, round).", gameId);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Game with ID " + gameId + " not found.");
+        }
+        return priceResponsesFor(game).forRound(round).historyFor(symbol);
+    }
+
+    @Override
+    public void onRoundStarted(GameManager game, int round) {
+        priceResponsesFor(game).forRound(round);
+    }
+
+    @Override
+    public void onGameHibernated(GameManager game) {
+        priceResponses.remove(game.getGameId());
+    }
+
+    @Override
+    public void onGameEnded(GameManager game) {
+        priceResponses.remove(game.getGameId());
+    }
+
+    private GamePriceResponses priceResponsesFor(GameManager game) {
+        long timelineVersion = game.getTimelineVersion();
+        return priceResponses.compute(game.getGameId(),
+                (id, cached) -> cached != null && cached.game == game && cached.timelineVersion == timelineVersion
+                        ? cached
+                        : new GamePriceResponses(game, timelineVersion));
+    }
+
+    private byte[] writePrices(List<StockPriceGetDTO> prices) {
+        try {
+            return priceWriter.writeValueAsBytes(prices);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize stock prices", e);
+        }
+    }
+
+    /**
+     * Pre-serialized price responses of one game at one timeline version. The
+     * timeline is copied once; each round's current prices and per-symbol
+     * histories are serialized the first time the round is reached or
+     * requested and then reused. Rounds outside the timeline all share one
+     * empty response and are not cached, whatever round a client asks for.
+     */
+    private final class GamePriceResponses {
+        private final GameManager game;
+        private final long timelineVersion;
+        private final LinkedHashMap<LocalDate, Map<String, Double>> timeline;
+        private final List<LocalDate> dates;
+        private final Map<Integer, RoundPriceResponses> rounds = new ConcurrentHashMap<>();
+
+        private GamePriceResponses(GameManager game, long timelineVersion) {
+            this.game = game;
+            this.timelineVersion = timelineVersion;
+            this.timeline = game.getStockTimeline();
+            this.dates = new ArrayList<>(timeline.keySet());
+        }
+
+        private RoundPriceResponses forRound(int round) {
+            if (round <= 0 || round > dates.size()) {
+                return NO_PRICES;
+            }
+            return rounds.computeIfAbsent(round, this::build);
+        }
+
+        private RoundPriceResponses build(int round) {
+            LocalDate date = dates.get(round - 1);
+            Map<String, Double> prices = timeline.get(date);
+            byte[] currentPrices = writePrices(toCurrentPrices(prices, date, round));
+            Map<String, byte[]> histories = new HashMap<>();
+            for (String symbol : prices.keySet()) {
+                histories.put(symbol, writePrices(toPriceHistory(timeline, symbol, date, round)));
+            }
+            return new RoundPriceResponses(currentPrices, histories);
+        }
+    }
+
+    private static final class RoundPriceResponses {
+        private final byte[] currentPrices;
+        private final Map<String, byte[]> historiesBySymbol;
+
+        private RoundPriceResponses(byte[] currentPrices, Map<String, byte[]> historiesBySymbol) {
+            this.currentPrices = currentPrices;
+            this.historiesBySymbol = historiesBySymbol;
+        }
+
+        private byte[] historyFor(String symbol) {
+            return historiesBySymbol.getOrDefault(symbol, EMPTY_JSON_ARRAY);
+        }
+    }
+
+    /**
+     * Picks a timeline at startup so the first game start does not pay for
+     * cold queries. The first call to {@link #getStockTimelineFromDatabase()}
+     * takes it; later calls query as usual.
+     */
+    public LinkedHashMap<LocalDate, Map<String, Double>> preloadStockTimeline() {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = loadStockTimeline();
+        preloadedTimeline.set(timeline.isEmpty() ? null : timeline);
+        return timeline;
+    }
+
     public LinkedHashMap<LocalDate, Map<String, Double>> getStockTimelineFromDatabase() {
+        LinkedHashMap<LocalDate, Map<String, Double>> byDate = preloadedTimeline.getAndSet(null);
+        if (byDate == null) {
+            byDate = loadStockTimeline();
+        } else {
+            log.info("STOCKSERVICE: Using the timeline preloaded at startup ({} dates).", byDate.size());
+        }
+        if (!byDate.isEmpty()) {
+            List<LocalDate> gameDates = new ArrayList<>(byDate.keySet());
+            LocalDate gameStartDate = gameDates.get(0);
+            LocalDate gameEndDate = gameDates.get(gameDates.size() - 1);
+            Set<String> symbolsInGame = byDate.values().stream()
+                    .filter(java.util.Objects::nonNull)
+                    .flatMap(dailyPrices -> dailyPrices.keySet().stream())
+                    .filter(java.util.Objects::nonNull)
+                    .collect(Collectors.toSet());
+
+            if (!symbolsInGame.isEmpty()) {
+                log.info(
+                        "STOCKSERVICE: Triggering NewsService.fetchAndSaveNewsForTickers with {} symbols: {} for date range: {} to {}",
+                        symbolsInGame.size(), symbolsInGame, gameStartDate, gameEndDate);
+                try {
+                    newsService.fetchAndSaveNewsForTickers(new ArrayList<>(symbolsInGame), gameStartDate, gameEndDate);
+                    log.info("STOCKSERVICE: Call to NewsService.fetchAndSaveNewsForTickers completed.");
+                } catch (Exception e) {
+                    log.error(
+                            "STOCKSERVICE: Error occurred while calling NewsService.fetchAndSaveNewsForTickers. Game will proceed without pre-fetched news. Error: {}",
+                            e.getMessage(), e);
+                }
+            } else {
+                log.warn("STOCKSERVICE: No valid symbols found in generated stock timeline. Skipping news fetch.");
+            }
+        } else {
+            log.warn("STOCKSERVICE: Stock timeline (byDate map) is empty. News fetching will be skipped.");
+        }
+        return byDate;
+    }
+
+    private LinkedHashMap<LocalDate, Map<String, Double>> loadStockTimeline() {
         log.info("STOCKSERVICE: Attempting to generate stock timeline from database...");
         LinkedHashMap<LocalDate, Map<String, Double>> byDate = new LinkedHashMap<>();
 
-        LocalDate startDate = stockRepository.findRandomStartDateWith10Days();
+        LocalDate startDate = tradingCalendarRepository.findRandomStartDateWith10Days(TIMELINE_SYMBOLS);
         if (startDate == null) {
             log.error(
                     "STOCKSERVICE CRITICAL: Could not find a random start date (from 2023+) with 10 subsequent days of data. Stock timeline will be empty.");
@@ -222,7 +442,7 @@ public class StockService {
         }
         log.info("STOCKSERVICE: Selected random start date for game timeline: {}", startDate);
 
-        List<Stock> rawData = stockRepository.findRandom10SymbolsWithFirst10DatesFrom(startDate);
+        List<StockRepository.PriceRow> rawData = stockRepository.findRandom10SymbolsWithFirst10DatesFrom(startDate);
         if (rawData.isEmpty()) {
             log.warn("STOCKSERVICE: No stock data found from startDate {} for game timeline. Timeline will be empty.",
                     startDate);
@@ -230,7 +450,7 @@ public class StockService {
         }
         log.info("STOCKSERVICE: Fetched {} raw stock data points for the timeline.", rawData.size());
 
-        for (Stock stock : rawData) {
+        for (StockRepository.PriceRow stock : rawData) {
             LocalDate date = stock.getDate();
             String symbol = stock.getSymbol();
             Double price = stock.getPrice();
@@ -253,35 +473,6 @@ public class StockService {
         } else {
             log.info("STOCKSERVICE: Generated empty stock timeline (byDate map).");
         }
-
-        if (!byDate.isEmpty()) {
-            List<LocalDate> gameDates = new ArrayList<>(byDate.keySet());
-            LocalDate gameStartDate = gameDates.get(0);
-            LocalDate gameEndDate = gameDates.get(gameDates.size() - 1);
-            Set<String> symbolsInGame = byDate.values().stream()
-                    .filter(java.util.Objects::nonNull)
-                    .flatMap(dailyPrices -> dailyPrices.keySet().stream())
-                    .filter(java.util.Objects::nonNull)
-                    .collect(Collectors.toSet());
-
-            if (!symbolsInGame.isEmpty()) {
-                log.info(
-                        "STOCKSERVICE: Triggering NewsService.fetchAndSaveNewsForTickers with {} symbols: {} for date range: {} to {}",
-                        symbolsInGame.size(), symbolsInGame, gameStartDate, gameEndDate);
-                try {
-                    newsService.fetchAndSaveNewsForTickers(new ArrayList<>(symbolsInGame), gameStartDate, gameEndDate);
-                    log.info("STOCKSERVICE: Call to NewsService.fetchAndSaveNewsForTickers completed.");
-                } catch (Exception e) {
-                    log.error(
-                            "STOCKSERVICE: Error occurred while calling NewsService.fetchAndSaveNewsForTickers. Game will proceed without pre-fetched news. Error: {}",
-                            e.getMessage(), e);
-                }
-            } else {
-                log.warn("STOCKSERVICE: No valid symbols found in generated stock timeline. Skipping news fetch.");
-            }
-        } else {
-            log.warn("STOCKSERVICE: Stock timeline (byDate map) is empty. News fetching will be skipped.");
-        }
         return byDate;
     }
 
@@ -306,21 +497,25 @@ public class StockService {
             return Collections.emptyList();
         }
 
-        List<StockPriceGetDTO> result = new ArrayList<>();
         int currentRound = manager.getCurrentRound();
+        List<StockPriceGetDTO> result = toCurrentPrices(currentPrices, currentMarketDate, currentRound);
+        log.debug("Returning {} stock prices for gameId {} for date {} and round {}.",
+                result.size(), gameId, currentMarketDate, currentRound);
+        return result;
+    }
 
-        for (Map.Entry<String, Double> entry : currentPrices.entrySet()) {
+    private static List<StockPriceGetDTO> toCurrentPrices(Map<String, Double> prices, LocalDate date, int round) {
+        List<StockPriceGetDTO> result = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : prices.entrySet()) {
             StockPriceGetDTO dto = new StockPriceGetDTO();
             String symbol = entry.getKey();
             dto.setSymbol(symbol);
             dto.setPrice(entry.getValue());
             dto.setCategory(STOCK_CATEGORIES.getOrDefault(symbol, "OTHER"));
-            dto.setRound(currentRound);
-            dto.setDate(currentMarketDate);
+            dto.setRound(round);
+            dto.setDate(date);
             result.add(dto);
         }
-        log.debug("Returning {} stock prices for gameId {} for date {} and round {}.",
-                result.size(), gameId, currentMarketDate, currentRound);
         return result;
     }
 
@@ -393,21 +588,13 @@ public class StockService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Player not found in game.");
         }
 
-        Map<String, Integer> snapshot = player.getHoldingsForRound(round);
-        LocalDate dateForRound = game.getDateForRound(round);
-        Map<String, Double> prices = game.getStockTimeline().getOrDefault(dateForRound, Collections.emptyMap());
-
+        PortfolioHistory.RoundPortfolio portfolio = player.getPortfolioHistory().getRound(round);
         List<StockHoldingDTO> holdings = new ArrayList<>();
-        for (Map.Entry<String, Integer> entry : snapshot.entrySet()) {
-            String symbol = entry.getKey();
-            int quantity = entry.getValue();
-            if (quantity <= 0)
-                continue;
-
-            double price = prices.getOrDefault(symbol, 0.0);
-            String category = STOCK_CATEGORIES.getOrDefault(symbol, "OTHER");
-
-            holdings.add(new StockHoldingDTO(symbol, quantity, category, price));
+        if (portfolio == null) {
+            return holdings;
+        }
+        for (PortfolioHistory.Position position : portfolio.getPositions()) {
+            holdings.add(toHoldingDTO(position, position.getPrice()));
         }
 
         return holdings;
@@ -426,28 +613,25 @@ public class StockService {
             throw new ResponseStatusException(
                     HttpStatus.NOT_FOUND, "Player not found: " + userId);
         }
+        PortfolioHistory history = player.getPortfolioHistory();
         Map<Integer, List<StockHoldingDTO>> roundHoldings = new LinkedHashMap<>();
         roundHoldings.put(1, Collections.emptyList());
         for (int round = 1; round <= game.getCurrentRound(); round++) {
-            Map<String, Integer> snapshot = player.getHoldingsForRound(round);
-            int displayRound = round + 1;
-            LocalDate priceDate = game.getDateForRound(displayRound);
-            Map<String, Double> prices = game.getStockTimeline()
-                    .getOrDefault(priceDate, Collections.emptyMap());
+            PortfolioHistory.RoundPortfolio portfolio = history.getRound(round);
             List<StockHoldingDTO> holdings = new ArrayList<>();
-            for (Map.Entry<String, Integer> e : snapshot.entrySet()) {
-                String symbol = e.getKey();
-                int quantity = e.getValue();
-                if (quantity <= 0)
-                    continue;
-                double price = prices.getOrDefault(symbol, 0.0);
-                String category = STOCK_CATEGORIES.getOrDefault(symbol, "OTHER");
-
-                holdings.add(new StockHoldingDTO(symbol, quantity, category, price));
+            if (portfolio != null) {
+                for (PortfolioHistory.Position position : portfolio.getPositions()) {
+                    holdings.add(toHoldingDTO(position, position.getNextRoundPrice()));
+                }
             }
-
-            roundHoldings.put(displayRound, holdings);
+            roundHoldings.put(round + 1, holdings);
         }
         return roundHoldings;
     }
+
+    private static StockHoldingDTO toHoldingDTO(PortfolioHistory.Position position, double price) {
+        String symbol = position.getSymbol();
+        return new StockHoldingDTO(symbol, position.getQuantity(), STOCK_CATEGORIES.getOrDefault(symbol, "OTHER"),
+                price);
+    }
 }
@@ -1,7 +1,17 @@
 package ch.uzh.ifi.hase.soprafs24.service;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,9 +26,16 @@ import ch.uzh.ifi.hase.soprafs24.repository.UserRepository;
 
 @Service
 @Transactional
-public class UserService {
+public class UserService implements MeterBinder {
+  private static final int TOKEN_CACHE_MAX_ENTRIES = 10_000;
+  private static final long TOKEN_CACHE_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+
   private final Logger log = LoggerFactory.getLogger(UserService.class);
   private final UserRepository userRepository;
+  private final Map<String, CachedToken> tokenCache = new ConcurrentHashMap<>();
+  private final LongAdder tokenCacheHits = new LongAdder();
+  private final LongAdder tokenCacheMisses = new LongAdder();
+  private final LongAdder tokenCacheEvictions = new LongAdder();
 
   @Autowired
   public UserService(@Qualifier("userRepository") UserRepository userRepository) {
@@ -26,13 +43,84 @@ public class UserService {
   }
 
   public void checkAuthentication(String token) {
-    if (token != null && !token.isEmpty() && userRepository.findByToken(token) != null) {
+    if (token != null && !token.isEmpty() && isKnownToken(token)) {
       return;
     }
 
     throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authorization header is missing or incorrect");
   }
 
+  /**
+   * Valid tokens are cached for a few minutes so repeated checks skip the
+   * database. Unknown tokens are never cached.
+   */
+  private boolean isKnownToken(String token) {
+    long now = System.nanoTime();
+    CachedToken cached = tokenCache.get(token);
+    if (cached != null && now - cached.cachedAtNanos < TOKEN_CACHE_TTL_NANOS) {
+      tokenCacheHits.increment();
+      return true;
+    }
+    tokenCacheMisses.increment();
+    if (cached != null && tokenCache.remove(token, cached)) {
+      tokenCacheEvictions.increment();
+    }
+    User user = userRepository.findByToken(token);
+    if (user == null) {
+      return false;
+    }
+    if (tokenCache.size() >= TOKEN_CACHE_MAX_ENTRIES) {
+      evictTokens(now);
+    }
+    tokenCache.put(token, new CachedToken(user.getId(), now));
+    return true;
+  }
+
+  /** Drops expired entries first and, if the cache is still full, arbitrary ones until there is room. */
+  private void evictTokens(long now) {
+    Iterator<CachedToken> entries = tokenCache.values().iterator();
+    while (entries.hasNext()) {
+      if (now - entries.next().cachedAtNanos >= TOKEN_CACHE_TTL_NANOS) {
+        entries.remove();
+        tokenCacheEvictions.increment();
+      }
+    }
+    entries = tokenCache.values().iterator();
+    while (tokenCache.size() >= TOKEN_CACHE_MAX_ENTRIES && entries.hasNext()) {
+      entries.next();
+      entries.remove();
+      tokenCacheEvictions.increment();
+    }
+  }
+
+  private void invalidateTokens(User user) {
+    if (user.getToken() != null) {
+      tokenCache.remove(user.getToken());
+    }
+    if (user.getId() != null) {
+      tokenCache.values().removeIf(cached -> Objects.equals(cached.userId, user.getId()));
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("auth.token.cache.requests", tokenCacheHits, LongAdder::sum)
+        .tag("result", "hit").register(registry);
+    FunctionCounter.builder("auth.token.cache.requests", tokenCacheMisses, LongAdder::sum)
+        .tag("result", "miss").register(registry);
+    FunctionCounter.builder("auth.token.cache.evictions", tokenCacheEvictions, LongAdder::sum)
+        .register(registry);
+    Gauge.builder("auth.token.cache.size", tokenCache, Map::size).register(registry);
+    Gauge.builder("auth.token.cache.hit.ratio", this, UserService::tokenCacheHitRatio)
+        .register(registry);
+  }
+
+  private double tokenCacheHitRatio() {
+    long hits = tokenCacheHits.sum();
+    long lookups = hits + tokenCacheMisses.sum();
+    return lookups == 0 ? 0.0 : (double) hits / lookups;
+  }
+
   public List<User> getUsers() {
     return this.userRepository.findAll();
   }
@@ -75,6 +163,7 @@ public class UserService {
       user.setStatus(UserStatus.ONLINE);
       User savedUser = userRepository.save(user);
       userRepository.flush();
+      invalidateTokens(user);
       return savedUser;
     } else {
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Username or password is incorrect");
@@ -89,6 +178,16 @@ public class UserService {
     user.setStatus(UserStatus.OFFLINE);
     userRepository.save(user);
     userRepository.flush();
+    invalidateTokens(user);
   }
 
+  private static final class CachedToken {
+    private final Long userId;
+    private final long cachedAtNanos;
+
+    private CachedToken(Long userId, long cachedAtNanos) {
+      this.userId = userId;
+      this.cachedAtNanos = cachedAtNanos;
+    }
+  }
 }
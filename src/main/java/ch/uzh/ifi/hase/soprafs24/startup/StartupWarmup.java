@@ -0,0 +1,176 @@
+package ch.uzh.ifi.hase.soprafs24.startup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.SettlementMode;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameViewDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
+import ch.uzh.ifi.hase.soprafs24.service.StockService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Warms the instance before it takes traffic. Runs as an application runner,
+ * so Spring Boot reports readiness ({@code /actuator/health/readiness}) only
+ * after it returns. It first preloads a stock timeline for the first game,
+ * which also warms the JPA metadata, the connection pool and the price
+ * queries. It then plays synthetic games through every engine hot path:
+ * registration, both settlement modes, round changes, the game view JSON
+ * and a hibernation round trip. Each phase is timed as
+ * {@code startup.warmup.phase}. The synthetic games record no engine meters,
+ * so they do not show up in the production latency and rejection figures. A
+ * failing phase is logged and skipped; it never keeps the instance from
+ * starting.
+ */
+@Component
+@ConditionalOnProperty(name = "startup.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+    private static final long WARMUP_GAME_ID_BASE = -1_000_000L;
+    private static final long WARMUP_ROUND_DELAY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final StockService stockService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int games;
+    private final int players;
+
+    public StartupWarmup(StockService stockService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${startup.warmup.games:16}") int games,
+            @Value("${startup.warmup.players:16}") int players) {
+        this.stockService = stockService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.games = games;
+        this.players = players;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long startNanos = System.nanoTime();
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = phase("market_data",
+                stockService::preloadStockTimeline);
+        if (!hasPrices(timeline)) {
+            log.info("Warm-up: no market data available; warming the engine on a synthetic timeline.");
+            timeline = syntheticTimeline();
+        }
+        LinkedHashMap<LocalDate, Map<String, Double>> engineTimeline = timeline;
+        phase("engine", () -> {
+            playSyntheticGames(engineTimeline);
+            return null;
+        });
+        long elapsedNanos = record("total", startNanos);
+        log.info("Warm-up finished in {} ms; reporting ready.", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    private static boolean hasPrices(LinkedHashMap<LocalDate, Map<String, Double>> timeline) {
+        if (timeline == null || timeline.isEmpty()) {
+            return false;
+        }
+        Map<String, Double> firstDay = timeline.values().iterator().next();
+        return firstDay != null && !firstDay.isEmpty();
+    }
+
+    private <T> T phase(String name, Supplier<T> work) {
+        long startNanos = System.nanoTime();
+        try {
+            return work.get();
+        } catch (RuntimeException e) {
+            log.warn("Warm-up phase {} failed and was skipped: {}", name, e.getMessage());
+            return null;
+        } finally {
+            long elapsedNanos = record(name, startNanos);
+            log.info("Warm-up phase {} took {} ms.", name, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    private long record(String phase, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Timer.builder("startup.warmup.phase")
+                .tag("phase", phase)
+                .description("Time spent in each startup warm-up phase")
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        return elapsedNanos;
+    }
+
+    private void playSyntheticGames(LinkedHashMap<LocalDate, Map<String, Double>> timeline) {
+        List<String> symbols = new ArrayList<>(timeline.values().iterator().next().keySet());
+        for (int g = 0; g < games; g++) {
+            GameManager game = new GameManager(WARMUP_GAME_ID_BASE - g, timeline, WARMUP_ROUND_DELAY_MILLIS);
+            game.disableMetrics();
+            game.setSettlementMode(g % 2 == 0 ? SettlementMode.IMMEDIATE : SettlementMode.ROUND_CLOSE);
+            List<Long> userIds = new ArrayList<>();
+            for (long userId = 1; userId <= players; userId++) {
+                userIds.add(userId);
+            }
+            game.registerPlayers(userIds);
+            for (int round = 1; round < timeline.size(); round++) {
+                for (long userId = 1; userId <= players; userId++) {
+                    game.submitTransactions(userId, orders(symbols, round + (int) userId));
+                }
+                game.nextRound();
+            }
+            writeView(game);
+            byte[][] snapshot = new byte[1][];
+            if (game.hibernate(bytes -> snapshot[0] = bytes)) {
+                GameManager restored = GameManager.fromSnapshot(snapshot[0]);
+                restored.disableMetrics();
+                restored.endGame();
+            } else {
+                game.endGame();
+            }
+        }
+    }
+
+    private void writeView(GameManager game) {
+        try {
+            objectMapper.writeValueAsBytes(game.toView(GameViewDTO.ALL_FIELDS));
+            objectMapper.writeValueAsBytes(game.getLeaderBoard());
+        } catch (JsonProcessingException e) {
+            log.debug("Warm-up: could not serialize game view: {}", e.getMessage());
+        }
+    }
+
+    private static List<TransactionRequestDTO> orders(List<String> symbols, int seed) {
+        List<TransactionRequestDTO> orders = new ArrayList<>(4);
+        for (int i = 0; i < 4; i++) {
+            TransactionRequestDTO order = new TransactionRequestDTO();
+            order.setStockId(symbols.get((seed + i) % symbols.size()));
+            order.setQuantity(1 + i);
+            order.setType(i % 2 == 0 ? "BUY" : "SELL");
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private static LinkedHashMap<LocalDate, Map<String, Double>> syntheticTimeline() {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        LocalDate date = LocalDate.of(2024, 1, 2);
+        for (int day = 0; day < 10; day++) {
+            Map<String, Double> prices = new HashMap<>();
+            for (int s = 0; s < 10; s++) {
+                prices.put("WARM" + s, 50.0 + s * 10 + day);
+            }
+            timeline.put(date.plusDays(day), prices);
+        }
+        return timeline;
+    }
+}
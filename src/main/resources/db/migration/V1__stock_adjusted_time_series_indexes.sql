@@ -0,0 +1,41 @@
+-- Time-series layout for STOCK_ADJUSTED: one row per (symbol, date) and a
+-- B-tree on date for the trading-day walks in StockRepository.
+--
+-- On a fresh database Flyway runs before Hibernate, so create the table the
+-- way Hibernate would; on an existing database this is a no-op.
+CREATE TABLE IF NOT EXISTS stock_adjusted (
+    id       BIGSERIAL PRIMARY KEY,
+    currency VARCHAR(255),
+    date     DATE             NOT NULL,
+    price    DOUBLE PRECISION NOT NULL,
+    symbol   VARCHAR(255)     NOT NULL,
+    volume   BIGINT
+);
+
+-- Ingestion only checked for duplicates in application code. Keep the oldest
+-- row of each (symbol, date) before the key goes on.
+DELETE FROM stock_adjusted newer
+USING stock_adjusted older
+WHERE newer.symbol = older.symbol
+  AND newer.date = older.date
+  AND newer.id > older.id;
+
+-- The natural key. Carrying price lets the timeline and chart reads, which
+-- need only symbol, date and price, run as index-only scans.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_stock_adjusted_symbol_date
+    ON stock_adjusted (symbol, date) INCLUDE (price);
+
+-- Serves MIN/next-date probes, ORDER BY date LIMIT n and the date IN (...)
+-- lookups. A BRIN summary on date would be smaller but cannot return rows in
+-- date order, so it would not replace this index, only add write cost.
+--
+-- The historical backfill was loaded symbol by symbol, so rows of one date
+-- are spread over the table. Rewriting it in date order makes date lookups
+-- touch fewer pages, but CLUSTER holds an ACCESS EXCLUSIVE lock on the table
+-- for the whole rewrite, so it is not part of this migration. Run it by hand
+-- in a maintenance window if needed:
+--   CLUSTER stock_adjusted USING ix_stock_adjusted_date; ANALYZE stock_adjusted;
+CREATE INDEX IF NOT EXISTS ix_stock_adjusted_date
+    ON stock_adjusted (date);
+
+ANALYZE stock_adjusted;
@@ -0,0 +1,15 @@
+-- One row per date in STOCK_ADJUSTED with the number of symbols quoted on it.
+-- Ingestion keeps it current (TradingCalendarRepository.refreshDates); game
+-- start samples its ten-day windows from here instead of the price table.
+CREATE TABLE IF NOT EXISTS trading_calendar (
+    date         DATE    PRIMARY KEY,
+    symbol_count INTEGER NOT NULL
+);
+
+INSERT INTO trading_calendar (date, symbol_count)
+SELECT date, COUNT(*)
+FROM stock_adjusted
+GROUP BY date
+ON CONFLICT (date) DO UPDATE SET symbol_count = EXCLUDED.symbol_count;
+
+ANALYZE trading_calendar;
@@ -0,0 +1,3 @@
+-- Row version for optimistic locking of lobbies (Lobby.version). Databases
+-- created after this migration get the column from Hibernate instead.
+ALTER TABLE IF EXISTS lobby ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- Lobbies created before LOBBY.expires_at existed have no deadline. Give
+-- them the one they would have had, created_at + time_limit_seconds, so the
+-- regular expiry sweep closes them when they run out instead of all at once
+-- on deploy. Databases created after this migration have no such rows.
+ALTER TABLE IF EXISTS lobby ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP;
+
+DO $$
+BEGIN
+    IF to_regclass('lobby') IS NOT NULL THEN
+        UPDATE lobby
+        SET expires_at = created_at + time_limit_seconds * INTERVAL '1 second'
+        WHERE expires_at IS NULL;
+    END IF;
+END
+$$;
@@ -0,0 +1,102 @@
+package ch.uzh.ifi.hase.soprafs24.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ch.uzh.ifi.hase.soprafs24.entity.GameCheckpoint;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.repository.GameCheckpointRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
+
+public class GameCheckpointerTest {
+    private GameCheckpointRepository gameCheckpointRepository;
+    private GameCheckpointer checkpointer;
+
+    @BeforeEach
+    public void setup() {
+        gameCheckpointRepository = mock(GameCheckpointRepository.class);
+        checkpointer = new GameCheckpointer(gameCheckpointRepository);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        InMemoryGameRegistry.clear();
+    }
+
+    @Test
+    public void checkpointAndRestore_keepPortfoliosAndRound() {
+        GameManager game = game(1L);
+        game.nextRound();
+        TransactionRequestDTO buy = new TransactionRequestDTO();
+        buy.setStockId("AAPL");
+        buy.setQuantity(3);
+        buy.setType("BUY");
+        game.submitTransactions(7L, List.of(buy));
+
+        assertTrue(checkpointer.checkpoint(game));
+        ArgumentCaptor<GameCheckpoint> saved = ArgumentCaptor.forClass(GameCheckpoint.class);
+        verify(gameCheckpointRepository).save(saved.capture());
+        when(gameCheckpointRepository.findById(1L)).thenReturn(Optional.of(saved.getValue()));
+
+        GameManager restored = checkpointer.restore(1L);
+
+        assertEquals(2, restored.getCurrentRound());
+        assertEquals(3, restored.getPlayerState(7L).getPlayerStocks().get("AAPL"));
+        assertEquals(game.getPlayerState(7L).getCashBalance(), restored.getPlayerState(7L).getCashBalance());
+        game.endGame();
+    }
+
+    @Test
+    public void checkpoint_endedGame_writesNothing() {
+        GameManager game = game(1L);
+        game.endGame();
+
+        assertFalse(checkpointer.checkpoint(game));
+        verify(gameCheckpointRepository, never()).save(any());
+    }
+
+    @Test
+    public void restore_noCheckpoint_returnsNull() {
+        when(gameCheckpointRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertNull(checkpointer.restore(1L));
+    }
+
+    @Test
+    public void checkpointGames_removesCheckpointsOfEndedGames() {
+        GameManager game = game(1L);
+        game.addRoundListener(checkpointer);
+        game.endGame();
+
+        checkpointer.checkpointGames();
+
+        verify(gameCheckpointRepository).deleteById(1L);
+    }
+
+    private static GameManager game(Long gameId) {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 1, 1), Map.of("AAPL", 100.0));
+        timeline.put(LocalDate.of(2024, 1, 2), Map.of("AAPL", 110.0));
+        GameManager game = new GameManager(gameId, timeline, 60_000L);
+        game.registerPlayer(7L);
+        InMemoryGameRegistry.registerGame(gameId, game);
+        game.startGame();
+        return game;
+    }
+}
@@ -0,0 +1,164 @@
+package ch.uzh.ifi.hase.soprafs24.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import ch.uzh.ifi.hase.soprafs24.entity.GameLease;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.GameRoundListener;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.repository.GameLeaseRepository;
+
+public class GameLeaseManagerTest {
+    private GameLeaseRepository gameLeaseRepository;
+    private GameLeaseManager leaseManager;
+
+    @BeforeEach
+    public void setup() {
+        gameLeaseRepository = mock(GameLeaseRepository.class);
+        leaseManager = new GameLeaseManager(gameLeaseRepository, "node-a", "http://localhost:8080", true, 15_000L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        InMemoryGameRegistry.clear();
+    }
+
+    @Test
+    public void acquire_claimsExistingLease() {
+        when(gameLeaseRepository.tryClaim(eq(1L), eq("node-a"), eq("http://localhost:8080"), anyLong(), anyLong()))
+                .thenReturn(1);
+
+        assertTrue(leaseManager.acquire(1L));
+        verify(gameLeaseRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void acquire_liveLeaseOnOtherNode_returnsFalse() {
+        when(gameLeaseRepository.tryClaim(eq(1L), any(), any(), anyLong(), anyLong())).thenReturn(0);
+        when(gameLeaseRepository.existsById(1L)).thenReturn(true);
+
+        assertFalse(leaseManager.acquire(1L));
+        verify(gameLeaseRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void acquire_noLease_insertsOne() {
+        when(gameLeaseRepository.tryClaim(eq(1L), any(), any(), anyLong(), anyLong())).thenReturn(0);
+        when(gameLeaseRepository.existsById(1L)).thenReturn(false);
+
+        assertTrue(leaseManager.acquire(1L));
+        verify(gameLeaseRepository).saveAndFlush(any(GameLease.class));
+    }
+
+    @Test
+    public void acquire_concurrentInsert_returnsFalse() {
+        when(gameLeaseRepository.tryClaim(eq(1L), any(), any(), anyLong(), anyLong())).thenReturn(0);
+        when(gameLeaseRepository.existsById(1L)).thenReturn(false);
+        when(gameLeaseRepository.saveAndFlush(any(GameLease.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertFalse(leaseManager.acquire(1L));
+    }
+
+    @Test
+    public void renewLeases_lostLease_evictsLocalGameWithoutEndingIt() {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 1, 1), Map.of("AAPL", 100.0));
+        GameManager game = new GameManager(1L, timeline, 60_000L);
+        GameRoundListener listener = mock(GameRoundListener.class);
+        game.addRoundListener(leaseManager);
+        game.addRoundListener(listener);
+        InMemoryGameRegistry.registerGame(1L, game);
+        game.startGame();
+        when(gameLeaseRepository.renew(eq(1L), eq("node-a"), anyLong())).thenReturn(0);
+        when(gameLeaseRepository.existsById(1L)).thenReturn(true);
+
+        leaseManager.renewLeases();
+
+        assertFalse(game.isActive());
+        assertFalse(InMemoryGameRegistry.isGameActive(1L));
+        verify(listener, never()).onGameEnded(any());
+        verify(gameLeaseRepository, never()).release(any(), any());
+    }
+
+    @Test
+    public void renewLeases_leaseReleasedUnderRunningGame_claimsItAgain() {
+        GameManager game = new GameManager(1L, timeline(), 60_000L);
+        InMemoryGameRegistry.registerGame(1L, game);
+        game.startGame();
+        when(gameLeaseRepository.renew(eq(1L), eq("node-a"), anyLong())).thenReturn(0);
+        when(gameLeaseRepository.existsById(1L)).thenReturn(false);
+
+        leaseManager.renewLeases();
+
+        assertTrue(game.isActive());
+        verify(gameLeaseRepository).saveAndFlush(any(GameLease.class));
+        game.endGame();
+    }
+
+    @Test
+    public void onGameEnded_releasesLeaseOffTheCallingThread() throws Exception {
+        GameManager game = new GameManager(1L, timeline(), 60_000L);
+        AtomicReference<Thread> releasedOn = new AtomicReference<>();
+        when(gameLeaseRepository.release(1L, "node-a")).thenAnswer(invocation -> {
+            releasedOn.set(Thread.currentThread());
+            return 1;
+        });
+
+        leaseManager.onGameEnded(game);
+        leaseManager.shutdown();
+
+        verify(gameLeaseRepository).release(1L, "node-a");
+        assertNotEquals(Thread.currentThread(), releasedOn.get());
+    }
+
+    @Test
+    public void onGameEnded_gameBackInRegistry_keepsLease() throws Exception {
+        GameManager game = new GameManager(1L, timeline(), 60_000L);
+        InMemoryGameRegistry.registerGame(1L, game);
+
+        leaseManager.onGameEnded(game);
+        leaseManager.shutdown();
+
+        verify(gameLeaseRepository, never()).release(any(), any());
+    }
+
+    @Test
+    public void constructor_multiNodeWithoutNodeUrl_fails() {
+        assertThrows(IllegalStateException.class,
+                () -> new GameLeaseManager(gameLeaseRepository, "node-a", "", true, 15_000L));
+    }
+
+    @Test
+    public void isExpired_comparesAgainstNow() {
+        GameLease lease = new GameLease();
+        lease.setExpiresAt(System.currentTimeMillis() - 1);
+        assertTrue(leaseManager.isExpired(lease));
+
+        lease.setExpiresAt(System.currentTimeMillis() + 60_000L);
+        assertFalse(leaseManager.isExpired(lease));
+    }
+
+    private static LinkedHashMap<LocalDate, Map<String, Double>> timeline() {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 1, 1), Map.of("AAPL", 100.0));
+        return timeline;
+    }
+}
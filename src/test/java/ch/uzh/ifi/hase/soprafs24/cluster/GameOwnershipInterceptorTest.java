@@ -0,0 +1,69 @@
+package ch.uzh.ifi.hase.soprafs24.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.Map;
+import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.HandlerMapping;
+import ch.uzh.ifi.hase.soprafs24.entity.GameLease;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.service.GameService;
+
+public class GameOwnershipInterceptorTest {
+    private GameLeaseManager gameLeaseManager;
+    private GameService gameService;
+    private GameOwnershipInterceptor interceptor;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+
+    @BeforeEach
+    public void setup() {
+        gameLeaseManager = mock(GameLeaseManager.class);
+        gameService = mock(GameService.class);
+        interceptor = new GameOwnershipInterceptor(gameLeaseManager, gameService);
+        request = mock(HttpServletRequest.class);
+        response = mock(HttpServletResponse.class);
+        when(request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE)).thenReturn(Map.of("gameId", "3"));
+
+        GameLease lease = new GameLease();
+        lease.setGameId(3L);
+        lease.setOwnerNodeId("node-b");
+        lease.setOwnerUrl("http://node-b:8080");
+        lease.setExpiresAt(System.currentTimeMillis() - 1);
+        when(gameLeaseManager.findLease(3L)).thenReturn(Optional.of(lease));
+        when(gameLeaseManager.isExpired(lease)).thenReturn(true);
+    }
+
+    @Test
+    public void preHandle_expiredLease_takesGameOverAndHandlesRequest() throws Exception {
+        when(gameLeaseManager.acquire(3L)).thenReturn(true);
+        when(gameService.recoverGame(3L)).thenReturn(mock(GameManager.class));
+
+        assertTrue(interceptor.preHandle(request, response, null));
+
+        verify(gameLeaseManager, never()).release(any());
+        verify(response, never()).sendError(any(Integer.class), anyString());
+    }
+
+    @Test
+    public void preHandle_expiredLeaseWithoutCheckpoint_releasesLeaseAndAnswersGone() throws Exception {
+        when(gameLeaseManager.acquire(3L)).thenReturn(true);
+        when(gameService.recoverGame(3L)).thenReturn(null);
+
+        assertFalse(interceptor.preHandle(request, response, null));
+
+        verify(gameLeaseManager).release(3L);
+        verify(response).sendError(eq(410), anyString());
+    }
+}
@@ -6,10 +6,12 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import java.time.LocalDate;
 import java.util.LinkedHashMap;
@@ -19,13 +21,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.server.ResponseStatusException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import ch.uzh.ifi.hase.soprafs24.entity.Game;
 import ch.uzh.ifi.hase.soprafs24.game.GameManager;
 import ch.uzh.ifi.hase.soprafs24.game.PlayerState;
+import ch.uzh.ifi.hase.soprafs24.game.RoundPrices;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
 import ch.uzh.ifi.hase.soprafs24.service.GameService;
 
 @WebMvcTest(GameController.class)
@@ -78,7 +85,10 @@ public class GameControllerTest {
         GameManager realGameManager = new GameManager(gameId, timelineData, roundDelayMillis);
         given(gameService.getGame(gameId)).willReturn(realGameManager);
         MockHttpServletRequestBuilder getRequest = get("/game/{gameId}", gameId);
-        mockMvc.perform(getRequest)
+        MvcResult result = mockMvc.perform(getRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.gameId", is(realGameManager.getGameId().intValue())))
                 .andExpect(jsonPath("$.stockTimeline", notNullValue()))
@@ -92,15 +102,43 @@ public class GameControllerTest {
     }
 
     @Test
-    public void getGame_gameNotFound_serviceReturnsNull_returnsOkWithEmptyContent() throws Exception {
+    public void getGame_withFields_returnsOnlyRequestedFields() throws Exception {
+        Long gameId = 190L;
+        LinkedHashMap<LocalDate, Map<String, Double>> timelineData = new LinkedHashMap<>();
+        timelineData.put(LocalDate.now(), Map.of("AAPL", 150.0));
+        GameManager realGameManager = new GameManager(gameId, timelineData, 60000L);
+        realGameManager.registerPlayer(7L);
+        given(gameService.getGame(gameId)).willReturn(realGameManager);
+
+        MvcResult result = mockMvc
+                .perform(get("/game/{gameId}", gameId).param("fields", "currentRound, playerStates"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currentRound", is(1)))
+                .andExpect(jsonPath("$.playerStates.7.cashBalance", is(10000.0)))
+                .andExpect(jsonPath("$.gameId").doesNotExist())
+                .andExpect(jsonPath("$.stockTimeline").doesNotExist())
+                .andExpect(jsonPath("$.leaderBoard").doesNotExist());
+    }
+
+    @Test
+    public void getGame_unknownField_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/game/{gameId}", 191L).param("fields", "currentRound,secrets"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getGame_gameNotFound_returnsNotFound() throws Exception {
         Long gameId = 189L;
-        given(gameService.getGame(gameId)).willReturn(null);
+        given(gameService.getGame(gameId))
+                .willThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found for id: " + gameId));
 
         MockHttpServletRequestBuilder getRequest = get("/game/{gameId}", gameId);
 
         mockMvc.perform(getRequest)
-                .andExpect(status().isOk())
-                .andExpect(content().string(""));
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -246,6 +284,38 @@ public class GameControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void getTransactions_returnsPageWithNextCursor() throws Exception {
+        Long gameId = 1L;
+        Long userId = 1L;
+        GameManager mockGameManager = mock(GameManager.class);
+        PlayerState playerState = new PlayerState(userId);
+        TransactionRequestDTO buy = new TransactionRequestDTO();
+        buy.setStockId("AAPL");
+        buy.setQuantity(2);
+        buy.setType("BUY");
+        RoundPrices prices = RoundPrices.of(Map.of("AAPL", 150.0));
+        for (int round = 1; round <= 3; round++) {
+            playerState.applyTransaction(buy, prices, round);
+        }
+        given(gameService.getGame(gameId)).willReturn(mockGameManager);
+        when(mockGameManager.getPlayerState(userId)).thenReturn(playerState);
+
+        mockMvc.perform(get("/game/{gameId}/players/{userId}/transactions", gameId, userId)
+                .param("cursor", "1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].stockId", is("AAPL")))
+                .andExpect(jsonPath("$.transactions[0].price", is(150.0)))
+                .andExpect(jsonPath("$.transactions[0].round", is(2)))
+                .andExpect(jsonPath("$.nextCursor", is(2)));
+    }
+
+    @Test
+    public void getTransactions_limitTooLarge_returns400() throws Exception {
+        mockMvc.perform(get("/game/{gameId}/players/{userId}/transactions", 1L, 1L).param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void getRoundStatus_returnsOk() throws Exception {
         Long gameId = 1L;
@@ -0,0 +1,50 @@
+package ch.uzh.ifi.hase.soprafs24.controller;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameDashboardDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.RoundStatusDTO;
+import ch.uzh.ifi.hase.soprafs24.service.GameDashboardService;
+
+@WebMvcTest(GameDashboardController.class)
+public class GameDashboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private GameDashboardService gameDashboardService;
+
+    @Test
+    public void getDashboard_changedSections_returnsOnlyThoseSections() throws Exception {
+        GameDashboardDTO dashboard = new GameDashboardDTO();
+        dashboard.setVersion("1-5eed.12.0");
+        dashboard.setStatus(new RoundStatusDTO(true, true, 5000L));
+        given(gameDashboardService.getDashboard(1L, 10L, "1-5eed.7.0")).willReturn(dashboard);
+
+        mockMvc.perform(get("/game/{gameId}/dashboard", 1L).param("userId", "10").param("since", "1-5eed.7.0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is("1-5eed.12.0")))
+                .andExpect(jsonPath("$.status.allSubmitted", is(true)))
+                .andExpect(jsonPath("$.leaderBoard").doesNotExist())
+                .andExpect(jsonPath("$.news").doesNotExist());
+    }
+
+    @Test
+    public void getDashboard_nothingChanged_returnsNotModified() throws Exception {
+        given(gameDashboardService.getDashboard(1L, 10L, "1-5eed.12.0")).willReturn(null);
+
+        mockMvc.perform(get("/game/{gameId}/dashboard", 1L).param("userId", "10").param("since", "1-5eed.12.0"))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+}
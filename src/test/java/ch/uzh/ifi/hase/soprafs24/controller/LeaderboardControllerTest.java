@@ -1,8 +1,11 @@
 package ch.uzh.ifi.hase.soprafs24.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -11,19 +14,25 @@ import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.WebRequest;
 import ch.uzh.ifi.hase.soprafs24.game.GameManager;
 import ch.uzh.ifi.hase.soprafs24.game.LeaderBoardEntry;
+import ch.uzh.ifi.hase.soprafs24.game.Money;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameResultsDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.LeaderBoardEntryGetDTO;
+import ch.uzh.ifi.hase.soprafs24.service.GameResultService;
 import ch.uzh.ifi.hase.soprafs24.service.GameService;
 
 public class LeaderboardControllerTest {
     private GameService gameService;
+    private GameResultService gameResultService;
     private LeaderBoardController controller;
 
     @BeforeEach
     public void setup() {
         gameService = mock(GameService.class);
-        controller = new LeaderBoardController(gameService);
+        gameResultService = mock(GameResultService.class);
+        controller = new LeaderBoardController(gameService, gameResultService);
 
     }
 
@@ -32,11 +41,11 @@ public class LeaderboardControllerTest {
         Long gameId = 1L;
         GameManager mockGameManager = mock(GameManager.class);
         List<LeaderBoardEntry> mockLeaderboard = Arrays.asList(
-                new LeaderBoardEntry(101L, 12345.67),
-                new LeaderBoardEntry(102L, 11000.00));
+                new LeaderBoardEntry(101L, Money.ofDecimal(12345.67)),
+                new LeaderBoardEntry(102L, Money.ofDecimal(11000.00)));
         when(gameService.getGame(gameId)).thenReturn(mockGameManager);
         when(mockGameManager.getLeaderBoard()).thenReturn(mockLeaderboard);
-        List<LeaderBoardEntryGetDTO> result = controller.getLeaderBoard(gameId);
+        List<LeaderBoardEntryGetDTO> result = controller.getLeaderBoard(gameId, mock(WebRequest.class));
         assertEquals(2, result.size());
         assertEquals(101L, result.get(0).getUserId());
         assertEquals(12345.67, result.get(0).getTotalAssets(), 0.01);
@@ -50,10 +59,41 @@ public class LeaderboardControllerTest {
         GameManager mockGameManager = mock(GameManager.class);
         when(gameService.getGame(gameId)).thenReturn(mockGameManager);
         when(mockGameManager.getLeaderBoard()).thenReturn(List.of());
-        List<LeaderBoardEntryGetDTO> result = controller.getLeaderBoard(gameId);
+        List<LeaderBoardEntryGetDTO> result = controller.getLeaderBoard(gameId, mock(WebRequest.class));
         assertTrue(result.isEmpty(), "Leaderboard should be empty if no players");
     }
 
+    @Test
+    public void testGetLeaderBoard_notModified_skipsBuildingDTOs() {
+        Long gameId = 3L;
+        GameManager mockGameManager = mock(GameManager.class);
+        WebRequest request = mock(WebRequest.class);
+        when(gameService.getGame(gameId)).thenReturn(mockGameManager);
+        when(mockGameManager.getLeaderBoardVersion()).thenReturn(7L);
+        when(mockGameManager.getETag("leader", 7L)).thenReturn("3-abc-leader-7");
+        when(request.checkNotModified("3-abc-leader-7")).thenReturn(true);
+        assertNull(controller.getLeaderBoard(gameId, request));
+        verify(mockGameManager, never()).getLeaderBoard();
+    }
+
+    @Test
+    public void testGetLeaderBoard_endedGame_returnsFinalLeaderboard() {
+        Long gameId = 4L;
+        LeaderBoardEntryGetDTO winner = new LeaderBoardEntryGetDTO();
+        winner.setUserId(101L);
+        winner.setTotalAssets(15000.0);
+        GameResultsDTO results = new GameResultsDTO();
+        results.setGameId(gameId);
+        results.setLeaderBoard(List.of(winner));
+        when(gameService.isGameActive(gameId)).thenReturn(false);
+        when(gameResultService.getResults(gameId)).thenReturn(results);
+
+        List<LeaderBoardEntryGetDTO> result = controller.getLeaderBoard(gameId, mock(WebRequest.class));
+
+        assertEquals(List.of(winner), result);
+        verify(gameService, never()).getGame(gameId);
+    }
+
     @Test
     public void testLeaderboardRanksPlayersByTotalAssets() {
         LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
@@ -11,6 +11,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -27,8 +28,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
 import ch.uzh.ifi.hase.soprafs24.rest.dto.StockHoldingDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.StockPriceGetDTO;
+import ch.uzh.ifi.hase.soprafs24.service.GameResultService;
 import ch.uzh.ifi.hase.soprafs24.service.StockService;
 
 @WebMvcTest(StockController.class)
@@ -40,6 +46,11 @@ public class StockControllerTest {
     @MockBean
     private StockService stockService;
 
+    @MockBean
+    private GameResultService gameResultService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
     private List<StockPriceGetDTO> mockStockPrices;
     private List<StockHoldingDTO> mockHoldings;
     private Map<String, String> mockCategories;
@@ -117,7 +128,7 @@ public class StockControllerTest {
     @Test
     public void testGetPrice_WithoutParams_ReturnsCurrentRoundPrices() throws Exception {
         Long gameId = 3L;
-        when(stockService.getCurrentRoundStockPrices(gameId)).thenReturn(mockStockPrices);
+        when(stockService.getCurrentRoundStockPricesJson(gameId)).thenReturn(toJson(mockStockPrices));
         mockMvc.perform(get("/api/stocks/{gameId}/stocks", gameId)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -126,8 +137,8 @@ public class StockControllerTest {
                 .andExpect(jsonPath("$[0].price", is(150.25)))
                 .andExpect(jsonPath("$[1].symbol", is("MSFT")))
                 .andExpect(jsonPath("$[2].symbol", is("TSLA")));
-        verify(stockService, times(1)).getCurrentRoundStockPrices(gameId);
-        verify(stockService, never()).getStockPrice(any(), any(), any());
+        verify(stockService, times(1)).getCurrentRoundStockPricesJson(gameId);
+        verify(stockService, never()).getStockPriceJson(any(), any(), any());
     }
 
     @Test
@@ -136,7 +147,7 @@ public class StockControllerTest {
         String symbol = "AAPL";
         Integer round = 2;
         List<StockPriceGetDTO> singleStockPrice = List.of(createStockPriceDTO("AAPL", 145.50));
-        when(stockService.getStockPrice(gameId, symbol, round)).thenReturn(singleStockPrice);
+        when(stockService.getStockPriceJson(gameId, symbol, round)).thenReturn(toJson(singleStockPrice));
         mockMvc.perform(get("/api/stocks/{gameId}/stocks", gameId)
                 .param("symbol", symbol)
                 .param("round", round.toString())
@@ -145,8 +156,31 @@ public class StockControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].symbol", is("AAPL")))
                 .andExpect(jsonPath("$[0].price", is(145.50)));
-        verify(stockService, times(1)).getStockPrice(gameId, symbol, round);
-        verify(stockService, never()).getCurrentRoundStockPrices(any());
+        verify(stockService, times(1)).getStockPriceJson(gameId, symbol, round);
+        verify(stockService, never()).getCurrentRoundStockPricesJson(any());
+    }
+
+    @Test
+    public void testGetPrice_MatchingETag_ReturnsNotModifiedWithoutBuildingBody() throws Exception {
+        Long gameId = 3L;
+        when(stockService.getPricesETag(gameId, null, null)).thenReturn("3-abc-prices-4-1");
+        mockMvc.perform(get("/api/stocks/{gameId}/stocks", gameId)
+                .header("If-None-Match", "\"3-abc-prices-4-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3-abc-prices-4-1\""));
+        verify(stockService, never()).getCurrentRoundStockPricesJson(any());
+    }
+
+    @Test
+    public void testGetPrice_StaleETag_ReturnsBodyWithNewETag() throws Exception {
+        Long gameId = 3L;
+        when(stockService.getPricesETag(gameId, null, null)).thenReturn("3-abc-prices-5-1");
+        when(stockService.getCurrentRoundStockPricesJson(gameId)).thenReturn(toJson(mockStockPrices));
+        mockMvc.perform(get("/api/stocks/{gameId}/stocks", gameId)
+                .header("If-None-Match", "\"3-abc-prices-4-1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3-abc-prices-5-1\""))
+                .andExpect(jsonPath("$", hasSize(3)));
     }
 
     @Test
@@ -168,4 +202,8 @@ public class StockControllerTest {
         verify(stockService, times(1)).getCategoryMap();
         verify(stockService, times(1)).getPlayerHoldings(userId, gameId);
     }
+
+    private byte[] toJson(List<StockPriceGetDTO> prices) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(prices);
+    }
 }
@@ -1,7 +1,9 @@
 package ch.uzh.ifi.hase.soprafs24.controller;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -15,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import ch.uzh.ifi.hase.soprafs24.game.GameManager;
 import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
@@ -55,10 +58,13 @@ class TransactionControllerTest {
         requestDTO.setQuantity(10);
         requestDTO.setType("BUY");
         List<TransactionRequestDTO> requestDTOs = List.of(requestDTO);
-        mockMvc.perform(post("/api/transaction/{gameId}/submit", gameId)
+        MvcResult result = mockMvc.perform(post("/api/transaction/{gameId}/submit", gameId)
                 .param("userId", String.valueOf(userId))
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(requestDTOs)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Transactions submitted."));
     }
@@ -71,10 +77,13 @@ class TransactionControllerTest {
         requestDTO.setQuantity(10);
         requestDTO.setType("BUY");
         List<TransactionRequestDTO> requestDTOs = List.of(requestDTO);
-        mockMvc.perform(post("/api/transaction/{gameId}/submit", gameId)
+        MvcResult result = mockMvc.perform(post("/api/transaction/{gameId}/submit", gameId)
                 .param("userId", String.valueOf(userId))
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(requestDTOs)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Game not found."));
     }
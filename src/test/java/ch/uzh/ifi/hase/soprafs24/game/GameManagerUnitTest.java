@@ -1,13 +1,26 @@
 package ch.uzh.ifi.hase.soprafs24.game;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
 
 @DisplayName("GameManager ranks players by total assets")
 class GameManagerUnitTest {
@@ -40,4 +53,140 @@ class GameManagerUnitTest {
         assertEquals(2L, board.get(1).getUserId(), "rank 2 should be player 2");
         assertEquals(1L, board.get(2).getUserId(), "rank 3 should be player 1");
     }
+
+    @Test
+    void duplicateSubmission_countsRejectionByReason() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            manager.submitTransactions(1L, List.of());
+            manager.submitTransactions(1L, List.of());
+            assertEquals(1.0, registry.find("game.submissions.rejected")
+                    .tag("reason", "duplicate_round").counter().count());
+            assertEquals(2L, registry.find("game.engine.operation")
+                    .tag("operation", "submit_transactions").timer().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void submitTransactionsAsync_completesAfterTheLoopAppliedIt() {
+        CompletableFuture<?>[] submissions = new CompletableFuture<?>[3];
+        for (int i = 0; i < submissions.length; i++) {
+            submissions[i] = manager.submitTransactionsAsync((long) i + 1, List.of());
+        }
+        CompletableFuture.allOf(submissions).join();
+
+        assertTrue(manager.haveAllPlayersSubmittedForCurrentRound());
+    }
+
+    @Test
+    void registerPlayer_duplicate_rethrowsFromLoop() {
+        assertThrows(IllegalStateException.class, () -> manager.registerPlayer(1L));
+    }
+
+    @Test
+    void registerPlayers_duplicateInBatch_registersNobody() {
+        assertThrows(IllegalStateException.class, () -> manager.registerPlayers(List.of(4L, 5L, 4L)));
+        assertEquals(3, manager.getPlayerStates().size());
+
+        manager.registerPlayers(List.of(4L, 5L));
+        assertEquals(5, manager.getPlayerStates().size());
+        assertEquals(5, manager.getLeaderBoard().size());
+    }
+
+    @Test
+    void roundCloseSettlement_appliesQueuedOrdersWhenTheRoundAdvances() {
+        manager.setSettlementMode(SettlementMode.ROUND_CLOSE);
+        manager.submitTransactionsAsync(1L, List.of(order("AAPL", 5, "BUY"))).join();
+        manager.submitTransactionsAsync(2L, List.of(order("TSLA", 100, "BUY"))).join();
+
+        assertEquals(10000.0, manager.getPlayerState(1L).getCashBalance());
+        assertFalse(manager.haveAllPlayersSubmittedForCurrentRound());
+
+        manager.nextRound();
+
+        assertEquals(9500.0, manager.getPlayerState(1L).getCashBalance());
+        assertEquals(15, manager.getPlayerState(1L).getPlayerStocks().get("AAPL"));
+        // 20000 is more than player 2 can afford, so the order is skipped like in immediate mode
+        assertEquals(10000.0, manager.getPlayerState(2L).getCashBalance());
+        assertEquals(20, manager.getPlayerState(2L).getPlayerStocks().get("TSLA"));
+    }
+
+    @Test
+    void roundCloseSettlement_ignoresSecondSubmissionInTheSameRound() {
+        manager.setSettlementMode(SettlementMode.ROUND_CLOSE);
+        manager.submitTransactionsAsync(1L, List.of(order("AAPL", 1, "BUY"))).join();
+        manager.submitTransactionsAsync(1L, List.of(order("AAPL", 50, "BUY"))).join();
+
+        manager.nextRound();
+
+        assertEquals(9900.0, manager.getPlayerState(1L).getCashBalance());
+        assertEquals(11, manager.getPlayerState(1L).getPlayerStocks().get("AAPL"));
+    }
+
+    @Test
+    void roundCloseSettlement_submissionRacingNextRound_isSettledOrRefused() throws Exception {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2025, 4, 9), Map.of("AAPL", 100.0));
+        timeline.put(LocalDate.of(2025, 4, 10), Map.of("AAPL", 100.0));
+        GameManager game = new GameManager(2L, timeline, 60_000);
+        game.setSettlementMode(SettlementMode.ROUND_CLOSE);
+        int players = 200;
+        for (long userId = 1; userId <= players; userId++) {
+            game.registerPlayer(userId);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CompletableFuture<Void>>> submissions = new ArrayList<>();
+        try {
+            for (long userId = 1; userId <= players; userId++) {
+                long player = userId;
+                submissions.add(pool.submit(() -> {
+                    start.await();
+                    return game.submitTransactionsAsync(player, List.of(order("AAPL", 1, "BUY")));
+                }));
+            }
+            start.countDown();
+            game.nextRound();
+            int acknowledged = 0;
+            for (Future<CompletableFuture<Void>> submission : submissions) {
+                try {
+                    submission.get().join();
+                    acknowledged++;
+                } catch (CompletionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+            game.endGame();
+
+            int settled = 0;
+            for (long userId = 1; userId <= players; userId++) {
+                settled += game.getPlayerState(userId).getTransactionHistory().size();
+            }
+            assertEquals(acknowledged, settled, "every acknowledged order is settled exactly once");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void roundCloseSettlement_refusesOrdersAfterTheGameEnded() {
+        manager.setSettlementMode(SettlementMode.ROUND_CLOSE);
+        manager.endGame();
+
+        CompletionException refused = assertThrows(CompletionException.class,
+                () -> manager.submitTransactionsAsync(1L, List.of(order("AAPL", 1, "BUY"))).join());
+        assertTrue(refused.getCause() instanceof IllegalStateException);
+    }
+
+    private static TransactionRequestDTO order(String stockId, int quantity, String type) {
+        TransactionRequestDTO dto = new TransactionRequestDTO();
+        dto.setStockId(stockId);
+        dto.setQuantity(quantity);
+        dto.setType(type);
+        return dto;
+    }
 }
@@ -0,0 +1,109 @@
+package ch.uzh.ifi.hase.soprafs24.game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
+
+class GameSnapshotTest {
+    private GameManager game;
+
+    @BeforeEach
+    void setUp() {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 1, 1), Map.of("AAPL", 100.0));
+        timeline.put(LocalDate.of(2024, 1, 2), Map.of("AAPL", 110.0));
+        timeline.put(LocalDate.of(2024, 1, 3), Map.of("AAPL", 120.0));
+        timeline.put(LocalDate.of(2024, 1, 4), Map.of("AAPL", 130.0));
+        game = new GameManager(7L, timeline, 60_000L);
+        game.registerPlayer(1L);
+        game.registerPlayer(2L);
+        InMemoryGameRegistry.registerGame(7L, game);
+        game.startGame();
+
+        TransactionRequestDTO buy = new TransactionRequestDTO();
+        buy.setStockId("AAPL");
+        buy.setQuantity(10);
+        buy.setType("BUY");
+        game.submitTransactions(1L, List.of(buy));
+        game.nextRound();
+    }
+
+    @AfterEach
+    void tearDown() {
+        InMemoryGameRegistry.clear();
+    }
+
+    @Test
+    void hibernate_evictsGameAndRoundTripsPlayerState() {
+        AtomicReference<byte[]> stored = new AtomicReference<>();
+
+        assertTrue(game.hibernate(stored::set));
+
+        assertFalse(game.isActive());
+        assertFalse(InMemoryGameRegistry.isGameActive(7L));
+        GameManager restored = GameManager.fromSnapshot(stored.get());
+        assertEquals(2, restored.getCurrentRound());
+        assertEquals(game.getNextRoundStartTimeMillis(), restored.getNextRoundStartTimeMillis());
+        assertTrue(restored.getVersion() > game.getVersion());
+        PlayerState buyer = restored.getPlayerState(1L);
+        assertEquals(game.getPlayerState(1L).getCashBalance(), buyer.getCashBalance(), 0.001);
+        assertEquals(Map.of("AAPL", 10), buyer.getPlayerStocks());
+        assertEquals(1, buyer.getTransactionHistory().size());
+        assertTrue(buyer.hasSubmittedForRound(1));
+        assertEquals(Map.of("AAPL", 10), buyer.getHoldingsForRound(1));
+        PortfolioHistory.RoundPortfolio round1 = buyer.getPortfolioHistory().getRound(1);
+        assertNotNull(round1);
+        assertEquals(110.0, round1.getPositions().get(0).getNextRoundPrice(), 0.001);
+        restored.endGame();
+    }
+
+    @Test
+    void resume_closesRoundsThatFellDueWhileHibernated() {
+        AtomicReference<byte[]> stored = new AtomicReference<>();
+        game.hibernate(stored::set);
+        GameManager restored = GameManager.fromSnapshot(stored.get());
+        restored.restore(2, restored.getStartedAt(), System.currentTimeMillis() - 90_000L, restored.getVersion(),
+                restored.getPlayerStates().values());
+
+        restored.resume();
+
+        assertEquals(4, restored.getCurrentRound());
+        assertTrue(restored.getNextRoundStartTimeMillis() > System.currentTimeMillis());
+        restored.endGame();
+    }
+
+    @Test
+    void read_otherFormat_isRefused() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(4);
+        }
+
+        assertThrows(IllegalStateException.class, () -> GameManager.fromSnapshot(bytes.toByteArray()));
+    }
+
+    @Test
+    void hibernate_storeFails_keepsGameRunning() {
+        assertThrows(IllegalStateException.class, () -> game.hibernate(snapshot -> {
+            throw new IllegalStateException("disk full");
+        }));
+
+        assertTrue(game.isActive());
+        assertTrue(InMemoryGameRegistry.isGameActive(7L));
+        game.endGame();
+    }
+}
@@ -2,7 +2,10 @@ package ch.uzh.ifi.hase.soprafs24.game;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,14 +13,15 @@ import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
 
 public class PlayerStateTest {
     private PlayerState player;
-    private Map<String, Double> prices;
+    private RoundPrices prices;
 
     @BeforeEach
     public void setup() {
         player = new PlayerState(1L);
-        prices = new HashMap<>();
-        prices.put("AAPL", 100.0);
-        prices.put("TSLA", 200.0);
+        Map<String, Double> decimalPrices = new HashMap<>();
+        decimalPrices.put("AAPL", 100.0);
+        decimalPrices.put("TSLA", 200.0);
+        prices = RoundPrices.of(decimalPrices);
     }
 
     @Test
@@ -27,7 +31,7 @@ public class PlayerStateTest {
         tx.setQuantity(10);
         tx.setType("BUY");
 
-        player.applyTransaction(tx, prices);
+        player.applyTransaction(tx, prices, 1);
 
         assertEquals(9000.0, player.getCashBalance(), 0.01);
         assertEquals(10, player.getPlayerStocks().get("AAPL"));
@@ -39,12 +43,12 @@ public class PlayerStateTest {
         buy.setStockId("TSLA");
         buy.setQuantity(5);
         buy.setType("BUY");
-        player.applyTransaction(buy, prices);
+        player.applyTransaction(buy, prices, 1);
         TransactionRequestDTO sell = new TransactionRequestDTO();
         sell.setStockId("TSLA");
         sell.setQuantity(3);
         sell.setType("SELL");
-        player.applyTransaction(sell, prices);
+        player.applyTransaction(sell, prices, 1);
         assertEquals(10000.0 - 1000.0 + 600.0, player.getCashBalance(), 0.01);
         assertEquals(2, player.getPlayerStocks().get("TSLA"));
     }
@@ -55,7 +59,7 @@ public class PlayerStateTest {
         tx.setStockId("AAPL");
         tx.setQuantity(200);
         tx.setType("BUY");
-        player.applyTransaction(tx, prices);
+        player.applyTransaction(tx, prices, 1);
         assertEquals(10000.0, player.getCashBalance(), 0.01);
         assertFalse(player.getPlayerStocks().containsKey("AAPL"));
     }
@@ -66,7 +70,7 @@ public class PlayerStateTest {
         tx.setStockId("TSLA");
         tx.setQuantity(5);
         tx.setType("SELL");
-        player.applyTransaction(tx, prices);
+        player.applyTransaction(tx, prices, 1);
         assertEquals(10000.0, player.getCashBalance(), 0.01);
         assertFalse(player.getPlayerStocks().containsKey("TSLA"));
     }
@@ -77,9 +81,113 @@ public class PlayerStateTest {
         tx.setStockId("FAKE");
         tx.setQuantity(1);
         tx.setType("BUY");
-        player.applyTransaction(tx, prices);
+        player.applyTransaction(tx, prices, 1);
         System.out.println("Stocks owned" + player.getPlayerStocks());
         assertEquals(10000.0, player.getCashBalance(), 0.01);
         assertFalse(player.getPlayerStocks().containsKey("FAKE"));
     }
+
+    @Test
+    public void testSnapshotHoldings_recordsValuedPortfolioOncePerRound() {
+        RoundPrices nextPrices = RoundPrices.of(Map.of("AAPL", 110.0));
+        player.setRoundPrices(round -> round == 1 ? prices : round == 2 ? nextPrices : RoundPrices.EMPTY);
+        player.setStock("AAPL", 10);
+        player.setStock("TSLA", 0);
+        player.snapshotHoldingsAtRound(1);
+        player.setStock("AAPL", 4);
+        player.snapshotHoldingsAtRound(1);
+
+        PortfolioHistory.RoundPortfolio round1 = player.getPortfolioHistory().getRound(1);
+        assertEquals(1, player.getPortfolioHistory().getLastRecordedRound());
+        assertEquals(1, round1.getPositions().size());
+        PortfolioHistory.Position aapl = round1.getPositions().get(0);
+        assertEquals("AAPL", aapl.getSymbol());
+        assertEquals(4, aapl.getQuantity());
+        assertEquals(100.0, aapl.getPrice(), 0.01);
+        assertEquals(110.0, aapl.getNextRoundPrice(), 0.01);
+        assertNull(player.getPortfolioHistory().getRound(2));
+    }
+
+    @Test
+    public void testGetHoldingsForRound_rebuildsEachSnapshottedRound() {
+        player.setStock("AAPL", 10);
+        player.snapshotHoldingsAtRound(1);
+        player.snapshotHoldingsAtRound(2);
+        player.setStock("TSLA", 3);
+        player.snapshotHoldingsAtRound(3);
+        player.setStock("AAPL", 0);
+        player.snapshotHoldingsAtRound(2);
+
+        assertEquals(Map.of("AAPL", 10), player.getHoldingsForRound(1));
+        assertEquals(Map.of("TSLA", 3), player.getHoldingsForRound(2));
+        assertEquals(Map.of("AAPL", 10, "TSLA", 3), player.getHoldingsForRound(3));
+        assertTrue(player.getHoldingsForRound(4).isEmpty());
+    }
+
+    @Test
+    public void testGetHoldingsForRound_acrossKeyframes_matchesWhatWasHeld() {
+        int rounds = PortfolioHistory.KEYFRAME_INTERVAL * 2 + 5;
+        for (int round = 1; round <= rounds; round++) {
+            player.setStock("R" + (round % 7), round);
+            if (round % 3 != 0) {
+                player.snapshotHoldingsAtRound(round);
+            }
+        }
+        player.setStock("R1", 0);
+        player.snapshotHoldingsAtRound(40);
+
+        Map<String, Integer> expected = new HashMap<>();
+        for (int round = 1; round <= rounds; round++) {
+            expected.put("R" + (round % 7), round);
+            if (round % 3 == 0) {
+                assertFalse(player.getPortfolioHistory().hasRound(round));
+                assertTrue(player.getHoldingsForRound(round).isEmpty());
+            } else if (round == 40) {
+                Map<String, Integer> rewritten = new HashMap<>(player.getPlayerStocks());
+                rewritten.remove("R1");
+                assertEquals(rewritten, player.getHoldingsForRound(round));
+            } else {
+                assertEquals(expected, player.getHoldingsForRound(round), "round " + round);
+            }
+        }
+    }
+
+    @Test
+    public void testRepeatedCentTrades_keepCashExact() {
+        RoundPrices centPrices = RoundPrices.of(Map.of("PENNY", 0.1));
+        TransactionRequestDTO buy = new TransactionRequestDTO();
+        buy.setStockId("PENNY");
+        buy.setQuantity(1);
+        buy.setType("BUY");
+
+        for (int i = 0; i < 1000; i++) {
+            player.applyTransaction(buy, centPrices, 1);
+        }
+
+        assertEquals(9900L * Money.MICROS_PER_UNIT, player.getCashMicros());
+        assertEquals(9900.0, player.getCashBalance());
+        assertEquals(10000L * Money.MICROS_PER_UNIT, player.calculateTotalAssetsMicros(centPrices));
+    }
+
+    @Test
+    public void testLedger_pagesTradesInOrderWithRound() {
+        TransactionRequestDTO buy = new TransactionRequestDTO();
+        buy.setStockId("AAPL");
+        buy.setQuantity(1);
+        buy.setType("BUY");
+        for (int round = 1; round <= 40; round++) {
+            player.applyTransaction(buy, prices, round);
+        }
+
+        TransactionLedger ledger = player.getLedger();
+        List<Transaction> page = ledger.page(30, 25, Transaction::new);
+
+        assertEquals(40, ledger.size());
+        assertEquals(10, page.size());
+        assertEquals(31, page.get(0).getRound());
+        assertEquals("BUY", page.get(0).getType());
+        assertEquals(100.0, page.get(0).getPrice());
+        assertTrue(ledger.page(40, 25, Transaction::new).isEmpty());
+        assertEquals(40, player.getTransactionHistory().size());
+    }
 }
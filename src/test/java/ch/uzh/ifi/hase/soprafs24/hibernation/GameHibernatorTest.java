@@ -0,0 +1,172 @@
+package ch.uzh.ifi.hase.soprafs24.hibernation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.HandlerMapping;
+import ch.uzh.ifi.hase.soprafs24.entity.HibernatedGame;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.repository.HibernatedGameRepository;
+import ch.uzh.ifi.hase.soprafs24.service.GameService;
+
+public class GameHibernatorTest {
+    private HibernatedGameRepository hibernatedGameRepository;
+    private GameService gameService;
+    private GameHibernator hibernator;
+
+    @BeforeEach
+    public void setup() {
+        hibernatedGameRepository = mock(HibernatedGameRepository.class);
+        gameService = mock(GameService.class);
+        hibernator = new GameHibernator(hibernatedGameRepository, gameService, 0L, 60_000L);
+        when(gameService.resumeGame(any())).thenAnswer(invocation -> {
+            GameManager game = invocation.getArgument(0);
+            InMemoryGameRegistry.registerGame(game.getGameId(), game);
+            game.resume();
+            return game;
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (Long gameId : InMemoryGameRegistry.gameIds()) {
+            InMemoryGameRegistry.getGame(gameId).endGame();
+        }
+        InMemoryGameRegistry.clear();
+    }
+
+    @Test
+    public void interceptor_hibernatedGame_isRehydratedAndMarksPlayerSeen() throws Exception {
+        when(hibernatedGameRepository.findById(5L)).thenReturn(Optional.of(hibernated(5L)));
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE))
+                .thenReturn(Map.of("gameId", "5", "userId", "1"));
+
+        assertTrue(new GameActivityInterceptor(hibernator).preHandle(request, mock(HttpServletResponse.class), null));
+
+        GameManager game = InMemoryGameRegistry.getGame(5L);
+        assertNotNull(game);
+        assertTrue(game.isActive());
+        assertTrue(game.getPlayerState(1L).getLastSeenMillis() > 0);
+        verify(hibernatedGameRepository).deleteById(5L);
+    }
+
+    @Test
+    public void rehydrate_gameNotHibernated_looksItUpOnce() {
+        when(hibernatedGameRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertNull(hibernator.rehydrate(9L));
+        assertNull(hibernator.rehydrate(9L));
+
+        verify(hibernatedGameRepository, times(1)).findById(9L);
+    }
+
+    @Test
+    public void rehydrate_concurrentRequests_shareOneLoad() throws Exception {
+        HibernatedGame snapshot = hibernated(6L);
+        when(hibernatedGameRepository.findById(6L)).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return Optional.of(snapshot);
+        });
+        ExecutorService requests = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<GameManager>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(requests.submit(() -> hibernator.rehydrate(6L)));
+            }
+            GameManager first = results.get(0).get();
+            assertNotNull(first);
+            for (Future<GameManager> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            requests.shutdown();
+        }
+        verify(hibernatedGameRepository, times(1)).findById(6L);
+        verify(gameService, times(1)).resumeGame(any());
+    }
+
+    @Test
+    public void rehydrate_leasedByAnotherNode_leavesSnapshotInPlace() {
+        when(hibernatedGameRepository.findById(5L)).thenReturn(Optional.of(hibernated(5L)));
+        when(gameService.resumeGame(any())).thenReturn(null);
+
+        assertNull(hibernator.rehydrate(5L));
+
+        verify(hibernatedGameRepository, never()).deleteById(any());
+    }
+
+    @Test
+    public void rehydrate_gameAlreadyRunning_returnsRegisteredGameAndKeepsSnapshot() {
+        GameManager running = startedGame(7L);
+        when(hibernatedGameRepository.findById(7L)).thenReturn(Optional.of(hibernated(7L)));
+        when(gameService.resumeGame(any())).thenReturn(running);
+
+        assertSame(running, hibernator.rehydrate(7L));
+
+        verify(hibernatedGameRepository, never()).deleteById(any());
+        running.endGame();
+    }
+
+    @Test
+    public void hibernateIdleGames_storesOnCallingThreadAndEvicts() {
+        GameManager game = startedGame(4L);
+        InMemoryGameRegistry.registerGame(4L, game);
+        AtomicReference<Thread> storedOn = new AtomicReference<>();
+        when(hibernatedGameRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            storedOn.set(Thread.currentThread());
+            return invocation.getArgument(0);
+        });
+
+        hibernator.hibernateIdleGames();
+
+        assertEquals(Thread.currentThread(), storedOn.get());
+        assertFalse(game.isActive());
+        assertFalse(InMemoryGameRegistry.isGameActive(4L));
+    }
+
+    private static HibernatedGame hibernated(long gameId) {
+        AtomicReference<byte[]> stored = new AtomicReference<>();
+        GameManager game = startedGame(gameId);
+        assertTrue(game.hibernate(stored::set));
+        HibernatedGame hibernated = new HibernatedGame();
+        hibernated.setGameId(gameId);
+        hibernated.setSnapshot(stored.get());
+        return hibernated;
+    }
+
+    private static GameManager startedGame(long gameId) {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 1, 1), Map.of("AAPL", 100.0));
+        timeline.put(LocalDate.of(2024, 1, 2), Map.of("AAPL", 110.0));
+        GameManager game = new GameManager(gameId, timeline, 60_000L);
+        game.registerPlayer(1L);
+        game.startGame();
+        return game;
+    }
+}
@@ -0,0 +1,172 @@
+package ch.uzh.ifi.hase.soprafs24.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Runs the STOCK_ADJUSTED migration against a real PostgreSQL and checks the
+ * plans of the market-data queries. Skipped unless
+ * {@code PLAN_TEST_DATABASE_URL} (plus {@code PLAN_TEST_DATABASE_USER} and
+ * {@code PLAN_TEST_DATABASE_PASSWORD}) points at a database it may create a
+ * scratch schema in.
+ */
+@EnabledIfEnvironmentVariable(named = "PLAN_TEST_DATABASE_URL", matches = ".+")
+public class StockRepositoryQueryPlanTest {
+
+    private static final String START_DATE = "DATE '2023-06-01'";
+
+    private final String url = System.getenv("PLAN_TEST_DATABASE_URL");
+    private final String user = System.getenv("PLAN_TEST_DATABASE_USER");
+    private final String password = System.getenv("PLAN_TEST_DATABASE_PASSWORD");
+    private final String schema = "plan_" + UUID.randomUUID().toString().replace("-", "");
+    private Connection connection;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema);
+            // The table as Hibernate created it before the migration existed.
+            statement.execute("CREATE TABLE stock_adjusted (id BIGSERIAL PRIMARY KEY, currency VARCHAR(255), "
+                    + "date DATE NOT NULL, price DOUBLE PRECISION NOT NULL, symbol VARCHAR(255) NOT NULL, "
+                    + "volume BIGINT)");
+            // 200 symbols over about three years of weekdays, loaded symbol by symbol.
+            statement.execute("INSERT INTO stock_adjusted (currency, date, price, symbol, volume) "
+                    + "SELECT 'USD', d::date, 100 + s + EXTRACT(DOY FROM d), 'SYM' || LPAD(s::text, 3, '0'), 1000 "
+                    + "FROM generate_series(1, 200) s, "
+                    + "generate_series(DATE '2022-01-03', DATE '2024-12-31', INTERVAL '1 day') d "
+                    + "WHERE EXTRACT(ISODOW FROM d) < 6 ORDER BY s, d");
+            statement.execute("INSERT INTO stock_adjusted (currency, date, price, symbol, volume) "
+                    + "SELECT currency, date, price + 1, symbol, volume FROM stock_adjusted WHERE symbol = 'SYM001'");
+        }
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(schema)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + schema + " CASCADE");
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void migration_removesDuplicatesAndEnforcesNaturalKey() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            assertEquals(0, count(statement, "SELECT COUNT(*) FROM (SELECT symbol, date FROM stock_adjusted "
+                    + "GROUP BY symbol, date HAVING COUNT(*) > 1) d"));
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM pg_indexes WHERE schemaname = '" + schema
+                    + "' AND indexname = 'ix_stock_adjusted_date'"));
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM pg_indexes WHERE schemaname = '" + schema
+                    + "' AND tablename = 'stock_adjusted' AND indexdef LIKE '%(date)'"));
+            assertThrows(SQLException.class, () -> statement.execute(
+                    "INSERT INTO stock_adjusted (currency, date, price, symbol, volume) "
+                            + "VALUES ('USD', DATE '2023-06-01', 1, 'SYM001', 1)"));
+        }
+    }
+
+    @Test
+    public void migration_backfillsTradingCalendar() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            assertEquals(count(statement, "SELECT COUNT(DISTINCT date) FROM stock_adjusted"),
+                    count(statement, "SELECT COUNT(*) FROM trading_calendar"));
+            assertEquals(0, count(statement, "SELECT COUNT(*) FROM trading_calendar WHERE symbol_count <> 200"));
+        }
+    }
+
+    @Test
+    public void refreshDates_addsAndRecountsDays() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO stock_adjusted (currency, date, price, symbol, volume) VALUES "
+                    + "('USD', DATE '2025-01-02', 1, 'SYM001', 1), ('USD', DATE '2025-01-02', 1, 'SYM002', 1), "
+                    + "('USD', DATE '2023-06-03', 1, 'SYM001', 1)");
+            statement.execute(query(TradingCalendarRepository.class, "refreshDates")
+                    .replace(":dates", "DATE '2025-01-02', DATE '2023-06-01', DATE '2023-06-03'"));
+            assertEquals(2, count(statement, "SELECT symbol_count FROM trading_calendar WHERE date = DATE '2025-01-02'"));
+            assertEquals(200, count(statement, "SELECT symbol_count FROM trading_calendar WHERE date = DATE '2023-06-01'"));
+            assertEquals(1, count(statement, "SELECT symbol_count FROM trading_calendar WHERE date = DATE '2023-06-03'"));
+        }
+    }
+
+    @Test
+    public void randomStartDate_readsOnlyTheCalendar() throws Exception {
+        String sql = query(TradingCalendarRepository.class, "findRandomStartDateWith10Days")
+                .replace(":minSymbols", "10");
+        String plan = explain(sql);
+        assertFalse(plan.contains("stock_adjusted"), plan);
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery(sql)) {
+            assertTrue(rows.next());
+            assertFalse(rows.getDate(1).toLocalDate().isAfter(LocalDate.of(2024, 12, 18)));
+        }
+    }
+
+    @Test
+    public void stocksForTenDays_usesDateIndex() throws Exception {
+        String plan = explain(query(StockRepository.class, "findStocksForTenDays"));
+        assertTrue(plan.contains("ix_stock_adjusted_date"), plan);
+        assertNoFullScan(plan);
+    }
+
+    @Test
+    public void randomSymbolTimeline_usesNaturalKey() throws Exception {
+        String plan = explain(query(StockRepository.class, "findRandom10SymbolsWithFirst10DatesFrom"));
+        assertTrue(plan.contains("ux_stock_adjusted_symbol_date"), plan);
+        assertNoFullScan(plan);
+    }
+
+    private static String query(Class<?> repository, String methodName) {
+        for (Method method : repository.getMethods()) {
+            if (method.getName().equals(methodName)) {
+                return method.getAnnotation(Query.class).value().replace(":startDate", START_DATE);
+            }
+        }
+        throw new IllegalArgumentException("No query method " + methodName);
+    }
+
+    private String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static void assertNoFullScan(String plan) {
+        assertFalse(plan.contains("Seq Scan on stock_adjusted"), plan);
+    }
+
+    private static long count(Statement statement, String sql) throws SQLException {
+        try (ResultSet rows = statement.executeQuery(sql)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameDashboardDTO;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.TransactionRequestDTO;
+
+public class GameDashboardServiceTest {
+    private GameService gameService;
+    private StockService stockService;
+    private NewsService newsService;
+    private GameDashboardService dashboardService;
+    private GameManager game;
+
+    @BeforeEach
+    public void setup() {
+        gameService = mock(GameService.class);
+        stockService = mock(StockService.class);
+        newsService = mock(NewsService.class);
+        dashboardService = new GameDashboardService(gameService, stockService, newsService);
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 1, 1), Map.of("AAPL", 100.0));
+        timeline.put(LocalDate.of(2024, 1, 2), Map.of("AAPL", 110.0));
+        game = new GameManager(1L, timeline, 60_000L);
+        game.registerPlayer(10L);
+        game.registerPlayer(20L);
+        when(gameService.getGame(1L)).thenReturn(game);
+        when(stockService.getCurrentRoundStockPrices(1L)).thenReturn(List.of());
+        when(stockService.getPlayerHoldings(10L, 1L)).thenReturn(List.of());
+        when(newsService.getNewsForGame(1L)).thenReturn(List.of());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        game.endGame();
+    }
+
+    @Test
+    public void getDashboard_initialPoll_returnsEverySection() {
+        GameDashboardDTO dashboard = dashboardService.getDashboard(1L, 10L, null);
+
+        assertEquals(game.getInstanceTag() + "." + game.getVersion() + ".0", dashboard.getVersion());
+        assertNotNull(dashboard.getRound());
+        assertNotNull(dashboard.getStatus());
+        assertEquals(2, dashboard.getLeaderBoard().size());
+        assertNotNull(dashboard.getStocks());
+        assertNotNull(dashboard.getHoldings());
+        assertNotNull(dashboard.getNews());
+        assertEquals(10000.0, dashboard.getPlayerState().getCashBalance());
+    }
+
+    @Test
+    public void getDashboard_upToDate_returnsNull() {
+        String version = dashboardService.getDashboard(1L, 10L, null).getVersion();
+
+        assertNull(dashboardService.getDashboard(1L, 10L, version));
+    }
+
+    @Test
+    public void getDashboard_otherPlayerSubmits_returnsOnlyStatus() {
+        String version = dashboardService.getDashboard(1L, 10L, null).getVersion();
+        TransactionRequestDTO buy = new TransactionRequestDTO();
+        buy.setStockId("AAPL");
+        buy.setQuantity(1);
+        buy.setType("BUY");
+        game.submitTransactions(20L, List.of(buy));
+
+        GameDashboardDTO dashboard = dashboardService.getDashboard(1L, 10L, version);
+
+        assertNotNull(dashboard.getStatus());
+        assertNull(dashboard.getRound());
+        assertNull(dashboard.getLeaderBoard());
+        assertNull(dashboard.getStocks());
+        assertNull(dashboard.getHoldings());
+        assertNull(dashboard.getNews());
+        assertNull(dashboard.getPlayerState());
+        verify(newsService, times(1)).getNewsForGame(1L);
+    }
+
+    @Test
+    public void getDashboard_newsStoredAfterLastPoll_returnsOnlyNews() {
+        String version = dashboardService.getDashboard(1L, 10L, null).getVersion();
+        when(newsService.getNewsVersion(1L)).thenReturn(3L);
+
+        GameDashboardDTO dashboard = dashboardService.getDashboard(1L, 10L, version);
+
+        assertNotNull(dashboard.getNews());
+        assertNull(dashboard.getRound());
+        assertNull(dashboard.getLeaderBoard());
+        assertNull(dashboard.getPlayerState());
+        assertEquals(game.getInstanceTag() + "." + game.getVersion() + ".3", dashboard.getVersion());
+        assertNull(dashboardService.getDashboard(1L, 10L, dashboard.getVersion()));
+    }
+
+    @Test
+    public void getDashboard_sinceFromEarlierInstance_returnsEverySection() {
+        String earlierInstance = "1-5eed." + (game.getVersion() - 1) + ".0";
+
+        GameDashboardDTO dashboard = dashboardService.getDashboard(1L, 10L, earlierInstance);
+
+        assertEquals(game.getInstanceTag() + "." + game.getVersion() + ".0", dashboard.getVersion());
+        assertNotNull(dashboard.getRound());
+        assertNotNull(dashboard.getStatus());
+        assertEquals(2, dashboard.getLeaderBoard().size());
+        assertNotNull(dashboard.getStocks());
+        assertNotNull(dashboard.getHoldings());
+        assertNotNull(dashboard.getNews());
+        assertNotNull(dashboard.getPlayerState());
+    }
+
+    @Test
+    public void getDashboard_unknownPlayer_throwsNotFound() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> dashboardService.getDashboard(1L, 99L, null));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatus());
+    }
+}
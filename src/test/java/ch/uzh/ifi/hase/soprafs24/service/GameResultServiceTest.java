@@ -0,0 +1,98 @@
+package ch.uzh.ifi.hase.soprafs24.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ch.uzh.ifi.hase.soprafs24.entity.GameResult;
+import ch.uzh.ifi.hase.soprafs24.game.GameManager;
+import ch.uzh.ifi.hase.soprafs24.repository.GameResultRepository;
+import ch.uzh.ifi.hase.soprafs24.rest.dto.GameResultsDTO;
+
+public class GameResultServiceTest {
+    private GameResultRepository gameResultRepository;
+    private StockService stockService;
+    private GameResultService resultService;
+
+    @BeforeEach
+    public void setup() {
+        gameResultRepository = mock(GameResultRepository.class);
+        stockService = mock(StockService.class);
+        when(stockService.getCategoryMap()).thenReturn(Map.of("AAPL", "TECH"));
+        resultService = new GameResultService(gameResultRepository, stockService, 1, 50);
+    }
+
+    private GameManager finishedGame(Long gameId) {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 1, 1), Map.of("AAPL", 100.0));
+        timeline.put(LocalDate.of(2024, 1, 2), Map.of("AAPL", 110.0));
+        GameManager game = new GameManager(gameId, timeline, 60_000L);
+        game.registerPlayer(10L);
+        game.getPlayerState(10L).setStock("AAPL", 5);
+        game.addRoundListener(resultService);
+        game.nextRound();
+        game.endGame();
+        return game;
+    }
+
+    @Test
+    public void onGameEnded_keepsFinalLeaderboardAndValuations() {
+        finishedGame(1L);
+
+        GameResultsDTO results = resultService.getResults(1L);
+
+        assertNotNull(results);
+        assertEquals(2, results.getFinalRound());
+        assertEquals(10L, results.getLeaderBoard().get(0).getUserId());
+        GameResultsDTO.PlayerResult player = results.getPlayer(10L);
+        assertEquals(1, player.getRoundValuations().size());
+        assertEquals(player.getCashBalance() + 5 * 100.0, player.getRoundValuations().get(0), 0.001);
+        assertEquals("TECH", player.getHoldings().get(0).getCategory());
+        assertEquals(110.0, player.getHoldings().get(0).getCurrentPrice(), 0.001);
+        verify(gameResultRepository, never()).findById(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void archivePending_savesBatchAndReadsEvictedResultsBack() {
+        finishedGame(1L);
+        finishedGame(2L);
+
+        resultService.archivePending();
+
+        ArgumentCaptor<List<GameResult>> saved = ArgumentCaptor.forClass(List.class);
+        verify(gameResultRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        GameResult first = saved.getValue().get(0);
+        when(gameResultRepository.findById(first.getGameId())).thenReturn(Optional.of(first));
+
+        GameResultsDTO reloaded = resultService.getResults(first.getGameId());
+
+        assertEquals(first.getGameId(), reloaded.getGameId());
+        assertEquals(10L, reloaded.getPlayer(10L).getUserId());
+        assertSame(reloaded, resultService.getResults(first.getGameId()));
+    }
+
+    @Test
+    public void getResults_unknownGame_returnsNull() {
+        when(gameResultRepository.findById(5L)).thenReturn(Optional.empty());
+
+        assertNull(resultService.getResults(5L));
+        assertNull(resultService.getFinalHoldings(5L, 10L));
+        verify(gameResultRepository, never()).saveAll(anyList());
+    }
+}
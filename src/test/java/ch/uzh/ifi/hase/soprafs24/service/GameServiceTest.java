@@ -3,6 +3,7 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.time.LocalDate;
@@ -79,6 +80,18 @@ public class GameServiceTest {
 
     }
 
+    @Test
+    public void resumeGame_alreadyRunning_returnsRegisteredGame() {
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2025, 4, 1), Map.of("AAPL", 150.0));
+        GameManager running = new GameManager(998L, timeline, 60_000L);
+        InMemoryGameRegistry.registerGame(998L, running);
+
+        GameManager copy = new GameManager(998L, timeline, 60_000L);
+        assertSame(running, gameService.resumeGame(copy));
+        assertSame(running, InMemoryGameRegistry.getGame(998L));
+    }
+
     @Test
     public void testGameAutoFinishesAfter10Rounds() throws InterruptedException {
         LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
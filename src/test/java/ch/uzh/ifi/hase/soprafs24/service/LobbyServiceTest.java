@@ -4,6 +4,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,7 +32,13 @@ public class LobbyServiceTest {
         testLobby = new Lobby();
         testLobby.setId(1L);
         testLobby.setTimeLimitSeconds(60L);
+        testLobby.setActive(true);
         Mockito.when(lobbyRepository.save(Mockito.any())).thenReturn(testLobby);
+        Mockito.when(lobbyRepository.saveAndFlush(Mockito.any())).thenAnswer(invocation -> {
+            Lobby saved = invocation.getArgument(0);
+            saved.setVersion(saved.getVersion() + 1);
+            return saved;
+        });
     }
 
     @Test
@@ -43,7 +52,7 @@ public class LobbyServiceTest {
 
     @Test
     public void addUserToLobby_success() {
-        Mockito.when(lobbyRepository.findById(Mockito.any())).thenReturn(Optional.of(testLobby));
+        Mockito.when(lobbyRepository.findByIdForUpdate(Mockito.any())).thenReturn(Optional.of(testLobby));
         Lobby updatedLobby = lobbyService.addUserToLobby(testLobby.getId(), 2L);
         System.out.println("Updated Lobby: " + updatedLobby);
         assertNotNull(updatedLobby);
@@ -61,11 +70,139 @@ public class LobbyServiceTest {
 
     @Test
     public void setUserReady_success() {
-        Mockito.when(lobbyRepository.findById(Mockito.any())).thenReturn(Optional.of(testLobby));
+        Mockito.when(lobbyRepository.findByIdForUpdate(Mockito.any())).thenReturn(Optional.of(testLobby));
         Lobby updatedLobby = lobbyService.addUserToLobby(testLobby.getId(), 2L);
         updatedLobby = lobbyService.setUserReady(testLobby.getId(), 2L);
         assertNotNull(updatedLobby);
         assertTrue(updatedLobby.getPlayerReadyStatuses().get(2L));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void setUserReady_notifiesSubscribersWithNextVersion() {
+        Mockito.when(lobbyRepository.findByIdForUpdate(Mockito.any())).thenReturn(Optional.of(testLobby));
+        lobbyService.createLobby(2L, testLobby);
+        List<Lobby> received = new ArrayList<>();
+        lobbyService.subscribe(testLobby.getId(), received::add);
+
+        lobbyService.setUserReady(testLobby.getId(), 2L);
+
+        assertEquals(1, received.size());
+        assertEquals(1L, received.get(0).getVersion());
+        assertTrue(received.get(0).getPlayerReadyStatuses().get(2L));
+        Mockito.when(lobbyRepository.findVersionById(testLobby.getId())).thenReturn(Optional.of(1L));
+        assertEquals(received.get(0).getVersion(), lobbyService.getLobbyById(testLobby.getId()).getVersion());
+        Mockito.verify(lobbyRepository, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    public void getLobbyById_changedOnAnotherNode_reloadsAndNotifiesSubscribers() {
+        Mockito.when(lobbyRepository.findById(testLobby.getId())).thenReturn(Optional.of(testLobby));
+        lobbyService.getLobbyById(testLobby.getId());
+        List<Lobby> received = new ArrayList<>();
+        lobbyService.subscribe(testLobby.getId(), received::add);
+
+        Lobby stored = new Lobby();
+        stored.setId(testLobby.getId());
+        stored.setTimeLimitSeconds(60L);
+        stored.setActive(true);
+        stored.getPlayerReadyStatuses().put(2L, true);
+        stored.setVersion(3L);
+        Mockito.when(lobbyRepository.findVersionById(testLobby.getId())).thenReturn(Optional.of(3L));
+        Mockito.when(lobbyRepository.findById(testLobby.getId())).thenReturn(Optional.of(stored));
+
+        Lobby found = lobbyService.getLobbyById(testLobby.getId());
+
+        assertEquals(3L, found.getVersion());
+        assertTrue(found.getPlayerReadyStatuses().get(2L));
+        assertEquals(1, received.size());
+        assertEquals(3L, received.get(0).getVersion());
+    }
+
+    @Test
+    public void refreshSubscribedLobbies_changedOnAnotherNode_notifiesSubscribers() {
+        lobbyService.createLobby(1L, testLobby);
+        List<Lobby> received = new ArrayList<>();
+        lobbyService.subscribe(testLobby.getId(), received::add);
+        Lobby stored = new Lobby();
+        stored.setId(testLobby.getId());
+        stored.setTimeLimitSeconds(60L);
+        stored.setActive(false);
+        stored.setVersion(2L);
+        LobbyRepository.RowVersion row = Mockito.mock(LobbyRepository.RowVersion.class);
+        Mockito.when(row.getId()).thenReturn(testLobby.getId());
+        Mockito.when(row.getVersion()).thenReturn(2L);
+        Mockito.when(lobbyRepository.findVersionsByIdIn(Mockito.anyCollection())).thenReturn(List.of(row));
+        Mockito.when(lobbyRepository.findById(testLobby.getId())).thenReturn(Optional.of(stored));
+
+        lobbyService.refreshSubscribedLobbies();
+        lobbyService.refreshSubscribedLobbies();
+
+        assertEquals(1, received.size());
+        assertFalse(received.get(0).isActive());
+    }
+
+    @Test
+    public void lockLobby_readsTheLockedRow() {
+        Lobby stored = new Lobby();
+        stored.setId(testLobby.getId());
+        stored.setTimeLimitSeconds(60L);
+        stored.setActive(true);
+        stored.getPlayerReadyStatuses().put(2L, false);
+        Mockito.when(lobbyRepository.findByIdForUpdate(testLobby.getId())).thenReturn(Optional.of(stored));
+
+        Lobby locked = lobbyService.lockLobby(testLobby.getId());
+
+        assertFalse(locked.getPlayerReadyStatuses().get(2L));
+        Mockito.verify(lobbyRepository, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    public void deactivateExpiredLobbies_noDueDeadline_skipsDatabase() {
+        testLobby.setExpiresAt(Instant.now().plusSeconds(60));
+        lobbyService.createLobby(1L, testLobby);
+        lobbyService.deactivateExpiredLobbies();
+        Mockito.verify(lobbyRepository, Mockito.never()).deactivateExpiredLobbies(Mockito.any());
+        Mockito.verify(lobbyRepository, Mockito.never()).findByActiveTrue();
+    }
+
+    @Test
+    public void deactivateExpiredLobbies_dueDeadline_runsSingleBulkUpdate() {
+        testLobby.setExpiresAt(Instant.now().minusSeconds(1));
+        lobbyService.createLobby(1L, testLobby);
+        lobbyService.deactivateExpiredLobbies();
+        lobbyService.deactivateExpiredLobbies();
+        Mockito.verify(lobbyRepository, Mockito.times(1)).deactivateExpiredLobbies(Mockito.any());
+    }
+
+    @Test
+    public void addUserToLobby_lobbyExpiredElsewhere_staysInactive() {
+        lobbyService.createLobby(1L, testLobby);
+        Lobby stored = new Lobby();
+        stored.setId(testLobby.getId());
+        stored.setTimeLimitSeconds(60L);
+        stored.setActive(false);
+        stored.setVersion(4L);
+        Mockito.when(lobbyRepository.findByIdForUpdate(testLobby.getId())).thenReturn(Optional.of(stored));
+        Mockito.when(lobbyRepository.findById(testLobby.getId())).thenReturn(Optional.of(stored));
+
+        Lobby updated = lobbyService.addUserToLobby(testLobby.getId(), 2L);
+
+        assertFalse(updated.isActive());
+        assertEquals(5L, updated.getVersion());
+        assertFalse(lobbyService.getLobbyById(testLobby.getId()).isActive());
+    }
+
+    @Test
+    public void getLobbyById_cachedLobby_isEvictedWhenItExpires() {
+        testLobby.setExpiresAt(Instant.now().minusSeconds(1));
+        Mockito.when(lobbyRepository.findById(testLobby.getId())).thenReturn(Optional.of(testLobby));
+        lobbyService.getLobbyById(testLobby.getId());
+
+        lobbyService.deactivateExpiredLobbies();
+        lobbyService.getLobbyById(testLobby.getId());
+
+        Mockito.verify(lobbyRepository, Mockito.times(1)).deactivateExpiredLobbies(Mockito.any());
+        Mockito.verify(lobbyRepository, Mockito.times(2)).findById(testLobby.getId());
+    }
+
+}
@@ -11,10 +11,13 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -59,7 +62,7 @@ class NewsServiceTest {
         private HttpClient mockHttpClient;
 
         @Mock
-        private HttpResponse<String> mockHttpResponse;
+        private HttpResponse<InputStream> mockHttpResponse;
 
         private NewsService newsService;
         private final ObjectMapper objectMapper = new ObjectMapper()
@@ -103,6 +106,10 @@ class NewsServiceTest {
                 return objectMapper.writeValueAsString(response);
         }
 
+        private InputStream toStream(String body) {
+                return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        }
+
         private String createErrorResponseJson(String errorMessage) throws JsonProcessingException {
                 AlphaVantageNewsApiPojos.AlphaVantageNewsResponse response = new AlphaVantageNewsApiPojos.AlphaVantageNewsResponse();
                 response.errorMessage = errorMessage;
@@ -141,10 +148,11 @@ class NewsServiceTest {
                 topicPojo.topic = "Technology";
                 topicPojo.relevanceScore = "0.9";
                 feedItem.topics = Collections.singletonList(topicPojo);
-                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
                                 .thenReturn(mockHttpResponse);
                 when(mockHttpResponse.statusCode()).thenReturn(200);
-                when(mockHttpResponse.body()).thenReturn(createNewsResponseJson(Collections.singletonList(feedItem)));
+                when(mockHttpResponse.body())
+                                .thenReturn(toStream(createNewsResponseJson(Collections.singletonList(feedItem))));
                 when(newsRepository.findByUrl(feedItem.url)).thenReturn(Optional.empty());
                 when(newsRepository.save(any(News.class))).thenAnswer(invocation -> invocation.getArgument(0));
                 newsService.fetchAndSaveNewsForTickers(Collections.singletonList(ticker), gameStartDate, gameEndDate);
@@ -173,7 +181,7 @@ class NewsServiceTest {
                                 });
                 assertEquals(1, savedTopics.size());
                 assertEquals("Technology", savedTopics.get(0).topic);
-                verify(mockHttpClient, times(1)).send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString()));
+                verify(mockHttpClient, times(1)).send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream()));
         }
 
         @Test
@@ -214,10 +222,10 @@ class NewsServiceTest {
                 String ticker = "FAIL";
                 LocalDate gameStartDate = LocalDate.of(2023, 1, 1);
                 LocalDate gameEndDate = LocalDate.of(2023, 1, 2);
-                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
                                 .thenReturn(mockHttpResponse);
                 when(mockHttpResponse.statusCode()).thenReturn(500);
-                when(mockHttpResponse.body()).thenReturn("Internal Server Error");
+                when(mockHttpResponse.body()).thenReturn(toStream("Internal Server Error"));
                 newsService.fetchAndSaveNewsForTickers(Collections.singletonList(ticker), gameStartDate, gameEndDate);
                 verify(newsRepository, never()).save(any(News.class));
         }
@@ -229,10 +237,10 @@ class NewsServiceTest {
                 LocalDate gameStartDate = LocalDate.of(2023, 1, 1);
                 LocalDate gameEndDate = LocalDate.of(2023, 1, 2);
 
-                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
                                 .thenReturn(mockHttpResponse);
                 when(mockHttpResponse.statusCode()).thenReturn(200);
-                when(mockHttpResponse.body()).thenReturn(createErrorResponseJson("Invalid API call"));
+                when(mockHttpResponse.body()).thenReturn(toStream(createErrorResponseJson("Invalid API call")));
                 newsService.fetchAndSaveNewsForTickers(Collections.singletonList(ticker), gameStartDate, gameEndDate);
                 verify(newsRepository, never()).save(any(News.class));
         }
@@ -244,11 +252,11 @@ class NewsServiceTest {
                 LocalDate gameStartDate = LocalDate.of(2023, 1, 1);
                 LocalDate gameEndDate = LocalDate.of(2023, 1, 2);
 
-                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
                                 .thenReturn(mockHttpResponse);
                 when(mockHttpResponse.statusCode()).thenReturn(200);
-                when(mockHttpResponse.body()).thenReturn(createInformationResponseJson(
-                                "Thank you for using Alpha Vantage! Our standard API call frequency is ..."));
+                when(mockHttpResponse.body()).thenReturn(toStream(createInformationResponseJson(
+                                "Thank you for using Alpha Vantage! Our standard API call frequency is ...")));
                 newsService.fetchAndSaveNewsForTickers(Collections.singletonList(ticker), gameStartDate, gameEndDate);
                 verify(newsRepository, never()).save(any(News.class));
         }
@@ -260,10 +268,10 @@ class NewsServiceTest {
                 LocalDate gameStartDate = LocalDate.of(2023, 1, 1);
                 LocalDate gameEndDate = LocalDate.of(2023, 1, 2);
 
-                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
                                 .thenReturn(mockHttpResponse);
                 when(mockHttpResponse.statusCode()).thenReturn(200);
-                when(mockHttpResponse.body()).thenReturn(createNewsResponseJson(Collections.emptyList()));
+                when(mockHttpResponse.body()).thenReturn(toStream(createNewsResponseJson(Collections.emptyList())));
                 newsService.fetchAndSaveNewsForTickers(Collections.singletonList(ticker), gameStartDate, gameEndDate);
                 verify(newsRepository, never()).save(any(News.class));
         }
@@ -279,10 +287,11 @@ class NewsServiceTest {
                 feedItem.url = "http://example.com/dupenews";
                 feedItem.title = "Dupe News";
                 feedItem.timePublished = gameStartDate.atStartOfDay().format(AV_API_TIME_PUBLISHED_FORMAT);
-                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
                                 .thenReturn(mockHttpResponse);
                 when(mockHttpResponse.statusCode()).thenReturn(200);
-                when(mockHttpResponse.body()).thenReturn(createNewsResponseJson(Collections.singletonList(feedItem)));
+                when(mockHttpResponse.body())
+                                .thenReturn(toStream(createNewsResponseJson(Collections.singletonList(feedItem))));
                 when(newsRepository.findByUrl(feedItem.url)).thenReturn(Optional.of(new News()));
                 newsService.fetchAndSaveNewsForTickers(Collections.singletonList(ticker), gameStartDate, gameEndDate);
                 verify(newsRepository, never()).save(any(News.class));
@@ -298,10 +307,11 @@ class NewsServiceTest {
                 feedItem.url = null;
                 feedItem.title = "News with null URL";
                 feedItem.timePublished = gameStartDate.atStartOfDay().format(AV_API_TIME_PUBLISHED_FORMAT);
-                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
                                 .thenReturn(mockHttpResponse);
                 when(mockHttpResponse.statusCode()).thenReturn(200);
-                when(mockHttpResponse.body()).thenReturn(createNewsResponseJson(Collections.singletonList(feedItem)));
+                when(mockHttpResponse.body())
+                                .thenReturn(toStream(createNewsResponseJson(Collections.singletonList(feedItem))));
                 newsService.fetchAndSaveNewsForTickers(Collections.singletonList(ticker), gameStartDate, gameEndDate);
                 verify(newsRepository, never()).save(any(News.class));
         }
@@ -316,10 +326,11 @@ class NewsServiceTest {
                 feedItem.url = "http://example.com/badtime";
                 feedItem.title = "News with bad time";
                 feedItem.timePublished = "INVALID_TIME_FORMAT";
-                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
                                 .thenReturn(mockHttpResponse);
                 when(mockHttpResponse.statusCode()).thenReturn(200);
-                when(mockHttpResponse.body()).thenReturn(createNewsResponseJson(Collections.singletonList(feedItem)));
+                when(mockHttpResponse.body())
+                                .thenReturn(toStream(createNewsResponseJson(Collections.singletonList(feedItem))));
                 when(newsRepository.findByUrl(feedItem.url)).thenReturn(Optional.empty());
                 newsService.fetchAndSaveNewsForTickers(Collections.singletonList(ticker), gameStartDate, gameEndDate);
                 verify(newsRepository, never()).save(any(News.class));
@@ -338,10 +349,11 @@ class NewsServiceTest {
                 feedItem.sourceDomain = "c".repeat(300);
                 feedItem.summary = "Short summary";
                 feedItem.timePublished = gameStartDate.atStartOfDay().format(AV_API_TIME_PUBLISHED_FORMAT);
-                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
                                 .thenReturn(mockHttpResponse);
                 when(mockHttpResponse.statusCode()).thenReturn(200);
-                when(mockHttpResponse.body()).thenReturn(createNewsResponseJson(Collections.singletonList(feedItem)));
+                when(mockHttpResponse.body())
+                                .thenReturn(toStream(createNewsResponseJson(Collections.singletonList(feedItem))));
                 when(newsRepository.findByUrl(feedItem.url)).thenReturn(Optional.empty());
                 when(newsRepository.save(any(News.class))).thenAnswer(invocation -> invocation.getArgument(0));
                 newsService.fetchAndSaveNewsForTickers(Collections.singletonList(ticker), gameStartDate, gameEndDate);
@@ -353,6 +365,119 @@ class NewsServiceTest {
                 assertEquals(250, savedNews.getSourceDomain().length());
         }
 
+        @Test
+        void fetchAndSaveNewsForSingleTicker_stopsParsingAfterRequestedItems()
+                        throws IOException, InterruptedException {
+                String ticker = "STREAM";
+                LocalDate gameStartDate = LocalDate.of(2023, 1, 1);
+                LocalDate gameEndDate = LocalDate.of(2023, 1, 2);
+                String firstItem = "{\"title\":\"First\",\"url\":\"http://example.com/first\",\"time_published\":\""
+                                + gameStartDate.atStartOfDay().format(AV_API_TIME_PUBLISHED_FORMAT) + "\"}";
+                String body = "{\"items\":\"50\",\"feed\":[" + firstItem + ", {this is never parsed";
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
+                                .thenReturn(mockHttpResponse);
+                when(mockHttpResponse.statusCode()).thenReturn(200);
+                when(mockHttpResponse.body()).thenReturn(toStream(body));
+                when(newsRepository.findByUrl("http://example.com/first")).thenReturn(Optional.empty());
+                when(newsRepository.save(any(News.class))).thenAnswer(invocation -> invocation.getArgument(0));
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList(ticker), gameStartDate, gameEndDate);
+                ArgumentCaptor<News> newsCaptor = ArgumentCaptor.forClass(News.class);
+                verify(newsRepository, times(1)).save(newsCaptor.capture());
+                assertEquals("First", newsCaptor.getValue().getTitle());
+        }
+
+        @Test
+        void fetchAndSaveNewsForTickers_rangeAlreadyCovered_skipsNetwork() throws IOException, InterruptedException {
+                LocalDate gameStartDate = LocalDate.of(2023, 1, 1);
+                LocalDate gameEndDate = LocalDate.of(2023, 1, 10);
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
+                                .thenReturn(mockHttpResponse);
+                when(mockHttpResponse.statusCode()).thenReturn(200);
+                when(mockHttpResponse.body())
+                                .thenReturn(toStream(createNewsResponseJson(Collections.emptyList())));
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList("EMPTY"), gameStartDate, gameEndDate);
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList("EMPTY"), gameStartDate, gameEndDate);
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList("EMPTY"), gameStartDate.plusDays(2),
+                                gameEndDate.minusDays(2));
+                verify(mockHttpClient, times(1)).send(any(HttpRequest.class),
+                                eq(HttpResponse.BodyHandlers.ofInputStream()));
+        }
+
+        @Test
+        void fetchAndSaveNewsForTickers_narrowerRangeOfFetchedArticles_fetchesAgain()
+                        throws IOException, InterruptedException {
+                LocalDate gameStartDate = LocalDate.of(2023, 1, 1);
+                LocalDate gameEndDate = LocalDate.of(2023, 1, 10);
+                String item = "{\"title\":\"First\",\"url\":\"http://example.com/first\",\"time_published\":\""
+                                + gameStartDate.atStartOfDay().format(AV_API_TIME_PUBLISHED_FORMAT) + "\"}";
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
+                                .thenReturn(mockHttpResponse);
+                when(mockHttpResponse.statusCode()).thenReturn(200);
+                when(mockHttpResponse.body()).thenReturn(toStream("{\"feed\":[" + item + "]}"),
+                                toStream(createNewsResponseJson(Collections.emptyList())));
+                when(newsRepository.findByUrl("http://example.com/first")).thenReturn(Optional.empty());
+                when(newsRepository.save(any(News.class))).thenAnswer(invocation -> invocation.getArgument(0));
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList("NEWS"), gameStartDate, gameEndDate);
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList("NEWS"), gameStartDate, gameEndDate);
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList("NEWS"), gameStartDate.plusDays(2),
+                                gameEndDate.minusDays(2));
+                verify(mockHttpClient, times(2)).send(any(HttpRequest.class),
+                                eq(HttpResponse.BodyHandlers.ofInputStream()));
+        }
+
+        @Test
+        void fetchAndSaveNewsForTickers_failedFetch_isNotCached() throws IOException, InterruptedException {
+                LocalDate gameStartDate = LocalDate.of(2023, 1, 1);
+                LocalDate gameEndDate = LocalDate.of(2023, 1, 2);
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
+                                .thenReturn(mockHttpResponse);
+                when(mockHttpResponse.statusCode()).thenReturn(500);
+                when(mockHttpResponse.body()).thenReturn(toStream("Internal Server Error"),
+                                toStream("Internal Server Error"));
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList("FAIL"), gameStartDate, gameEndDate);
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList("FAIL"), gameStartDate, gameEndDate);
+                verify(mockHttpClient, times(2)).send(any(HttpRequest.class),
+                                eq(HttpResponse.BodyHandlers.ofInputStream()));
+        }
+
+        @Test
+        void fetchAndSaveNewsForTickers_coverageCacheFull_evictsOldestWindow() throws IOException, InterruptedException {
+                LocalDate gameStartDate = LocalDate.of(2023, 1, 1);
+                LocalDate gameEndDate = LocalDate.of(2023, 1, 2);
+                int windows = 4097;
+                when(mockHttpClient.send(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofInputStream())))
+                                .thenReturn(mockHttpResponse);
+                when(mockHttpResponse.statusCode()).thenReturn(200);
+                when(mockHttpResponse.body())
+                                .thenAnswer(invocation -> toStream(createNewsResponseJson(Collections.emptyList())));
+                for (int i = 0; i < windows; i++) {
+                        newsService.fetchAndSaveNewsForTickers(Collections.singletonList("T" + i), gameStartDate,
+                                        gameEndDate);
+                }
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList("T0"), gameStartDate, gameEndDate);
+                newsService.fetchAndSaveNewsForTickers(Collections.singletonList("T4096"), gameStartDate, gameEndDate);
+                verify(mockHttpClient, times(windows + 1)).send(any(HttpRequest.class),
+                                eq(HttpResponse.BodyHandlers.ofInputStream()));
+        }
+
+        @Test
+        void getNewsVersion_readsNewestArticleIdForTheGameRange() {
+                LocalDate startDate = LocalDate.of(2023, 1, 1);
+                LocalDate endDate = LocalDate.of(2023, 1, 2);
+                LinkedHashMap<LocalDate, Map<String, Double>> stockTimeline = new LinkedHashMap<>();
+                stockTimeline.put(startDate, Map.of("AAPL", 150.0));
+                stockTimeline.put(endDate, Map.of("AAPL", 151.0));
+                InMemoryGameRegistry.registerGame(1L, new GameManager(1L, stockTimeline, 60));
+                when(newsRepository.findMaxIdByPublishedTimeBetween(startDate.atStartOfDay(),
+                                endDate.atTime(23, 59, 59))).thenReturn(42L, 43L);
+
+                assertEquals(42L, newsService.getNewsVersion(1L));
+                assertEquals(42L, newsService.getNewsVersion(1L));
+                verify(newsRepository, times(1)).findMaxIdByPublishedTimeBetween(any(LocalDateTime.class),
+                                any(LocalDateTime.class));
+                assertEquals(0L, newsService.getNewsVersion(2L));
+        }
+
         @Test
         void getNewsForGame_validGameIdAndData_returnsRelevantNewsDTOs() throws JsonProcessingException {
                 Long gameId = 1L;
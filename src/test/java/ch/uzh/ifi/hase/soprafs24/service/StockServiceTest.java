@@ -3,10 +3,17 @@ package ch.uzh.ifi.hase.soprafs24.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -17,18 +24,24 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import ch.uzh.ifi.hase.soprafs24.game.GameManager;
 import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
 import ch.uzh.ifi.hase.soprafs24.game.PlayerState;
+import ch.uzh.ifi.hase.soprafs24.repository.TradingCalendarRepository;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.StockHoldingDTO;
 import ch.uzh.ifi.hase.soprafs24.rest.dto.StockPriceGetDTO;
 
 @ExtendWith(MockitoExtension.class)
 public class StockServiceTest {
 
+    @Mock
+    private TradingCalendarRepository tradingCalendarRepository;
     @InjectMocks
     private StockService stockService;
     private Long gameIdCounter;
@@ -82,6 +95,24 @@ public class StockServiceTest {
         assertFalse(categoryMap.isEmpty());
     }
 
+    @Test
+    public void refreshTradingCalendar_refreshesInBatchesAndSurvivesFailure() {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            dates.add(LocalDate.of(2000, 1, 1).plusDays(i));
+        }
+        when(tradingCalendarRepository.refreshDates(anyCollection()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1000, 500);
+
+        stockService.refreshTradingCalendar(dates);
+
+        verify(tradingCalendarRepository).refreshDates(dates.subList(0, 1000));
+        verify(tradingCalendarRepository).refreshDates(dates.subList(1000, 2000));
+        verify(tradingCalendarRepository).refreshDates(dates.subList(2000, 2500));
+        verify(tradingCalendarRepository, times(3)).refreshDates(anyCollection());
+    }
+
     @Test
     public void getStockPrice_gameNotFound_throwsException() {
         Long nonExistentGameId = 999L;
@@ -214,6 +245,76 @@ public class StockServiceTest {
         assertEquals(50.0, currentPrices.get(0).getPrice());
     }
 
+    @Test
+    public void getCurrentRoundStockPricesJson_reusesBytesWithinRound() throws Exception {
+        Long gameId = getNextGameId();
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 3, 13), Map.of("TSLA", 200.0));
+        GameManager gameManager = setupActualGameInRegistry(gameId, timeline);
+
+        stockService.onRoundStarted(gameManager, 1);
+        byte[] first = stockService.getCurrentRoundStockPricesJson(gameId);
+        byte[] second = stockService.getCurrentRoundStockPricesJson(gameId);
+
+        assertSame(first, second);
+        JsonNode prices = new ObjectMapper().readTree(first);
+        assertEquals(1, prices.size());
+        assertEquals("TSLA", prices.get(0).get("symbol").asText());
+        assertEquals(200.0, prices.get(0).get("price").asDouble());
+        assertEquals("2024-03-13", prices.get(0).get("date").asText());
+        assertEquals(1, prices.get(0).get("round").asInt());
+    }
+
+    @Test
+    public void getStockPriceJson_matchesHistoryAndIsDroppedWhenGameEnds() throws Exception {
+        Long gameId = getNextGameId();
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 1, 1), Map.of("AAPL", 150.0));
+        timeline.put(LocalDate.of(2024, 1, 2), Map.of("AAPL", 152.0));
+        GameManager gameManager = setupActualGameInRegistry(gameId, timeline);
+
+        JsonNode history = new ObjectMapper().readTree(stockService.getStockPriceJson(gameId, "AAPL", 2));
+        assertEquals(2, history.size());
+        assertEquals(152.0, history.get(1).get("price").asDouble());
+        assertEquals(2, history.get(1).get("round").asInt());
+        assertEquals("[]", new String(stockService.getStockPriceJson(gameId, "GOOG", 2), StandardCharsets.UTF_8));
+        assertEquals("[]", new String(stockService.getStockPriceJson(gameId, "AAPL", 5), StandardCharsets.UTF_8));
+
+        byte[] beforeEnd = stockService.getStockPriceJson(gameId, "AAPL", 1);
+        stockService.onGameEnded(gameManager);
+        assertNotSame(beforeEnd, stockService.getStockPriceJson(gameId, "AAPL", 1));
+    }
+
+    @Test
+    public void getStockPriceJson_roundOutsideTimeline_sharesEmptyResponse() {
+        Long gameId = getNextGameId();
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 1, 1), Map.of("AAPL", 150.0));
+        setupActualGameInRegistry(gameId, timeline);
+
+        byte[] farAhead = stockService.getStockPriceJson(gameId, "AAPL", 1_000_000);
+        byte[] negative = stockService.getStockPriceJson(gameId, "AAPL", -7);
+
+        assertSame(farAhead, negative);
+        assertEquals("[]", new String(farAhead, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void getCurrentRoundStockPricesJson_timelineReplaced_servesNewPrices() throws Exception {
+        Long gameId = getNextGameId();
+        LinkedHashMap<LocalDate, Map<String, Double>> timeline = new LinkedHashMap<>();
+        timeline.put(LocalDate.of(2024, 3, 13), Map.of("TSLA", 200.0));
+        GameManager gameManager = setupActualGameInRegistry(gameId, timeline);
+        stockService.getCurrentRoundStockPricesJson(gameId);
+
+        LinkedHashMap<LocalDate, Map<String, Double>> replaced = new LinkedHashMap<>();
+        replaced.put(LocalDate.of(2024, 3, 13), Map.of("TSLA", 250.0));
+        gameManager.setStockTimeline(replaced);
+
+        JsonNode prices = new ObjectMapper().readTree(stockService.getCurrentRoundStockPricesJson(gameId));
+        assertEquals(250.0, prices.get(0).get("price").asDouble());
+    }
+
     @Test
     public void getPlayerHoldings_gameNotFound_throwsException() {
         Long nonExistentGameId = 999L;
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.util.List;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -96,6 +97,38 @@ public class UserServiceTest {
     assertThrows(ResponseStatusException.class, () -> userService.logoutUser("invalidToken"));
   }
 
+  @Test
+  public void checkAuthentication_repeatedToken_hitsDatabaseOnce() {
+    testUser.setToken("token");
+    Mockito.when(userRepository.findByToken("token")).thenReturn(testUser);
+    userService.checkAuthentication("token");
+    userService.checkAuthentication("token");
+    Mockito.verify(userRepository, Mockito.times(1)).findByToken("token");
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    userService.bindTo(registry);
+    assertEquals(1.0, registry.find("auth.token.cache.requests").tag("result", "hit").functionCounter().count());
+    assertEquals(0.5, registry.find("auth.token.cache.hit.ratio").gauge().value());
+  }
+
+  @Test
+  public void checkAuthentication_afterLogout_queriesDatabaseAgain() {
+    testUser.setToken("token");
+    Mockito.when(userRepository.findByToken("token")).thenReturn(testUser);
+    userService.checkAuthentication("token");
+    userService.logoutUser("token");
+    userService.checkAuthentication("token");
+    Mockito.verify(userRepository, Mockito.times(3)).findByToken("token");
+  }
+
+  @Test
+  public void checkAuthentication_unknownToken_throwsException() {
+    Mockito.when(userRepository.findByToken(Mockito.any())).thenReturn(null);
+    assertThrows(ResponseStatusException.class, () -> userService.checkAuthentication("unknown"));
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    userService.bindTo(registry);
+    assertEquals(0.0, registry.find("auth.token.cache.size").gauge().value());
+  }
+
   @Test
   public void getUsers_success() {
     Mockito.when(userRepository.findAll()).thenReturn(List.of(testUser));
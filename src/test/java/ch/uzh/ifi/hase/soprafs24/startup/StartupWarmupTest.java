@@ -0,0 +1,66 @@
+package ch.uzh.ifi.hase.soprafs24.startup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.LinkedHashMap;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import ch.uzh.ifi.hase.soprafs24.game.InMemoryGameRegistry;
+import ch.uzh.ifi.hase.soprafs24.service.StockService;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class StartupWarmupTest {
+
+    @Test
+    public void run_withoutMarketData_warmsOnSyntheticTimelineAndTimesEachPhase() {
+        StockService stockService = mock(StockService.class);
+        when(stockService.preloadStockTimeline()).thenReturn(new LinkedHashMap<>());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        int gamesBefore = InMemoryGameRegistry.size();
+
+        new StartupWarmup(stockService, new ObjectMapper().registerModule(new JavaTimeModule()), registry, 2, 3)
+                .run(null);
+
+        verify(stockService, times(1)).preloadStockTimeline();
+        for (String phase : new String[] { "market_data", "engine", "total" }) {
+            assertNotNull(registry.find("startup.warmup.phase").tag("phase", phase).timer(), phase);
+        }
+        assertEquals(gamesBefore, InMemoryGameRegistry.size());
+    }
+
+    @Test
+    public void run_marketDataFails_stillWarmsTheEngine() {
+        StockService stockService = mock(StockService.class);
+        when(stockService.preloadStockTimeline()).thenThrow(new IllegalStateException("database down"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new StartupWarmup(stockService, new ObjectMapper(), registry, 1, 2).run(null);
+
+        assertEquals(1L, registry.find("startup.warmup.phase").tag("phase", "engine").timer().count());
+    }
+
+    @Test
+    public void run_syntheticGames_recordNoEngineMetrics() {
+        StockService stockService = mock(StockService.class);
+        when(stockService.preloadStockTimeline()).thenReturn(new LinkedHashMap<>());
+        SimpleMeterRegistry engineRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(engineRegistry);
+        try {
+            new StartupWarmup(stockService, new ObjectMapper().registerModule(new JavaTimeModule()),
+                    new SimpleMeterRegistry(), 2, 3).run(null);
+
+            for (String operation : new String[] { "register_player", "submit_transactions", "next_round" }) {
+                assertEquals(0L, engineRegistry.find("game.engine.operation")
+                        .tag("operation", operation).timer().count(), operation);
+            }
+        } finally {
+            Metrics.removeRegistry(engineRegistry);
+        }
+    }
+}